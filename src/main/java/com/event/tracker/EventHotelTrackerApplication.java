@@ -1,7 +1,11 @@
 package com.event.tracker;
 
+import com.event.tracker.batch.NdjsonBatchRunner;
 import com.event.tracker.tools.CalculateFinalSurgeTool;
 import com.event.tracker.tools.GetAnalysisParametersTool;
+import com.event.tracker.tools.ShadowComparisonTool;
+import com.event.tracker.tools.SurgeHistoryTool;
+import com.event.tracker.tools.SurgeSubscriptionTool;
 import org.springframework.ai.support.ToolCallbacks;
 import org.springframework.ai.tool.ToolCallback;
 import org.springframework.boot.SpringApplication;
@@ -9,17 +13,30 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 
 import java.util.List;
+import java.util.Map;
 
 @SpringBootApplication
 public class EventHotelTrackerApplication {
 
 	public static void main(String[] args) {
+		if (NdjsonBatchRunner.isBatchMode(args)) {
+			// Batch mode reads requests from a file/stdin instead of serving MCP over stdio, and is
+			// too short-lived to be worth preloading every country's holidays
+			SpringApplication application = new SpringApplication(EventHotelTrackerApplication.class);
+			application.setDefaultProperties(Map.of("spring.ai.mcp.server.enabled", "false",
+					"holidays.preload.enabled", "false"));
+			System.exit(SpringApplication.exit(application.run(args)));
+		}
 		SpringApplication.run(EventHotelTrackerApplication.class, args);
 	}
 	@Bean
 	public List<ToolCallback> hotelTools(CalculateFinalSurgeTool calculateFinalSurgeTool,
-										 GetAnalysisParametersTool getAnalysisParametersTool) {
-		return List.of(ToolCallbacks.from(calculateFinalSurgeTool, getAnalysisParametersTool));
+										 GetAnalysisParametersTool getAnalysisParametersTool,
+										 ShadowComparisonTool shadowComparisonTool,
+										 SurgeSubscriptionTool surgeSubscriptionTool,
+										 SurgeHistoryTool surgeHistoryTool) {
+		return List.of(ToolCallbacks.from(calculateFinalSurgeTool, getAnalysisParametersTool,
+				shadowComparisonTool, surgeSubscriptionTool, surgeHistoryTool));
 	}
 
 }
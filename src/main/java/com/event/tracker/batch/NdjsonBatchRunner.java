@@ -0,0 +1,279 @@
+package com.event.tracker.batch;
+
+import com.event.tracker.model.SurgeBatch;
+import com.event.tracker.service.SurgeBatchScorer;
+import com.event.tracker.tools.CalculateFinalSurgeTool;
+import com.event.tracker.tools.GetAnalysisParametersTool;
+import com.event.tracker.utils.JsonHelper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Offline batch mode: streams NDJSON tool requests from a file or stdin and writes one NDJSON
+// result per request, in input order. At most batch.parallelism requests run at once and only a
+// small window of pending results is held, so input of any size runs in constant memory.
+//
+// Request lines: {"id": ..., "tool": "<name>", "arguments": {...}} where tool is
+// get_analysis_parameters, calculate_final_surge, or "surge" (both steps; the analysis arguments
+// plus currentMarketData, baselinePrice, calculationMode, includeExplanation and includeUncertainty).
+// Argument names match the tool parameters. "reprice" scores many hotels against one analysis
+// through SurgeBatchScorer: analysisParameters (or the analysis arguments, to fetch one),
+// calculationMode and hotels, a list of {price, baseline, latitude?, longitude?}; the result has
+// one {surge_percentage, model_surge, confidence_level} per hotel, in order.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "batch.input")
+public class NdjsonBatchRunner implements ApplicationRunner, ExitCodeGenerator {
+
+    public static final String STDIO = "-";
+
+    private final GetAnalysisParametersTool analysisTool;
+    private final CalculateFinalSurgeTool surgeTool;
+    private final SurgeBatchScorer batchScorer;
+    private final ObjectMapper mapper = JsonHelper.getMapper();
+    private final String input;
+    private final String output;
+    private final int parallelism;
+    private final boolean explanations;
+    private int exitCode;
+
+    public NdjsonBatchRunner(GetAnalysisParametersTool analysisTool,
+                             CalculateFinalSurgeTool surgeTool,
+                             SurgeBatchScorer batchScorer,
+                             @Value("${batch.input}") String input,
+                             @Value("${batch.output:-}") String output,
+                             @Value("${batch.parallelism:4}") int parallelism,
+                             @Value("${batch.explanations:true}") boolean explanations) {
+        this.analysisTool = analysisTool;
+        this.surgeTool = surgeTool;
+        this.batchScorer = batchScorer;
+        this.input = input;
+        this.output = output;
+        this.parallelism = Math.max(1, parallelism);
+        this.explanations = explanations;
+    }
+
+    // Batch mode owns stdin/stdout, so main() must not start the stdio MCP server alongside it
+    public static boolean isBatchMode(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith("--batch.input=")) {
+                return true;
+            }
+        }
+        return System.getProperty("batch.input") != null || System.getenv("BATCH_INPUT") != null;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "batch-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        Deque<Future<Outcome>> pending = new ArrayDeque<>();
+        long lines = 0;
+        long errors = 0;
+        long start = System.nanoTime();
+
+        try (BufferedReader reader = openInput(); BufferedWriter writer = openOutput()) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                long lineNumber = ++lines;
+                String request = line;
+                pending.add(workers.submit(() -> process(lineNumber, request)));
+                if (pending.size() >= parallelism * 2) {
+                    errors += write(writer, pending.poll());
+                }
+            }
+            while (!pending.isEmpty()) {
+                errors += write(writer, pending.poll());
+            }
+        } catch (IOException e) {
+            log.error("Batch run failed after {} requests", lines, e);
+            exitCode = 1;
+        } finally {
+            workers.shutdownNow();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        log.info("Batch complete: {} requests ({} errors) in {} s, {} req/s",
+                lines, errors, String.format("%.2f", seconds), String.format("%.1f", lines / Math.max(seconds, 1e-9)));
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    private record Outcome(String json, boolean error) {
+    }
+
+    private Outcome process(long lineNumber, String line) {
+        ObjectNode out = mapper.createObjectNode();
+        out.put("line", lineNumber);
+        long start = System.nanoTime();
+        try {
+            JsonNode request = mapper.readTree(line);
+            if (request.has("id")) {
+                out.set("id", request.get("id"));
+            }
+            String tool = request.path("tool").asText();
+            out.put("tool", tool);
+            out.set("result", dispatch(tool, request.path("arguments")));
+        } catch (Exception e) {
+            ObjectNode error = mapper.createObjectNode();
+            error.put("error", "EXECUTION_ERROR");
+            error.put("message", e.getMessage());
+            out.set("result", error);
+        }
+        out.put("elapsed_ms", (System.nanoTime() - start) / 1_000_000.0);
+        return new Outcome(out.toString(), out.path("result").has("error"));
+    }
+
+    private JsonNode dispatch(String tool, JsonNode args) {
+        return switch (tool) {
+            case "get_analysis_parameters" -> analyze(args);
+            case "calculate_final_surge" -> surgeTool.execute(args.path("analysisParameters"),
+                    args.path("currentMarketData"), optionalDouble(args, "baselinePrice"),
+                    optionalText(args, "calculationMode"), includeExplanation(args),
+                    optionalBoolean(args, "includeUncertainty"));
+            case "surge" -> {
+                JsonNode analysis = analyze(args);
+                yield analysis.has("error")
+                        ? analysis
+                        : surgeTool.execute(analysis, args.path("currentMarketData"),
+                        optionalDouble(args, "baselinePrice"), optionalText(args, "calculationMode"),
+                        includeExplanation(args), optionalBoolean(args, "includeUncertainty"));
+            }
+            case "reprice" -> reprice(args);
+            default -> throw new IllegalArgumentException("Unknown tool: " + tool);
+        };
+    }
+
+    private JsonNode analyze(JsonNode args) {
+        return analysisTool.getAnalysisParameters(
+                args.path("city").asText(),
+                args.path("countryCode").asText(),
+                args.path("checkInDate").asText(),
+                args.path("checkOutDate").asText(),
+                args.hasNonNull("searchRadiusKm") ? args.get("searchRadiusKm").asInt() : null,
+                args.hasNonNull("timeBudgetMs") ? args.get("timeBudgetMs").asInt() : null);
+    }
+
+    private JsonNode reprice(JsonNode args) {
+        JsonNode analysis = args.has("analysisParameters") ? args.get("analysisParameters") : analyze(args);
+        if (analysis.has("error")) {
+            return analysis;
+        }
+        JsonNode hotels = args.path("hotels");
+        if (!hotels.isArray() || hotels.isEmpty()) {
+            throw new IllegalArgumentException("reprice needs a non-empty hotels list");
+        }
+        int rows = hotels.size();
+        double[] price = new double[rows];
+        double[] baseline = new double[rows];
+        double[] latitude = new double[rows];
+        double[] longitude = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            JsonNode hotel = hotels.get(i);
+            price[i] = hotel.path("price").asDouble(Double.NaN);
+            baseline[i] = hotel.path("baseline").asDouble(Double.NaN);
+            if (!(price[i] > 0) || !(baseline[i] > 0)) {
+                throw new IllegalArgumentException("hotels[" + i + "] needs a positive price and baseline");
+            }
+            latitude[i] = hotel.path("latitude").asDouble(Double.NaN);
+            longitude[i] = hotel.path("longitude").asDouble(Double.NaN);
+        }
+        SurgeBatchScorer.Result scored = batchScorer.score(SurgeBatch.builder()
+                .analyses(List.of(analysis))
+                .analysisIndex(new int[rows])
+                .hotelLatitude(latitude)
+                .hotelLongitude(longitude)
+                .price(price)
+                .baseline(baseline)
+                .build(), optionalText(args, "calculationMode"));
+
+        ObjectNode result = mapper.createObjectNode();
+        ArrayNode out = result.putArray("rows");
+        for (int i = 0; i < rows; i++) {
+            out.addObject()
+                    .put("surge_percentage", scored.surgePercentage[i])
+                    .put("model_surge", scored.modelSurge[i])
+                    .put("confidence_level", scored.confidence[i]);
+        }
+        return result;
+    }
+
+    // Per-request includeExplanation wins over batch.explanations
+    private boolean includeExplanation(JsonNode args) {
+        return args.hasNonNull("includeExplanation") ? args.get("includeExplanation").asBoolean() : explanations;
+    }
+
+    private static Double optionalDouble(JsonNode args, String field) {
+        return args.hasNonNull(field) ? args.get(field).asDouble() : null;
+    }
+
+    private static Boolean optionalBoolean(JsonNode args, String field) {
+        return args.hasNonNull(field) ? args.get(field).asBoolean() : null;
+    }
+
+    private static String optionalText(JsonNode args, String field) {
+        return args.hasNonNull(field) ? args.get(field).asText() : null;
+    }
+
+    // Writes the oldest pending result; returns 1 when it is an error result
+    private int write(BufferedWriter writer, Future<Outcome> result) throws IOException {
+        Outcome outcome;
+        try {
+            outcome = result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for batch results", e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+        writer.write(outcome.json());
+        writer.newLine();
+        writer.flush();
+        return outcome.error() ? 1 : 0;
+    }
+
+    private BufferedReader openInput() throws IOException {
+        return STDIO.equals(input)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(input), StandardCharsets.UTF_8);
+    }
+
+    private BufferedWriter openOutput() throws IOException {
+        return STDIO.equals(output)
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(Path.of(output), StandardCharsets.UTF_8);
+    }
+}
@@ -1,5 +1,9 @@
 package com.event.tracker.config;
 
+import com.event.tracker.upstream.UpstreamRecordings;
+import com.event.tracker.upstream.UpstreamStubServer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
@@ -7,20 +11,52 @@ import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.netty.http.client.HttpClient;
 
+// upstream.mode: live (default) calls the real APIs, record also saves every response to
+// upstream.recordings.dir, replay points both clients at the local UpstreamStubServer.
+// live and record need ticketmaster.api.key; startup fails without one.
+@Slf4j
 @Configuration
 public class WebClientConfig {
 
+    private final String mode;
+    private final UpstreamRecordings recordings;
+    private final UpstreamStubServer stubServer;
+
+    public WebClientConfig(@Value("${upstream.mode:live}") String mode,
+                           UpstreamRecordings recordings,
+                           UpstreamStubServer stubServer) {
+        this.mode = mode.toLowerCase();
+        this.recordings = recordings;
+        this.stubServer = stubServer;
+    }
+
     @Bean(name = "ticketmasterWebClient")
-    public WebClient ticketmasterWebClient() {
-        return WebClient.builder()
-                .baseUrl("https://app.ticketmaster.com/discovery/v2")
-                .build();
+    public WebClient ticketmasterWebClient(
+            @Value("${ticketmaster.api.base-url:https://app.ticketmaster.com/discovery/v2}") String baseUrl,
+            @Value("${ticketmaster.api.key:}") String apiKey) {
+        // Without a key every live Ticketmaster call fails; refuse to start instead
+        if (!"replay".equals(mode) && (apiKey == null || apiKey.isBlank())) {
+            throw new IllegalStateException("ticketmaster.api.key (TICKETMASTER_API_KEY) must be set when upstream.mode="
+                    + mode);
+        }
+        return client(UpstreamRecordings.TICKETMASTER, baseUrl);
     }
 
     @Bean(name = "holidayWebClient")
-    public WebClient holidayWebClient() {
-        return WebClient.builder()
-                .baseUrl("https://date.nager.at/api/v3")
-                .build();
+    public WebClient holidayWebClient(
+            @Value("${holiday.api.base-url:https://date.nager.at/api/v3}") String baseUrl) {
+        return client(UpstreamRecordings.HOLIDAYS, baseUrl);
+    }
+
+    private WebClient client(String upstream, String baseUrl) {
+        WebClient.Builder builder = WebClient.builder();
+        switch (mode) {
+            case "replay" -> builder.baseUrl(stubServer.baseUrl(upstream));
+            case "record" -> builder.baseUrl(baseUrl).filter(recordings.recordingFilter(upstream, baseUrl));
+            case "live" -> builder.baseUrl(baseUrl);
+            default -> throw new IllegalStateException("Unknown upstream.mode: " + mode);
+        }
+        log.info("{} client in {} mode", upstream, mode);
+        return builder.build();
     }
 }
@@ -0,0 +1,26 @@
+package com.event.tracker.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+// Merged events of all sources that answered in time, plus the reason for every source that did not.
+// A source that missed but kept an earlier answer contributes that instead and is listed as stale.
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AggregatedEvents {
+    private List<Event> events;
+    private List<String> completedSources;
+    private Map<String, String> missedSources;
+    private Map<String, String> staleSources;
+
+    public boolean isPartial() {
+        return !missedSources.isEmpty() || !staleSources.isEmpty();
+    }
+}
@@ -0,0 +1,28 @@
+package com.event.tracker.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Month;
+import java.util.List;
+import java.util.Set;
+
+@Value
+@Builder
+public class CityInfo {
+    String name;
+    String country;
+    List<String> aliases;
+    Set<Month> peakMonths;
+    double baselinePrice;
+    String currency;
+    List<String> tourismCurve; // 12 entries, January first; empty when unknown
+
+    public boolean isPeak(Month month) {
+        return peakMonths.contains(month);
+    }
+
+    public String tourismLevel(Month month) {
+        return tourismCurve.isEmpty() ? null : tourismCurve.get(month.ordinal());
+    }
+}
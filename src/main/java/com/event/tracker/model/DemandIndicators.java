@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -13,5 +15,9 @@ public class DemandIndicators {
     private int majorEventsCount;
     private int totalExpectedVisitors;
     private double eventImpactScore;
+    private LocalDate peakDay;
+    private int peakDayVisitors;
+    private double peakDayPressure;
+    private int[] dailyVisitors;
     private String demandLevel;
 }
@@ -12,17 +12,23 @@ import java.time.LocalTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Event {
     private String id;
     private String name;
     private String type;
     private String venue;
     private LocalDate date;
+    private LocalDate endDate; // last day of a multi-day cluster, null for single-day events
     private LocalTime time;
     private Integer capacity;
-    private Integer expectedVisitors;
+    private Boolean capacityEstimated; // true when guessed from the event type, not the venue
+    private Integer expectedVisitors; // busiest day for clusters
+    private Integer totalVisitors;    // clusters only: attendance summed over their days
+    private Integer listingCount;     // clusters only: raw listings merged into this event
     private Double distanceKm;
+    private Double latitude;
+    private Double longitude;
     private String impactLevel;
     private String ticketAvailability;
 }
\ No newline at end of file
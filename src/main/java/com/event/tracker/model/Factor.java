@@ -1,18 +1,15 @@
 package com.event.tracker.model;
 
-import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
 
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
+// Immutable: cached SurgeComponents share their factors across results
+@Value
 @Builder
 public class Factor {
-    private String factor;
-    private String description;
-    private double impactPercentage;
-    private double weight;
-    private String severity;
+    String factor;
+    String description;
+    double impactPercentage;
+    double weight;
+    String severity;
 }
@@ -0,0 +1,18 @@
+package com.event.tracker.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Holidays of one country and year, and whether they are current, an expired copy or unavailable
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class HolidayLookup {
+    private List<Holiday> holidays;
+    private SourceStatus status;
+}
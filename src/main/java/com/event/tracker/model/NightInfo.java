@@ -0,0 +1,24 @@
+package com.event.tracker.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NightInfo {
+    private LocalDate date;
+    private int eventCount;
+    private int expectedVisitors;
+    private int majorEvents;
+    private boolean isWeekend;
+    private boolean isHoliday;
+    private boolean isLongWeekend;
+    private boolean isPeakSeason;
+    private String tourismLevel;
+}
@@ -0,0 +1,18 @@
+package com.event.tracker.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Immutable recommendation template; the saving is a share of the actual surge (null = none quoted)
+@Getter
+@AllArgsConstructor
+public final class Recommendation {
+    private final String type;
+    private final String suggestion;
+    private final Double savingShare;
+    private final String urgency;
+
+    public Double potentialSaving(double surgePercentage) {
+        return savingShare != null ? surgePercentage * savingShare : null;
+    }
+}
@@ -0,0 +1,25 @@
+package com.event.tracker.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShadowSample {
+    private Instant timestamp;
+    private String city;
+    private String primaryModel;
+    private String candidateModel;
+    private double primaryModelSurge;
+    private double candidateModelSurge;
+    private double delta;
+    private double primaryConfidence;
+    private double candidateConfidence;
+    private boolean primaryDriverChanged;
+}
@@ -0,0 +1,14 @@
+package com.event.tracker.model;
+
+import java.util.Locale;
+
+// How an input source contributed to one analysis
+public enum SourceStatus {
+    FRESH,   // answered within its TTL
+    STALE,   // could not answer in time; an expired cached copy was used
+    MISSING; // no data at all
+
+    public String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,28 @@
+package com.event.tracker.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Column-oriented input for bulk scoring. Row i prices one hotel against
+// analyses.get(analysisIndex[i]); many rows usually share an analysis.
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SurgeBatch {
+    private List<JsonNode> analyses;
+    private int[] analysisIndex;
+    private double[] hotelLatitude;  // NaN when unknown: the events' own distance_km is used
+    private double[] hotelLongitude;
+    private double[] price;
+    private double[] baseline;
+
+    public int size() {
+        return analysisIndex.length;
+    }
+}
@@ -15,15 +15,18 @@ import java.util.Map;
 public class SurgeCalculation {
     private double surgePercentage;
     private double modelSurge;
+    private SurgeInterval modelSurgeInterval; // null when uncertainty estimation is off
     private String surgeCategory;
     private String primaryDriver;
     private double confidenceLevel;
+    private double dataCompleteness; // 1.0 unless the analysis was partial
     private boolean surgeJustified;
     private String explanation;
     private String mode;
+    private String modelKey;
     private List<Factor> factors;
     private Map<String, Double> factorWeights;
-    private List<Map<String, Object>> recommendations;
+    private List<Recommendation> recommendations;
 
     // Weights
     private double eventWeight;
@@ -0,0 +1,27 @@
+package com.event.tracker.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Price-independent part of a surge calculation; depends only on the analysis parameters
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SurgeComponents {
+    private double eventImpact;
+    private double seasonalImpact;
+    private double calendarImpact;
+    private double demandImpact;
+    private double modelSurge;
+    private List<Factor> factors;
+    private String primaryDriver;
+    private String explanationDriver;
+    private long significantFactors;
+    // Price-independent end of the explanation sentence, e.g. "major events combined with 2 other significant factors."
+    private String explanationTail;
+}
@@ -0,0 +1,20 @@
+package com.event.tracker.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SurgeHistoryPoint {
+    private Instant timestamp;
+    private double surgePercentage;
+    private double modelSurge;
+    private String surgeCategory;
+    private String primaryDriver;
+}
@@ -0,0 +1,50 @@
+package com.event.tracker.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Monte Carlo distribution of the model surge (percent) for one analysis and model
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SurgeInterval {
+    private double level;      // central probability covered by [low, high], e.g. 0.9
+    private double low;
+    private double median;
+    private double high;
+    private double mean;
+    private double stdDev;
+    private int samples;
+    private double[] quantiles; // every 5th percentile, 0..100
+
+    // Same distribution stretched around the median by factor, for analyses missing some inputs
+    public SurgeInterval widened(double factor) {
+        double[] stretched = new double[quantiles.length];
+        for (int i = 0; i < quantiles.length; i++) {
+            stretched[i] = median + (quantiles[i] - median) * factor;
+        }
+        return new SurgeInterval(level, median + (low - median) * factor, median, median + (high - median) * factor,
+                median + (mean - median) * factor, stdDev * factor, samples, stretched);
+    }
+
+    // Share of simulated model surges below value (0-1), interpolated between stored quantiles
+    public double cumulativeProbability(double value) {
+        int last = quantiles.length - 1;
+        if (value <= quantiles[0]) {
+            return 0.0;
+        }
+        if (value >= quantiles[last]) {
+            return 1.0;
+        }
+        int i = 1;
+        while (quantiles[i] < value) {
+            i++;
+        }
+        double span = quantiles[i] - quantiles[i - 1];
+        double within = span > 0 ? (value - quantiles[i - 1]) / span : 1.0;
+        return (i - 1 + within) / last;
+    }
+}
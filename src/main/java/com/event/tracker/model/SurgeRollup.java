@@ -0,0 +1,46 @@
+package com.event.tracker.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// Aggregate of the history points that fall into one hourly or daily bucket
+@Data
+@NoArgsConstructor
+public class SurgeRollup {
+    private Instant bucketStart;
+    private long count;
+    private double minSurgePercentage = Double.POSITIVE_INFINITY;
+    private double maxSurgePercentage = Double.NEGATIVE_INFINITY;
+    private double sumSurgePercentage;
+    private double minModelSurge = Double.POSITIVE_INFINITY;
+    private double maxModelSurge = Double.NEGATIVE_INFINITY;
+    private double sumModelSurge;
+    private String lastSurgeCategory;
+    private String lastPrimaryDriver;
+
+    public SurgeRollup(Instant bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public void add(double surgePercentage, double modelSurge, String category, String driver) {
+        count++;
+        minSurgePercentage = Math.min(minSurgePercentage, surgePercentage);
+        maxSurgePercentage = Math.max(maxSurgePercentage, surgePercentage);
+        sumSurgePercentage += surgePercentage;
+        minModelSurge = Math.min(minModelSurge, modelSurge);
+        maxModelSurge = Math.max(maxModelSurge, modelSurge);
+        sumModelSurge += modelSurge;
+        lastSurgeCategory = category;
+        lastPrimaryDriver = driver;
+    }
+
+    public double getAvgSurgePercentage() {
+        return count == 0 ? 0 : sumSurgePercentage / count;
+    }
+
+    public double getAvgModelSurge() {
+        return count == 0 ? 0 : sumModelSurge / count;
+    }
+}
@@ -0,0 +1,33 @@
+package com.event.tracker.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SurgeUpdate {
+    private String subscriptionId;
+    private long sequence;
+    private Instant timestamp;
+    private String city;
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+    private List<String> hotels;
+    private List<LocalDate> changedDays; // every day of the stay on the initial snapshot
+    private Map<LocalDate, Double> dayEventImpacts; // changed days only
+    private boolean calendarChanged;
+    private double previousModelSurge;
+    private double modelSurge;
+    private String primaryDriver;
+    private JsonNode analysisParameters; // only set on the initial snapshot
+}
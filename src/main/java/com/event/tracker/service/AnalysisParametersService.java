@@ -0,0 +1,385 @@
+package com.event.tracker.service;
+
+import com.event.tracker.model.*;
+import com.event.tracker.tracing.PipelineTracer;
+import com.event.tracker.tracing.Trace;
+import com.event.tracker.utils.Deadline;
+import com.event.tracker.utils.DemandAggregator;
+import com.event.tracker.utils.HolidayCalendar;
+import com.event.tracker.utils.SingleFlight;
+import com.event.tracker.utils.TokenBucketLimiter.Priority;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Builds the analysis_parameters object (events, seasonality, calendar, nights, demand) for a city and
+// stay. Used by the get_analysis_parameters tool and by subscription refreshes.
+@Service
+public class AnalysisParametersService {
+
+    private final EventSourceAggregator eventSources;
+    private final TicketmasterService ticketmasterService;
+    private final HolidayService holidayService;
+    private final SeasonalityService seasonalityService;
+    private final PipelineTracer tracer;
+    private final ObjectMapper objectMapper;
+
+    // Identical concurrent requests share one upstream fetch and one response build
+    private final SingleFlight<String, JsonNode> inFlight = new SingleFlight<>();
+
+    public AnalysisParametersService(
+            EventSourceAggregator eventSources,
+            TicketmasterService ticketmasterService,
+            HolidayService holidayService,
+            SeasonalityService seasonalityService,
+            PipelineTracer tracer) {
+        this.eventSources = eventSources;
+        this.ticketmasterService = ticketmasterService;
+        this.holidayService = holidayService;
+        this.seasonalityService = seasonalityService;
+        this.tracer = tracer;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    public JsonNode getAnalysisParameters(String city, String countryCode, String checkInDate, String checkOutDate,
+                                          Integer searchRadiusKm, Priority priority) {
+        return getAnalysisParameters(city, countryCode, checkInDate, checkOutDate, searchRadiusKm, null, priority);
+    }
+
+    // Background callers (subscription refreshes) queue behind interactive requests for Ticketmaster
+    // permits and bypass the upstream cache. Only calls with the same priority and budget are joined,
+    // so an interactive call never waits behind a background permit or deadline.
+    public JsonNode getAnalysisParameters(String city, String countryCode, String checkInDate, String checkOutDate,
+                                          Integer searchRadiusKm, Integer timeBudgetMs, Priority priority) {
+        Deadline deadline = Deadline.ofMillis(timeBudgetMs);
+        int radius = searchRadiusKm != null ? searchRadiusKm : 30;
+        String key = String.join("|",
+                city == null ? "" : city.trim().toLowerCase(Locale.ROOT),
+                countryCode == null ? "" : countryCode.trim().toUpperCase(Locale.ROOT),
+                String.valueOf(checkInDate).trim(),
+                String.valueOf(checkOutDate).trim(),
+                String.valueOf(radius),
+                deadline.isBounded() ? String.valueOf(deadline.budgetMillis()) : "",
+                priority.name());
+        return inFlight.run(key,
+                () -> analyze(city, countryCode, checkInDate, checkOutDate, radius, priority, deadline),
+                JsonNode::deepCopy);
+    }
+
+    public Map<String, Long> coalescingStats() {
+        return inFlight.stats();
+    }
+
+    private JsonNode analyze(String city, String countryCode, String checkInDate, String checkOutDate, int radius,
+                             Priority priority, Deadline deadline) {
+        // Only the call that does the work is traced; callers joining it are not
+        Trace trace = tracer.start("get_analysis_parameters");
+        trace.attribute("city", city);
+        trace.attribute("priority", priority.name());
+        try {
+            LocalDate checkIn = LocalDate.parse(checkInDate);
+            LocalDate checkOut = LocalDate.parse(checkOutDate);
+            // Fetch events
+            trace.stage("fetch_events");
+            AggregatedEvents fetched = eventSources.fetchEvents(city, countryCode, checkIn, checkOut, radius,
+                    priority, deadline);
+            List<Event> events = fetched.getEvents();
+
+            // Get seasonality (in-process, not bound by the deadline)
+            trace.stage("seasonality");
+            SeasonalityInfo seasonality = seasonalityService.analyze(city, checkIn);
+
+            // Get holidays within what is left of the budget, from every year the stay (and the
+            // long weekends around its ends) touches
+            trace.stage("fetch_holidays");
+            HolidayLookup holidayLookup = holidayService.lookupHolidays(countryCode,
+                    checkIn.minusDays(HolidayCalendar.LONG_WEEKEND_SPAN_DAYS),
+                    checkOut.plusDays(HolidayCalendar.LONG_WEEKEND_SPAN_DAYS), deadline);
+            List<Holiday> holidays = holidayLookup.getHolidays();
+
+            // Analyze calendar factors
+            trace.stage("calendar");
+            CalendarInfo calendarInfo = analyzeCalendar(checkIn, checkOut, holidays);
+
+            // Per-day event histogram, shared by the demand indicators and the per-night sweep
+            trace.stage("demand");
+            DemandAggregator eventDays = aggregateEvents(events, checkIn, checkOut);
+
+            // Calculate demand indicators
+            DemandIndicators demand = calculateDemand(eventDays, seasonality, calendarInfo);
+
+            // Per-night breakdown of the stay
+            trace.stage("nights");
+            List<NightInfo> nights = analyzeNights(city, checkIn, checkOut, eventDays, holidays, seasonality);
+
+            // Build response
+            trace.stage("build_response");
+            trace.attribute("events", events.size());
+            trace.attribute("partial", fetched.isPartial() || holidayLookup.getStatus() != SourceStatus.FRESH);
+            return buildResponse(city, checkIn, checkOut, fetched, holidayLookup.getStatus(), seasonality,
+                    calendarInfo, nights, demand, deadline);
+
+        } catch (Exception e) {
+            trace.attribute("error", String.valueOf(e.getMessage()));
+            ObjectNode errorNode = objectMapper.createObjectNode();
+            errorNode.put("error", "EXECUTION_ERROR");
+            errorNode.put("message", e.getMessage());
+            return errorNode;
+        } finally {
+            trace.end();
+        }
+    }
+
+    private CalendarInfo analyzeCalendar(LocalDate checkIn, LocalDate checkOut, List<Holiday> holidays) {
+        boolean isWeekend = isWeekend(checkIn);
+        boolean isHoliday = holidayService.isHoliday(checkIn, holidays);
+        boolean isLongWeekend = holidayService.isLongWeekend(checkIn, holidays);
+
+        List<Holiday> relevantHolidays = holidays.stream()
+                .filter(h -> !h.getDate().isBefore(checkIn) && !h.getDate().isAfter(checkOut))
+                .toList();
+
+        return CalendarInfo.builder()
+                .isWeekend(isWeekend)
+                .isHoliday(isHoliday)
+                .isLongWeekend(isLongWeekend)
+                .isSchoolHoliday(false) // Optional enhancement
+                .holidays(relevantHolidays)
+                .build();
+    }
+
+    // Single linear sweep over the nights using the per-day event and holiday tables; seasonality is
+    // only re-resolved when the sweep crosses into a new month
+    private List<NightInfo> analyzeNights(String city, LocalDate checkIn, LocalDate checkOut,
+                                          DemandAggregator eventDays, List<Holiday> holidays,
+                                          SeasonalityInfo checkInSeasonality) {
+        int nightCount = (int) Math.max(1, ChronoUnit.DAYS.between(checkIn, checkOut));
+        HolidayCalendar holidayCalendar = new HolidayCalendar(holidays, checkIn, checkIn.plusDays(nightCount - 1));
+
+        List<NightInfo> nights = new ArrayList<>(nightCount);
+        SeasonalityInfo seasonality = checkInSeasonality;
+        for (int i = 0; i < nightCount; i++) {
+            LocalDate date = checkIn.plusDays(i);
+            if (i > 0 && date.getDayOfMonth() == 1) {
+                seasonality = seasonalityService.analyze(city, date);
+            }
+            boolean inEventWindow = i < eventDays.days();
+            nights.add(NightInfo.builder()
+                    .date(date)
+                    .expectedVisitors(inEventWindow ? eventDays.visitorsOn(i) : 0)
+                    .eventCount(inEventWindow ? eventDays.eventsOn(i) : 0)
+                    .majorEvents(inEventWindow ? eventDays.majorEventsOn(i) : 0)
+                    .isWeekend(isWeekend(date))
+                    .isHoliday(holidayCalendar.isHoliday(i))
+                    .isLongWeekend(holidayCalendar.isLongWeekend(i))
+                    .isPeakSeason(seasonality.isPeakSeason())
+                    .tourismLevel(seasonality.getTourismLevel())
+                    .build());
+        }
+        return nights;
+    }
+
+    private boolean isWeekend(LocalDate date) {
+        return date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+    }
+
+    private DemandAggregator aggregateEvents(List<Event> events, LocalDate checkIn, LocalDate checkOut) {
+        DemandAggregator aggregator = new DemandAggregator(checkIn, checkOut);
+        for (Event event : events) {
+            aggregator.add(event.getDate(), event.getEndDate(),
+                    event.getExpectedVisitors() != null ? event.getExpectedVisitors() : 0,
+                    event.getImpactLevel());
+        }
+        return aggregator;
+    }
+
+    private DemandIndicators calculateDemand(DemandAggregator aggregator, SeasonalityInfo seasonality,
+                                             CalendarInfo calendar) {
+        // Demand level follows the busiest day, so events spread over a long stay don't stack up
+        // as if they all happened on the same night
+        int peakDay = aggregator.peakDay();
+        double peakPressure = aggregator.pressureOn(peakDay);
+        int peakMajorEvents = aggregator.majorEventsOn(peakDay);
+
+        String demandLevel;
+        if (peakPressure > 7 || peakMajorEvents > 2) demandLevel = "very_high";
+        else if (peakPressure > 5 || peakMajorEvents > 1) demandLevel = "high";
+        else if (peakPressure > 3 || seasonality.isPeakSeason()) demandLevel = "medium";
+        else demandLevel = "low";
+
+        return DemandIndicators.builder()
+                .majorEventsCount(aggregator.majorEvents())
+                .totalExpectedVisitors((int) Math.min(Integer.MAX_VALUE, aggregator.totalVisitors()))
+                .eventImpactScore(aggregator.pressure())
+                .peakDay(aggregator.day(peakDay))
+                .peakDayVisitors(aggregator.visitorsOn(peakDay))
+                .peakDayPressure(peakPressure)
+                .dailyVisitors(aggregator.dailyVisitors())
+                .demandLevel(demandLevel)
+                .build();
+    }
+
+    private JsonNode buildResponse(String city, LocalDate checkIn, LocalDate checkOut,
+                                   AggregatedEvents fetched, SourceStatus holidayStatus,
+                                   SeasonalityInfo seasonality, CalendarInfo calendar,
+                                   List<NightInfo> nights, DemandIndicators demand, Deadline deadline) {
+        List<Event> events = fetched.getEvents();
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("city", city);
+        response.put("analysis_date", LocalDate.now().toString());
+
+        // Stay period
+        ObjectNode stayPeriod = objectMapper.createObjectNode();
+        stayPeriod.put("check_in", checkIn.toString());
+        stayPeriod.put("check_out", checkOut.toString());
+        stayPeriod.put("nights", ChronoUnit.DAYS.between(checkIn, checkOut));
+        response.set("stay_period", stayPeriod);
+
+        // Events
+        ArrayNode eventsArray = objectMapper.createArrayNode();
+        for (Event event : events) {
+            ObjectNode eventNode = objectMapper.createObjectNode();
+            eventNode.put("id", event.getId());
+            eventNode.put("name", event.getName());
+            eventNode.put("type", event.getType());
+            eventNode.put("venue", event.getVenue());
+            eventNode.put("date", event.getDate().toString());
+            if (event.getEndDate() != null) eventNode.put("end_date", event.getEndDate().toString());
+            if (event.getTime() != null) eventNode.put("time", event.getTime().toString());
+            eventNode.put("capacity", event.getCapacity());
+            eventNode.put("capacity_estimated", Boolean.TRUE.equals(event.getCapacityEstimated()));
+            eventNode.put("expected_visitors", event.getExpectedVisitors());
+            if (event.getListingCount() != null) {
+                eventNode.put("total_visitors", event.getTotalVisitors());
+                eventNode.put("listing_count", event.getListingCount());
+            }
+            eventNode.put("distance_km", event.getDistanceKm());
+            if (event.getLatitude() != null && event.getLongitude() != null) {
+                eventNode.put("latitude", event.getLatitude());
+                eventNode.put("longitude", event.getLongitude());
+            }
+            eventNode.put("impact_level", event.getImpactLevel());
+            eventNode.put("ticket_availability", event.getTicketAvailability());
+            eventsArray.add(eventNode);
+        }
+        response.set("events", eventsArray);
+
+        // Seasonality
+        ObjectNode seasonalityNode = objectMapper.createObjectNode();
+        seasonalityNode.put("season", seasonality.getSeason());
+        seasonalityNode.put("is_peak_season", seasonality.isPeakSeason());
+        seasonalityNode.put("tourism_level", seasonality.getTourismLevel());
+        seasonalityNode.put("typical_occupancy_rate", seasonality.getTypicalOccupancy());
+        response.set("seasonality", seasonalityNode);
+
+        // Calendar factors
+        ObjectNode calendarNode = objectMapper.createObjectNode();
+        calendarNode.put("is_weekend", calendar.isWeekend());
+        calendarNode.put("is_holiday", calendar.isHoliday());
+        calendarNode.put("is_long_weekend", calendar.isLongWeekend());
+        calendarNode.put("is_school_holiday", calendar.isSchoolHoliday());
+
+        ArrayNode holidaysArray = objectMapper.createArrayNode();
+        for (Holiday holiday : calendar.getHolidays()) {
+            ObjectNode holidayNode = objectMapper.createObjectNode();
+            holidayNode.put("name", holiday.getName());
+            holidayNode.put("date", holiday.getDate().toString());
+            holidayNode.put("type", holiday.getType());
+            holidayNode.put("is_national", holiday.isNational());
+            holidaysArray.add(holidayNode);
+        }
+        calendarNode.set("holidays", holidaysArray);
+        response.set("calendar_factors", calendarNode);
+
+        // Per-night breakdown
+        ArrayNode nightsArray = objectMapper.createArrayNode();
+        for (NightInfo night : nights) {
+            ObjectNode nightNode = objectMapper.createObjectNode();
+            nightNode.put("date", night.getDate().toString());
+            nightNode.put("events", night.getEventCount());
+            nightNode.put("expected_visitors", night.getExpectedVisitors());
+            nightNode.put("major_events", night.getMajorEvents());
+            nightNode.put("is_weekend", night.isWeekend());
+            nightNode.put("is_holiday", night.isHoliday());
+            nightNode.put("is_long_weekend", night.isLongWeekend());
+            nightNode.put("is_peak_season", night.isPeakSeason());
+            nightNode.put("tourism_level", night.getTourismLevel());
+            nightsArray.add(nightNode);
+        }
+        response.set("nights", nightsArray);
+
+        // Demand indicators
+        ObjectNode demandNode = objectMapper.createObjectNode();
+        demandNode.put("major_events_count", demand.getMajorEventsCount());
+        demandNode.put("total_expected_visitors", demand.getTotalExpectedVisitors());
+        demandNode.put("event_impact_score", demand.getEventImpactScore());
+        demandNode.put("peak_day", demand.getPeakDay().toString());
+        demandNode.put("peak_day_visitors", demand.getPeakDayVisitors());
+        demandNode.put("peak_day_pressure", demand.getPeakDayPressure());
+        ArrayNode dailyVisitors = objectMapper.createArrayNode();
+        for (int visitors : demand.getDailyVisitors()) {
+            dailyVisitors.add(visitors);
+        }
+        demandNode.set("daily_visitors", dailyVisitors);
+        demandNode.put("overall_demand_level", demand.getDemandLevel());
+        response.set("demand_indicators", demandNode);
+
+        // Metadata
+        ObjectNode metadata = objectMapper.createObjectNode();
+        ObjectNode sourceStatus = objectMapper.createObjectNode();
+        fetched.getCompletedSources().forEach(source -> sourceStatus.put(source, SourceStatus.FRESH.label()));
+        fetched.getStaleSources().keySet().forEach(source -> sourceStatus.put(source, SourceStatus.STALE.label()));
+        fetched.getMissedSources().keySet().forEach(source -> sourceStatus.put(source, SourceStatus.MISSING.label()));
+        sourceStatus.put("holiday_api", holidayStatus.label());
+        sourceStatus.put("internal_seasonality", SourceStatus.FRESH.label());
+        // Sources that contributed data, stale or not
+        ArrayNode dataSources = objectMapper.createArrayNode();
+        sourceStatus.fields().forEachRemaining(source -> {
+            if (!SourceStatus.MISSING.label().equals(source.getValue().asText())) {
+                dataSources.add(source.getKey());
+            }
+        });
+        metadata.set("data_sources", dataSources);
+        metadata.set("source_status", sourceStatus);
+        boolean partial = fetched.isPartial() || holidayStatus != SourceStatus.FRESH;
+        metadata.put("partial", partial);
+        if (!fetched.getMissedSources().isEmpty()) {
+            // Events from these sources are missing from this analysis
+            metadata.set("missed_event_sources", objectMapper.valueToTree(fetched.getMissedSources()));
+        }
+        if (!fetched.getStaleSources().isEmpty()) {
+            // These sources did not answer in time; their last cached events were used
+            metadata.set("stale_event_sources", objectMapper.valueToTree(fetched.getStaleSources()));
+        }
+        if (deadline.isBounded()) {
+            metadata.put("time_budget_ms", deadline.budgetMillis());
+        }
+        metadata.put("analysis_timestamp", Instant.now().toString());
+        metadata.set("ticketmaster_quota", objectMapper.valueToTree(ticketmasterService.quota()));
+        response.set("metadata", metadata);
+
+        // Workflow hint
+        ObjectNode workflowHint = objectMapper.createObjectNode();
+        workflowHint.put("next_step", "trivago-accommodation-search");
+        workflowHint.put("next_step_description", "Search for hotels in " + city + " for the specified dates");
+        ArrayNode requiredForFinal = objectMapper.createArrayNode();
+        requiredForFinal.add("average_price from Trivago results");
+        requiredForFinal.add("this analysis_parameters object");
+        workflowHint.set("required_for_final_step", requiredForFinal);
+        workflowHint.put("final_step", "calculate_final_surge");
+        response.set("_workflow_hint", workflowHint);
+
+        return response;
+    }
+}
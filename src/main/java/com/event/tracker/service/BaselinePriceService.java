@@ -1,42 +1,187 @@
 package com.event.tracker.service;
 
+import com.event.tracker.model.CityInfo;
+import com.event.tracker.utils.JsonHelper;
+import com.event.tracker.utils.RollingMedian;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Service
 public class BaselinePriceService {
 
-    // Baseline average hotel prices per city (EUR)
-    private static final Map<String, Double> CITY_BASELINE_PRICES = Map.of(
-            "berlin", 95.0,
-            "paris", 130.0,
-            "london", 145.0,
-            "new york", 180.0,
-            "tokyo", 110.0,
-            "barcelona", 105.0,
-            "amsterdam", 120.0,
-            "rome", 100.0
-    );
+    private static final double DEFAULT_BASELINE_PRICE = 100.0;
+
+    // Learned medians keyed by "city|all", "city|dow:N" and "city|month:N" (20 sketches per city)
+    private final Map<String, RollingMedian> sketches = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> trackedCities = new ConcurrentHashMap<>();
+    private final AtomicInteger unsavedObservations = new AtomicInteger();
+
+    private final CityReferenceService cityReferenceService;
+    private final Path modelFile;
+    private final int minSamples;
+    private final int window;
+    private final long flushIntervalSeconds;
+    private final int maxCities;
+
+    private ScheduledExecutorService flusher;
+
+    public BaselinePriceService(
+            CityReferenceService cityReferenceService,
+            @Value("${baseline.model.file}") String modelFile,
+            @Value("${baseline.model.min-samples:5}") int minSamples,
+            @Value("${baseline.model.window:500}") int window,
+            @Value("${baseline.model.flush-interval-seconds:30}") long flushIntervalSeconds,
+            @Value("${baseline.model.max-cities:5000}") int maxCities) {
+        this.cityReferenceService = cityReferenceService;
+        this.modelFile = Path.of(modelFile);
+        this.minSamples = minSamples;
+        this.window = window;
+        this.flushIntervalSeconds = flushIntervalSeconds;
+        this.maxCities = maxCities;
+    }
 
     public double estimate(String city, JsonNode stayPeriod) {
         LocalDate checkIn = LocalDate.parse(stayPeriod.get("check_in").asText());
+        CityInfo cityInfo = cityReferenceService.lookup(city);
+        String key = cityKey(city, cityInfo);
+
+        RollingMedian overall = sketches.get(key + "|all");
+        if (overall != null && overall.samples() >= minSamples) {
+            double median = overall.median(minSamples);
+            return median
+                    * learnedRatio(key + "|dow:" + checkIn.getDayOfWeek().getValue(), median,
+                    weekendPremium(checkIn))
+                    * learnedRatio(key + "|month:" + checkIn.getMonthValue(), median, 1.0);
+        }
+
+        double basePrice = cityInfo != null ? cityInfo.getBaselinePrice() : DEFAULT_BASELINE_PRICE;
+        return basePrice * weekendPremium(checkIn);
+    }
+
+    // Feed an observed market price into the per-city, per-weekday and per-month medians
+    public void record(String city, JsonNode stayPeriod, double averagePrice) {
+        if (averagePrice <= 0 || Double.isNaN(averagePrice) || Double.isInfinite(averagePrice)) {
+            return;
+        }
+        String key = cityKey(city, cityReferenceService.lookup(city));
+        if (!trackedCities.containsKey(key)) {
+            if (trackedCities.size() >= maxCities) {
+                return;
+            }
+            trackedCities.put(key, Boolean.TRUE);
+        }
+
+        LocalDate checkIn = LocalDate.parse(stayPeriod.get("check_in").asText());
+        sketch(key + "|all").add(averagePrice);
+        sketch(key + "|dow:" + checkIn.getDayOfWeek().getValue()).add(averagePrice);
+        sketch(key + "|month:" + checkIn.getMonthValue()).add(averagePrice);
+        unsavedObservations.incrementAndGet();
+    }
 
-        double basePrice = CITY_BASELINE_PRICES.getOrDefault(
-                city.toLowerCase(),
-                100.0
-        );
+    // Aliases of a known city share the canonical city's sketches
+    private String cityKey(String city, CityInfo cityInfo) {
+        return (cityInfo != null ? cityInfo.getName() : city.trim()).toLowerCase(Locale.ROOT);
+    }
 
-        // Adjust for day of week
+    private double learnedRatio(String sketchKey, double overallMedian, double fallback) {
+        RollingMedian sketch = sketches.get(sketchKey);
+        if (sketch == null || sketch.samples() < minSamples) {
+            return fallback;
+        }
+        return sketch.median(minSamples) / overallMedian;
+    }
+
+    private double weekendPremium(LocalDate checkIn) {
         DayOfWeek dayOfWeek = checkIn.getDayOfWeek();
         if (dayOfWeek == DayOfWeek.FRIDAY || dayOfWeek == DayOfWeek.SATURDAY) {
-            basePrice *= 1.15; // 15% weekend premium
+            return 1.15; // 15% weekend premium
         }
-        return basePrice;
+        return 1.0;
+    }
+
+    private RollingMedian sketch(String key) {
+        return sketches.computeIfAbsent(key, k -> new RollingMedian(window));
+    }
+
+    @PostConstruct
+    void load() {
+        // Written from a background thread so observing a price never waits on the disk
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "baseline-model-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalSeconds, flushIntervalSeconds, TimeUnit.SECONDS);
+
+        if (!Files.exists(modelFile)) {
+            return;
+        }
+        try {
+            Map<String, RollingMedian> stored = JsonHelper.getMapper().readValue(
+                    modelFile.toFile(), new TypeReference<Map<String, RollingMedian>>() {});
+            stored.forEach((key, sketch) -> {
+                sketches.put(key, sketch);
+                trackedCities.put(key.substring(0, key.indexOf('|')), Boolean.TRUE);
+            });
+            log.info("Loaded {} baseline sketches from {}", stored.size(), modelFile);
+        } catch (Exception e) {
+            log.warn("Could not load baseline model from {}", modelFile, e);
+        }
+    }
+
+    @PreDestroy
+    void close() throws InterruptedException {
+        if (flusher != null) {
+            flusher.shutdown();
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        flush();
+    }
+
+    // Only the flusher thread (or close, once it has stopped) writes the file
+    private void flush() {
+        if (unsavedObservations.getAndSet(0) == 0) {
+            return;
+        }
+        Map<String, JsonNode> snapshot = snapshot();
+        try {
+            Files.createDirectories(modelFile.toAbsolutePath().getParent());
+            Path tmp = modelFile.resolveSibling(modelFile.getFileName() + ".tmp");
+            JsonHelper.getMapper().writeValue(tmp.toFile(), snapshot);
+            Files.move(tmp, modelFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            log.warn("Could not persist baseline model to {}", modelFile, e);
+        }
+    }
+
+    // Each sketch is copied under its own lock, so recording only ever waits for one small copy
+    private Map<String, JsonNode> snapshot() {
+        Map<String, JsonNode> snapshot = new TreeMap<>();
+        sketches.forEach((key, sketch) -> {
+            synchronized (sketch) {
+                snapshot.put(key, JsonHelper.getMapper().valueToTree(sketch));
+            }
+        });
+        return snapshot;
     }
-}
\ No newline at end of file
+}
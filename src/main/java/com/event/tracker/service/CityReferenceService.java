@@ -0,0 +1,171 @@
+package com.event.tracker.service;
+
+import com.event.tracker.model.CityInfo;
+import com.event.tracker.utils.CityIndex;
+import com.event.tracker.utils.CsvLine;
+import com.event.tracker.utils.FileWatcher;
+import com.event.tracker.utils.JsonHelper;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+@Slf4j
+@Service
+public class CityReferenceService {
+
+    private static final String BUNDLED_FILE = "data/cities.json";
+
+    private final String externalFile;
+    private final boolean watch;
+
+    // Readers grab the current table without locking; reloads build a new one and swap it in
+    private volatile CityIndex index = CityIndex.EMPTY;
+    private Closeable watcher = () -> { };
+
+    public CityReferenceService(
+            @Value("${city.reference.file:}") String externalFile,
+            @Value("${city.reference.watch:true}") boolean watch) {
+        this.externalFile = externalFile;
+        this.watch = watch;
+    }
+
+    public CityInfo lookup(String city) {
+        return index.get(city);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @PostConstruct
+    void init() {
+        reload();
+        if (watch && !externalFile.isBlank()) {
+            watcher = FileWatcher.watch(Path.of(externalFile), "city-reference-watcher", this::reload);
+        }
+    }
+
+    public void reload() {
+        String source = externalFile.isBlank() ? "classpath:" + BUNDLED_FILE : externalFile;
+        try {
+            List<CityInfo> cities;
+            if (!externalFile.isBlank() && Files.exists(Path.of(externalFile))) {
+                try (InputStream in = Files.newInputStream(Path.of(externalFile))) {
+                    cities = parse(in, externalFile.endsWith(".csv"));
+                }
+            } else {
+                source = "classpath:" + BUNDLED_FILE;
+                try (InputStream in = new ClassPathResource(BUNDLED_FILE).getInputStream()) {
+                    cities = parse(in, false);
+                }
+            }
+            index = new CityIndex(cities);
+            log.info("Loaded {} cities ({} keys) from {}", cities.size(), index.size(), source);
+        } catch (Exception e) {
+            // Keep serving the previous table
+            log.warn("Could not load city reference data from {}", source, e);
+        }
+    }
+
+    private List<CityInfo> parse(InputStream in, boolean csv) throws IOException {
+        return csv ? parseCsv(in) : parseJson(in);
+    }
+
+    private List<CityInfo> parseJson(InputStream in) throws IOException {
+        List<CityInfo> cities = new ArrayList<>();
+        JsonNode root = JsonHelper.getMapper().readTree(in);
+        for (JsonNode node : root.path("cities")) {
+            List<String> aliases = new ArrayList<>();
+            node.path("aliases").forEach(a -> aliases.add(a.asText()));
+
+            EnumSet<Month> peakMonths = EnumSet.noneOf(Month.class);
+            node.path("peak_months").forEach(m -> peakMonths.add(Month.of(m.asInt())));
+
+            List<String> curve = new ArrayList<>();
+            node.path("tourism_curve").forEach(t -> curve.add(t.asText()));
+
+            cities.add(city(node.path("name").asText(), node.path("country").asText(), aliases,
+                    peakMonths, node.path("baseline_price").asDouble(100.0),
+                    node.path("currency").asText("EUR"), curve));
+        }
+        return cities;
+    }
+
+    // name,country,aliases,peak_months,baseline_price,currency,tourism_curve
+    // List columns are '|'-separated, e.g. "nyc|new york city" and "6|7|8"; quote a column that
+    // contains commas, e.g. "berlin, de|bln"
+    private List<CityInfo> parseCsv(InputStream in) throws IOException {
+        List<CityInfo> cities = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line = reader.readLine(); // header
+            int row = 1;
+            while ((line = reader.readLine()) != null) {
+                row++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                List<String> cols = CsvLine.split(line);
+                if (cols.size() < 6) {
+                    throw new IllegalArgumentException("Row " + row + ": expected at least 6 columns");
+                }
+                EnumSet<Month> peakMonths = EnumSet.noneOf(Month.class);
+                for (String m : splitList(cols.get(3))) {
+                    peakMonths.add(Month.of(Integer.parseInt(m)));
+                }
+                cities.add(city(cols.get(0), cols.get(1), splitList(cols.get(2)), peakMonths,
+                        cols.get(4).isBlank() ? 100.0 : Double.parseDouble(cols.get(4).trim()),
+                        cols.get(5).isBlank() ? "EUR" : cols.get(5).trim(),
+                        cols.size() > 6 ? splitList(cols.get(6)) : List.of()));
+            }
+        }
+        return cities;
+    }
+
+    private List<String> splitList(String value) {
+        List<String> items = new ArrayList<>();
+        for (String item : value.split("\\|")) {
+            if (!item.isBlank()) {
+                items.add(item.trim());
+            }
+        }
+        return items;
+    }
+
+    private CityInfo city(String name, String country, List<String> aliases, EnumSet<Month> peakMonths,
+                          double baselinePrice, String currency, List<String> tourismCurve) {
+        if (!tourismCurve.isEmpty() && tourismCurve.size() != 12) {
+            throw new IllegalArgumentException("tourism_curve for " + name + " must have 12 entries");
+        }
+        return CityInfo.builder()
+                .name(name.trim().intern())
+                .country(country.trim().toUpperCase().intern())
+                .aliases(List.copyOf(aliases))
+                .peakMonths(peakMonths.isEmpty() ? EnumSet.noneOf(Month.class) : EnumSet.copyOf(peakMonths))
+                .baselinePrice(baselinePrice)
+                .currency(currency.intern())
+                .tourismCurve(tourismCurve.stream().map(String::intern).toList())
+                .build();
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        watcher.close();
+    }
+}
@@ -0,0 +1,97 @@
+package com.event.tracker.service;
+
+import com.event.tracker.utils.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+// Shapes Ticketmaster queries so less comes over the wire. The radius never exceeds the widest
+// distance cutoff of the loaded surge models, since events beyond it cannot move any surge. In
+// cities dense enough to overflow a page it shrinks to the area expected to hold about one page,
+// so the page is filled with nearby events instead of a relevance-sorted sample of the whole area.
+// Density (events per square km per day) is learned from the totalElements of earlier responses.
+// Cached responses are keyed by cappedRadiusKm() and queryKey(), never by the adaptive radius,
+// which changes as densities are learned and would make repeated requests miss the cache.
+@Service
+public class EventQueryPlanner {
+
+    private static final double TARGET_PAGE_FILL = 0.8;
+
+    private final SurgeModelRegistry modelRegistry;
+    private final int pageSize;
+    private final String classifications;
+    private final int minVenueCapacity;
+    private final boolean adaptiveRadius;
+    private final int minRadiusKm;
+    private final LruCache<String, Double> densities;
+
+    public EventQueryPlanner(SurgeModelRegistry modelRegistry,
+                             @Value("${ticketmaster.query.page-size:50}") int pageSize,
+                             @Value("${ticketmaster.query.classifications:}") String classifications,
+                             @Value("${ticketmaster.query.min-venue-capacity:0}") int minVenueCapacity,
+                             @Value("${ticketmaster.query.adaptive-radius:true}") boolean adaptiveRadius,
+                             @Value("${ticketmaster.query.min-radius-km:5}") int minRadiusKm,
+                             @Value("${ticketmaster.query.max-cities:1024}") int maxCities) {
+        this.modelRegistry = modelRegistry;
+        this.pageSize = pageSize;
+        this.classifications = classifications.trim();
+        this.minVenueCapacity = minVenueCapacity;
+        this.adaptiveRadius = adaptiveRadius;
+        this.minRadiusKm = minRadiusKm;
+        this.densities = new LruCache<>(maxCities);
+    }
+
+    // The requested radius capped at the widest distance cutoff of the loaded models
+    public int cappedRadiusKm(int requestedKm) {
+        double cutoff = modelRegistry.maxDistanceCutoffKm();
+        return cutoff > 0 ? Math.min(requestedKm, (int) Math.ceil(cutoff)) : requestedKm;
+    }
+
+    // Radius to send upstream: cappedRadiusKm(), shrunk to about one page in dense cities
+    public int radiusKm(String city, int requestedKm, LocalDate startDate, LocalDate endDate) {
+        int radius = cappedRadiusKm(requestedKm);
+        Double density = adaptiveRadius ? densities.getIfPresent(key(city)) : null;
+        if (density == null || density <= 0) {
+            return radius;
+        }
+        double pageRadius = Math.sqrt(TARGET_PAGE_FILL * pageSize / (Math.PI * density * days(startDate, endDate)));
+        return (int) Math.max(Math.min(radius, minRadiusKm), Math.min(radius, Math.ceil(pageRadius)));
+    }
+
+    // totalElements of a response for radiusKm; an empty answer says nothing about density
+    public void observe(String city, int radiusKm, LocalDate startDate, LocalDate endDate, long totalElements) {
+        if (!adaptiveRadius || totalElements <= 0 || radiusKm <= 0) {
+            return;
+        }
+        densities.put(key(city), totalElements / (Math.PI * radiusKm * radiusKm * days(startDate, endDate)));
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    // Comma-separated Ticketmaster classification names, empty for no filter
+    public String getClassifications() {
+        return classifications;
+    }
+
+    // Events at venues reporting a smaller capacity are dropped before parsing (0 = keep all)
+    public int getMinVenueCapacity() {
+        return minVenueCapacity;
+    }
+
+    // Settings that change what a projected response holds, for cache keys
+    public String queryKey() {
+        return String.join("|", classifications, String.valueOf(pageSize), String.valueOf(minVenueCapacity));
+    }
+
+    private static String key(String city) {
+        return city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long days(LocalDate startDate, LocalDate endDate) {
+        return Math.max(1, endDate.toEpochDay() - startDate.toEpochDay() + 1);
+    }
+}
@@ -0,0 +1,30 @@
+package com.event.tracker.service;
+
+import com.event.tracker.model.Event;
+import com.event.tracker.utils.TokenBucketLimiter.Priority;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+// A provider of events around a city. Every EventSource bean is queried in parallel by
+// EventSourceAggregator and the results are merged; implementations must be thread-safe.
+public interface EventSource {
+
+    // Short stable identifier, reported in the analysis metadata, e.g. "ticketmaster"
+    String getName();
+
+    // Longest one query may take; past it the aggregator answers without this source
+    Duration getTimeout();
+
+    List<Event> fetchEvents(String city, String countryCode,
+                            LocalDate startDate, LocalDate endDate,
+                            int radiusKm, Priority priority);
+
+    // Last answer this source gave for the same query, however old, for when it misses its timeout;
+    // null when it keeps none
+    default List<Event> staleEvents(String city, String countryCode,
+                                    LocalDate startDate, LocalDate endDate, int radiusKm) {
+        return null;
+    }
+}
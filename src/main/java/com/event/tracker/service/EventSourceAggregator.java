@@ -0,0 +1,141 @@
+package com.event.tracker.service;
+
+import com.event.tracker.model.AggregatedEvents;
+import com.event.tracker.model.Event;
+import com.event.tracker.utils.Deadline;
+import com.event.tracker.utils.EventClusterer;
+import com.event.tracker.utils.TokenBucketLimiter.Priority;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Queries every EventSource in parallel and merges what arrives in time. Each source gets its own
+// timeout, and all of them share one overall deadline, so a slow source costs at most the deadline:
+// the answer is then partial, and the missed sources are listed with the reason. A missed source's
+// last cached answer (EventSource.staleEvents) is used when it has one, and the source is reported
+// stale instead of missing. Only when no source contributed and one of them failed outright is that
+// failure thrown. A caller's Deadline shortens every source's wait further.
+@Slf4j
+@Service
+public class EventSourceAggregator {
+
+    private final List<EventSource> sources;
+    private final long deadlineNanos;
+    private final ExecutorService executor;
+
+    public EventSourceAggregator(List<EventSource> sources,
+                                 @Value("${events.sources.deadline-ms:6000}") long deadlineMs) {
+        this.sources = List.copyOf(sources);
+        this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "event-source");
+            t.setDaemon(true);
+            return t;
+        });
+        log.info("Event sources: {}", this.sources.stream().map(EventSource::getName).toList());
+    }
+
+    public AggregatedEvents fetchEvents(String city, String countryCode,
+                                        LocalDate startDate, LocalDate endDate,
+                                        int radiusKm, Priority priority) {
+        return fetchEvents(city, countryCode, startDate, endDate, radiusKm, priority, Deadline.none());
+    }
+
+    public AggregatedEvents fetchEvents(String city, String countryCode,
+                                        LocalDate startDate, LocalDate endDate,
+                                        int radiusKm, Priority priority, Deadline deadline) {
+        long callerBudget = Math.max(0, deadline.remainingNanos());
+        long start = System.nanoTime();
+        List<Future<List<Event>>> futures = new ArrayList<>(sources.size());
+        for (EventSource source : sources) {
+            futures.add(executor.submit(() ->
+                    source.fetchEvents(city, countryCode, startDate, endDate, radiusKm, priority)));
+        }
+
+        List<Event> merged = new ArrayList<>();
+        List<String> completed = new ArrayList<>(sources.size());
+        Map<String, String> missed = new LinkedHashMap<>();
+        Map<String, String> stale = new LinkedHashMap<>();
+        RuntimeException firstFailure = null;
+        for (int i = 0; i < sources.size(); i++) {
+            EventSource source = sources.get(i);
+            Future<List<Event>> future = futures.get(i);
+            long budget = Math.min(Math.min(deadlineNanos, callerBudget), source.getTimeout().toNanos());
+            long sourceDeadline = start + budget;
+            String reason;
+            try {
+                merged.addAll(future.get(Math.max(0, sourceDeadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+                completed.add(source.getName());
+                continue;
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                reason = "timed out after " + Duration.ofNanos(budget).toMillis() + " ms";
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                reason = String.valueOf(cause.getMessage());
+                if (firstFailure == null) {
+                    firstFailure = cause instanceof RuntimeException re ? re : new IllegalStateException(cause);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                reason = "interrupted";
+            }
+            List<Event> previous = staleEvents(source, city, countryCode, startDate, endDate, radiusKm);
+            if (previous != null) {
+                merged.addAll(previous);
+                stale.put(source.getName(), reason);
+            } else {
+                missed.put(source.getName(), reason);
+            }
+        }
+
+        if (completed.isEmpty() && stale.isEmpty() && firstFailure != null) {
+            throw firstFailure;
+        }
+        if (!missed.isEmpty() || !stale.isEmpty()) {
+            log.warn("Partial events for {}: missed {}, stale {}", city, missed, stale);
+        }
+        return AggregatedEvents.builder()
+                // The same happening can be listed by several sources
+                .events(completed.size() + stale.size() > 1 ? EventClusterer.cluster(merged) : merged)
+                .completedSources(completed)
+                .missedSources(missed)
+                .staleSources(stale)
+                .build();
+    }
+
+    // A broken cache must not turn a partial answer into a failure
+    private static List<Event> staleEvents(EventSource source, String city, String countryCode,
+                                           LocalDate startDate, LocalDate endDate, int radiusKm) {
+        try {
+            return source.staleEvents(city, countryCode, startDate, endDate, radiusKm);
+        } catch (RuntimeException e) {
+            log.warn("Could not read stale events of {}", source.getName(), e);
+            return null;
+        }
+    }
+
+    public List<String> sourceNames() {
+        return sources.stream().map(EventSource::getName).toList();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
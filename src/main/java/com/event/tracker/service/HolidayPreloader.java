@@ -0,0 +1,257 @@
+package com.event.tracker.service;
+
+import com.event.tracker.model.Holiday;
+import com.event.tracker.utils.HolidayIndex;
+import com.event.tracker.utils.JsonHelper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Fills HolidayService's index with every country's holidays over a rolling window of years, so
+// stays in that window (including ones crossing New Year) never wait for the holiday API.
+// Startup only reads the snapshot file. A background thread re-checks it at startup and then every
+// check interval, since the window moves with the calendar: when the snapshot is missing, older
+// than max-age or does not cover the window, it fetches the window country by country through
+// the response cache, swaps in the new index and rewrites the snapshot. The refresh runs under a
+// lock file, so processes sharing a snapshot fetch it once and the others pick up the result.
+// A snapshot file can also be copied in from another machine to start fully offline.
+@Slf4j
+@Service
+public class HolidayPreloader {
+
+    private final HolidayService holidayService;
+    private final boolean enabled;
+    private final Path snapshotFile;
+    private final int yearsBack;
+    private final int yearsAhead;
+    private final List<String> configuredCountries;
+    private final Duration maxAge;
+    private final Duration checkInterval;
+
+    private ScheduledExecutorService refresher;
+    private volatile Instant generatedAt;
+
+    public HolidayPreloader(HolidayService holidayService,
+                            @Value("${holidays.preload.enabled:true}") boolean enabled,
+                            @Value("${holidays.preload.snapshot-file:${user.home}/.event-tracker/holidays-snapshot.json}") String snapshotFile,
+                            @Value("${holidays.preload.years-back:0}") int yearsBack,
+                            @Value("${holidays.preload.years-ahead:2}") int yearsAhead,
+                            @Value("${holidays.preload.countries:}") String countries,
+                            @Value("${holidays.preload.max-age-days:30}") long maxAgeDays,
+                            @Value("${holidays.preload.check-interval-hours:24}") long checkIntervalHours) {
+        this.holidayService = holidayService;
+        this.enabled = enabled;
+        this.snapshotFile = Path.of(snapshotFile);
+        this.yearsBack = yearsBack;
+        this.yearsAhead = yearsAhead;
+        this.configuredCountries = Arrays.stream(countries.split(","))
+                .map(String::trim)
+                .filter(c -> !c.isEmpty())
+                .toList();
+        this.maxAge = Duration.ofDays(maxAgeDays);
+        this.checkInterval = Duration.ofHours(checkIntervalHours);
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        generatedAt = loadSnapshot();
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "holiday-preloader");
+            t.setDaemon(true);
+            return t;
+        });
+        refresher.scheduleWithFixedDelay(this::refreshIfNeeded, 0, checkInterval.toMinutes(), TimeUnit.MINUTES);
+    }
+
+    // Refreshes under the lock file; skips the round while another process holds it
+    void refreshIfNeeded() {
+        if (!needsRefresh()) {
+            return;
+        }
+        Path lockFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".lock");
+        try {
+            Files.createDirectories(lockFile.toAbsolutePath().getParent());
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock lock = channel.tryLock()) {
+                if (lock == null) {
+                    log.info("Holiday snapshot {} is being refreshed by another process", snapshotFile);
+                    return;
+                }
+                // Another process may have refreshed the snapshot since it was last read
+                Instant loaded = loadSnapshot();
+                if (loaded != null) {
+                    generatedAt = loaded;
+                }
+                if (needsRefresh()) {
+                    refresh();
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Holiday preload refresh failed", e);
+        }
+    }
+
+    private boolean needsRefresh() {
+        HolidayIndex index = holidayService.getIndex();
+        Instant generated = generatedAt;
+        return generated == null || generated.isBefore(Instant.now().minus(maxAge))
+                || index.getFirstYear() > firstYear() || index.getLastYear() < lastYear();
+    }
+
+    // Fetches the whole window and installs it; countries the API could not answer for are left out
+    private void refresh() {
+        long start = System.nanoTime();
+        int firstYear = firstYear();
+        int lastYear = lastYear();
+        List<String> countries = configuredCountries.isEmpty()
+                ? holidayService.availableCountries()
+                : configuredCountries;
+        Map<String, List<Holiday>> holidays = new LinkedHashMap<>();
+        List<String> failed = new ArrayList<>();
+        for (String country : countries) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            List<Holiday> countryHolidays = new ArrayList<>();
+            for (int year = firstYear; year <= lastYear && countryHolidays != null; year++) {
+                List<Holiday> yearHolidays = holidayService.fetchFromUpstream(country, year);
+                if (yearHolidays != null) {
+                    countryHolidays.addAll(yearHolidays);
+                } else {
+                    countryHolidays = null;
+                }
+            }
+            if (countryHolidays != null) {
+                holidays.put(country, countryHolidays);
+            } else {
+                failed.add(country);
+            }
+        }
+        if (holidays.isEmpty()) {
+            log.warn("Holiday preload got no data for {} countries; keeping the current index", countries.size());
+            return;
+        }
+        HolidayIndex index = HolidayIndex.of(firstYear, lastYear, holidays);
+        holidayService.useIndex(index);
+        log.info("Preloaded {} holidays for {} countries ({}-{}) in {} ms{}", index.size(), holidays.size(),
+                firstYear, lastYear, Duration.ofNanos(System.nanoTime() - start).toMillis(),
+                failed.isEmpty() ? "" : ", unavailable: " + failed);
+        writeSnapshot(firstYear, lastYear, holidays);
+        generatedAt = Instant.now();
+    }
+
+    // Installs the snapshot's index and returns when it was generated, or null without a usable snapshot
+    private Instant loadSnapshot() {
+        if (!Files.exists(snapshotFile)) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            JsonNode root = JsonHelper.getMapper().readTree(snapshotFile.toFile());
+            Map<String, List<Holiday>> holidays = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> countries = root.path("countries").fields();
+            while (countries.hasNext()) {
+                Map.Entry<String, JsonNode> country = countries.next();
+                List<Holiday> countryHolidays = new ArrayList<>(country.getValue().size());
+                for (JsonNode node : country.getValue()) {
+                    countryHolidays.add(Holiday.builder()
+                            .name(node.path("name").asText())
+                            .date(LocalDate.parse(node.path("date").asText()))
+                            .type(node.path("type").asText("Public"))
+                            .isNational(node.path("national").asBoolean(true))
+                            .build());
+                }
+                holidays.put(country.getKey(), countryHolidays);
+            }
+            HolidayIndex index = HolidayIndex.of(root.path("first_year").asInt(), root.path("last_year").asInt(),
+                    holidays);
+            holidayService.useIndex(index);
+            log.info("Loaded {} holidays for {} countries ({}-{}) from {} in {} ms", index.size(), holidays.size(),
+                    index.getFirstYear(), index.getLastYear(), snapshotFile,
+                    Duration.ofNanos(System.nanoTime() - start).toMillis());
+            return Instant.parse(root.path("generated_at").asText());
+        } catch (Exception e) {
+            log.warn("Could not load holiday snapshot {}", snapshotFile, e);
+            return null;
+        }
+    }
+
+    private void writeSnapshot(int firstYear, int lastYear, Map<String, List<Holiday>> holidays) {
+        ObjectNode root = JsonHelper.getMapper().createObjectNode();
+        root.put("generated_at", Instant.now().toString());
+        root.put("first_year", firstYear);
+        root.put("last_year", lastYear);
+        ObjectNode countries = root.putObject("countries");
+        holidays.forEach((country, countryHolidays) -> {
+            ArrayNode list = countries.putArray(country);
+            for (Holiday holiday : countryHolidays) {
+                list.addObject()
+                        .put("date", holiday.getDate().toString())
+                        .put("name", holiday.getName())
+                        .put("type", holiday.getType())
+                        .put("national", holiday.isNational());
+            }
+        });
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            Files.createDirectories(snapshotFile.toAbsolutePath().getParent());
+            Files.write(tmp, JsonHelper.getMapper().writeValueAsBytes(root));
+            try {
+                Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            log.warn("Could not write holiday snapshot {}", snapshotFile, e);
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private int firstYear() {
+        return LocalDate.now().getYear() - yearsBack;
+    }
+
+    private int lastYear() {
+        return LocalDate.now().getYear() + yearsAhead;
+    }
+
+    @PreDestroy
+    void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+}
@@ -2,36 +2,136 @@ package com.event.tracker.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.event.tracker.model.Holiday;
+import com.event.tracker.model.HolidayLookup;
+import com.event.tracker.model.SourceStatus;
+import com.event.tracker.upstream.UpstreamCache;
+import com.event.tracker.upstream.UpstreamRecordings;
+import com.event.tracker.utils.Deadline;
+import com.event.tracker.utils.HolidayIndex;
+import com.event.tracker.utils.JsonHelper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
+@Slf4j
 @Service
 public class HolidayService {
 
     private final WebClient webClient;
+    private final UpstreamCache cache;
+    private final Duration timeout;
 
-    public HolidayService(@Qualifier("holidayWebClient") WebClient webClient) {
+    // Preloaded holidays (see HolidayPreloader); years it covers never go to the network
+    private volatile HolidayIndex index = HolidayIndex.EMPTY;
+
+    public HolidayService(@Qualifier("holidayWebClient") WebClient webClient, UpstreamCache cache,
+                          @Value("${holiday.api.timeout-ms:5000}") long timeoutMs) {
         this.webClient = webClient;
+        this.cache = cache;
+        this.timeout = Duration.ofMillis(timeoutMs);
     }
 
     public List<Holiday> fetchHolidays(String countryCode, int year) {
+        return lookupHolidays(countryCode, year, Deadline.none()).getHolidays();
+    }
+
+    // Holidays of every year the dates touch, e.g. both years of a stay over New Year
+    public HolidayLookup lookupHolidays(String countryCode, LocalDate from, LocalDate to, Deadline deadline) {
+        List<Holiday> holidays = new ArrayList<>();
+        SourceStatus status = SourceStatus.FRESH;
+        for (int year = from.getYear(); year <= to.getYear(); year++) {
+            HolidayLookup lookup = lookupHolidays(countryCode, year, deadline);
+            holidays.addAll(lookup.getHolidays());
+            if (lookup.getStatus().compareTo(status) > 0) {
+                status = lookup.getStatus();
+            }
+        }
+        return HolidayLookup.builder().holidays(holidays).status(status).build();
+    }
+
+    // Preloaded, cached or fetched holidays if they arrive before the deadline, else the last expired copy
+    public HolidayLookup lookupHolidays(String countryCode, int year, Deadline deadline) {
+        HolidayIndex preloaded = index;
+        if (preloaded.covers(countryCode, year)) {
+            return HolidayLookup.builder()
+                    .holidays(preloaded.between(countryCode, LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31)))
+                    .status(SourceStatus.FRESH)
+                    .build();
+        }
+        String key = cacheKey(countryCode, year);
+        String response = cache.get(UpstreamRecordings.HOLIDAYS, key, () -> fetchBody(countryCode, year, deadline));
+        SourceStatus status = SourceStatus.FRESH;
+        if (response == null) {
+            response = cache.getStale(UpstreamRecordings.HOLIDAYS, key);
+            status = response != null ? SourceStatus.STALE : SourceStatus.MISSING;
+        }
+        return HolidayLookup.builder()
+                .holidays(response != null ? parseHolidays(response) : List.of())
+                .status(status)
+                .build();
+    }
+
+    // Straight from the upstream through the response cache, bypassing the index; null when unavailable
+    public List<Holiday> fetchFromUpstream(String countryCode, int year) {
+        String response = cache.get(UpstreamRecordings.HOLIDAYS, cacheKey(countryCode, year),
+                () -> fetchBody(countryCode, year, Deadline.none()));
+        return response != null ? parseHolidays(response) : null;
+    }
+
+    // ISO codes of every country the holiday API knows; empty when it cannot be reached
+    public List<String> availableCountries() {
+        List<String> countries = new ArrayList<>();
         try {
             String response = webClient.get()
-                    .uri("/PublicHolidays/{year}/{countryCode}", year, countryCode)
+                    .uri("/AvailableCountries")
                     .retrieve()
                     .bodyToMono(String.class)
-                    .block();
+                    .block(timeout);
+            for (JsonNode country : JsonHelper.getMapper().readTree(response)) {
+                countries.add(country.path("countryCode").asText());
+            }
+        } catch (Exception e) {
+            log.warn("Could not list holiday API countries", e);
+        }
+        return countries;
+    }
+
+    public HolidayIndex getIndex() {
+        return index;
+    }
+
+    public void useIndex(HolidayIndex index) {
+        this.index = index;
+    }
+
+    private static String cacheKey(String countryCode, int year) {
+        return countryCode.trim().toUpperCase(Locale.ROOT) + "/" + year;
+    }
 
-            return parseHolidays(response);
+    private String fetchBody(String countryCode, int year, Deadline deadline) {
+        if (deadline.isExpired()) {
+            return null;
+        }
+        try {
+            Mono<String> body = webClient.get()
+                    .uri("/PublicHolidays/{year}/{countryCode}", year, countryCode)
+                    .retrieve()
+                    .bodyToMono(String.class);
+            return body.block(deadline.isBounded()
+                    ? Duration.ofNanos(Math.min(deadline.remainingNanos(), timeout.toNanos()))
+                    : timeout);
 
         } catch (Exception e) {
-            return List.of();
+            return null;
         }
     }
 
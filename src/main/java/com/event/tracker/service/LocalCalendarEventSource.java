@@ -0,0 +1,267 @@
+package com.event.tracker.service;
+
+import com.event.tracker.model.CityInfo;
+import com.event.tracker.model.Event;
+import com.event.tracker.utils.CsvLine;
+import com.event.tracker.utils.FileWatcher;
+import com.event.tracker.utils.TokenBucketLimiter.Priority;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Events from a local calendar file: conferences, trade fairs and other happenings Ticketmaster does
+// not sell tickets for. The file is read into memory and re-read when it changes; without a file the
+// source answers with no events.
+//
+// .csv: name,city,country,venue,start_date,end_date,expected_visitors,type,latitude,longitude
+//       (RFC 4180 quoting; dates YYYY-MM-DD; country, end_date, visitors, type and coordinates may be empty)
+// .ics: VEVENTs with SUMMARY, DTSTART, DTEND (exclusive, as in RFC 5545) and LOCATION; the city is
+//       matched against the comma-separated parts of LOCATION, and X-EXPECTED-VISITORS / CATEGORIES
+//       are used when present
+// Cities match exactly after resolving aliases through CityReferenceService ("NYC" finds "New York");
+// events with a country only match requests for that country. Malformed rows are skipped with a warning.
+@Slf4j
+@Service
+public class LocalCalendarEventSource implements EventSource {
+
+    private static final int DEFAULT_VISITORS = 5000;
+    private static final DateTimeFormatter ICS_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    // City keys an event matches and its ISO country code (null when the file does not say)
+    private record Entry(Event event, Set<String> cityKeys, String country) {
+    }
+
+    private final CityReferenceService cityReferenceService;
+    private final String file;
+    private final boolean watch;
+    private final Duration timeout;
+
+    private volatile List<Entry> entries = List.of();
+    private Closeable watcher = () -> { };
+
+    public LocalCalendarEventSource(CityReferenceService cityReferenceService,
+                                    @Value("${events.local.file:}") String file,
+                                    @Value("${events.local.watch:true}") boolean watch,
+                                    @Value("${events.local.timeout-ms:500}") long timeoutMs) {
+        this.cityReferenceService = cityReferenceService;
+        this.file = file;
+        this.watch = watch;
+        this.timeout = Duration.ofMillis(timeoutMs);
+    }
+
+    @Override
+    public String getName() {
+        return "local_calendar";
+    }
+
+    @Override
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    @Override
+    public List<Event> fetchEvents(String city, String countryCode,
+                                   LocalDate startDate, LocalDate endDate,
+                                   int radiusKm, Priority priority) {
+        String wanted = cityKey(city);
+        String country = countryCode == null || countryCode.isBlank()
+                ? null
+                : countryCode.trim().toUpperCase(Locale.ROOT);
+        List<Event> matches = new ArrayList<>();
+        for (Entry entry : entries) {
+            Event event = entry.event();
+            LocalDate last = event.getEndDate() != null ? event.getEndDate() : event.getDate();
+            if (entry.cityKeys().contains(wanted)
+                    && (country == null || entry.country() == null || entry.country().equals(country))
+                    && !event.getDate().isAfter(endDate) && !last.isBefore(startDate)) {
+                matches.add(event);
+            }
+        }
+        return matches;
+    }
+
+    @PostConstruct
+    void init() {
+        if (file.isBlank()) {
+            return;
+        }
+        reload();
+        if (watch) {
+            watcher = FileWatcher.watch(Path.of(file), "local-calendar-watcher", this::reload);
+        }
+    }
+
+    public void reload() {
+        try {
+            List<Entry> loaded = new ArrayList<>();
+            if (file.toLowerCase(Locale.ROOT).endsWith(".ics")) {
+                parseIcs(Path.of(file), loaded);
+            } else {
+                parseCsv(Path.of(file), loaded);
+            }
+            entries = List.copyOf(loaded);
+            log.info("Loaded {} local calendar events from {}", loaded.size(), file);
+        } catch (Exception e) {
+            // Keep serving the previous calendar
+            log.warn("Could not load local calendar {}", file, e);
+        }
+    }
+
+    private void parseCsv(Path path, List<Entry> out) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line = reader.readLine(); // header
+            int row = 1;
+            while ((line = reader.readLine()) != null) {
+                row++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    List<String> cols = CsvLine.split(line);
+                    if (cols.size() < 5 || column(cols, 1) == null) {
+                        throw new IllegalArgumentException("expected at least name,city,country,venue,start_date");
+                    }
+                    LocalDate start = LocalDate.parse(cols.get(4).trim());
+                    LocalDate end = column(cols, 5) != null ? LocalDate.parse(column(cols, 5)) : null;
+                    Integer visitors = column(cols, 6) != null ? Integer.valueOf(column(cols, 6)) : null;
+                    Double latitude = column(cols, 8) != null ? Double.valueOf(column(cols, 8)) : null;
+                    Double longitude = column(cols, 9) != null ? Double.valueOf(column(cols, 9)) : null;
+                    Event event = event("local-" + row, cols.get(0).trim(), cols.get(3).trim(), start, end, visitors,
+                            column(cols, 7) != null ? column(cols, 7) : "conference", latitude, longitude);
+                    String country = column(cols, 2);
+                    out.add(new Entry(event, Set.of(cityKey(cols.get(1))),
+                            country != null ? country.toUpperCase(Locale.ROOT) : null));
+                } catch (RuntimeException e) {
+                    log.warn("Skipping local calendar row {} of {}: {}", row, path, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void parseIcs(Path path, List<Entry> out) throws IOException {
+        Map<String, String> properties = null;
+        for (String line : unfold(Files.readAllLines(path, StandardCharsets.UTF_8))) {
+            if (line.equals("BEGIN:VEVENT")) {
+                properties = new HashMap<>();
+            } else if (line.equals("END:VEVENT") && properties != null) {
+                try {
+                    addIcsEvent(properties, out);
+                } catch (RuntimeException e) {
+                    log.warn("Skipping local calendar event {} of {}: {}", properties.get("UID"), path, e.getMessage());
+                }
+                properties = null;
+            } else if (properties != null) {
+                int colon = line.indexOf(':');
+                if (colon > 0) {
+                    // Drop parameters: "DTSTART;VALUE=DATE:20260710" -> DTSTART
+                    String name = line.substring(0, colon);
+                    int semicolon = name.indexOf(';');
+                    properties.put((semicolon > 0 ? name.substring(0, semicolon) : name).toUpperCase(Locale.ROOT),
+                            line.substring(colon + 1).replace("\\,", ",").replace("\\n", " ").trim());
+                }
+            }
+        }
+    }
+
+    private void addIcsEvent(Map<String, String> properties, List<Entry> out) {
+        String dtStart = properties.get("DTSTART");
+        if (dtStart == null || dtStart.length() < 8) {
+            return;
+        }
+        LocalDate start = LocalDate.parse(dtStart.substring(0, 8), ICS_DATE);
+        LocalDate end = null;
+        String dtEnd = properties.get("DTEND");
+        if (dtEnd != null && dtEnd.length() >= 8) {
+            LocalDate exclusiveEnd = LocalDate.parse(dtEnd.substring(0, 8), ICS_DATE);
+            // All-day DTEND is exclusive; a timed event ending on a later day still runs on that day
+            LocalDate last = dtEnd.length() == 8 ? exclusiveEnd.minusDays(1) : exclusiveEnd;
+            end = last.isAfter(start) ? last : null;
+        }
+        String visitors = properties.get("X-EXPECTED-VISITORS");
+        String location = properties.getOrDefault("LOCATION", "");
+        String category = properties.getOrDefault("CATEGORIES", "conference").split(",")[0].trim();
+        Event event = event(properties.getOrDefault("UID", "local-" + out.size()),
+                properties.getOrDefault("SUMMARY", "Local event"),
+                location.contains(",") ? location.substring(0, location.indexOf(',')).trim() : location,
+                start, end, visitors != null ? Integer.valueOf(visitors.trim()) : null,
+                category.toLowerCase(Locale.ROOT), null, null);
+        // "CityCube, Messedamm 26, Berlin": any part may be the city
+        Set<String> cityKeys = new HashSet<>();
+        for (String part : location.split(",")) {
+            if (!part.isBlank()) {
+                cityKeys.add(cityKey(part));
+            }
+        }
+        out.add(new Entry(event, Set.copyOf(cityKeys), null));
+    }
+
+    // RFC 5545 folding: a line starting with a space or tab continues the previous one
+    private static List<String> unfold(List<String> lines) {
+        List<String> unfolded = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            if (!unfolded.isEmpty() && (line.startsWith(" ") || line.startsWith("\t"))) {
+                int last = unfolded.size() - 1;
+                unfolded.set(last, unfolded.get(last) + line.substring(1));
+            } else {
+                unfolded.add(line.strip());
+            }
+        }
+        return unfolded;
+    }
+
+    // Trimmed column value, null when absent or blank
+    private static String column(List<String> cols, int index) {
+        return cols.size() > index && !cols.get(index).isBlank() ? cols.get(index).trim() : null;
+    }
+
+    private String cityKey(String city) {
+        CityInfo info = cityReferenceService.lookup(city);
+        return (info != null ? info.getName() : city).trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Event event(String id, String name, String venue, LocalDate start, LocalDate end,
+                               Integer visitors, String type, Double latitude, Double longitude) {
+        int expected = visitors != null ? visitors : DEFAULT_VISITORS;
+        int capacity = (int) Math.round(expected / TicketmasterService.ASSUMED_ATTENDANCE);
+        return Event.builder()
+                .id(id)
+                .name(name)
+                .type(type)
+                .venue(venue.isEmpty() ? "Unknown Venue" : venue)
+                .date(start)
+                .endDate(end)
+                .capacity(capacity)
+                .capacityEstimated(visitors == null)
+                .expectedVisitors(expected)
+                .distanceKm(0.0)
+                .latitude(latitude)
+                .longitude(longitude)
+                .impactLevel(capacity > 15000 ? "high" : capacity > 5000 ? "medium" : "low")
+                .ticketAvailability("n/a")
+                .build();
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        watcher.close();
+    }
+}
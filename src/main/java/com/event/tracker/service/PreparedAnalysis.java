@@ -0,0 +1,140 @@
+package com.event.tracker.service;
+
+import com.event.tracker.model.SurgeComponents;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+// An analysis_parameters object under one model, flattened once into primitive per-event arrays
+// plus its price- and event-independent surge. Callers that re-score the event component many times
+// (bulk rows, Monte Carlo samples) fill eventImpactBuffer() with one impact per event and call
+// modelSurge(), which applies the per-night cap and stay aggregation SurgeCalculationEngine uses.
+// Immutable once prepared; scoring reuses per-thread buffers and allocates nothing.
+final class PreparedAnalysis {
+
+    // Used when an event carries no distance
+    static final double DEFAULT_DISTANCE_KM = 5.0;
+
+    private static final ThreadLocal<double[]> EVENT_BUFFERS = ThreadLocal.withInitial(() -> new double[64]);
+    private static final ThreadLocal<double[]> NIGHT_BUFFERS = ThreadLocal.withInitial(() -> new double[32]);
+
+    final SurgeModel model;
+    final double fixedSurge;
+    final double dataCompleteness;
+    final int nights;
+    final int[] visitors;
+    final boolean[] capacityEstimated;
+    final double[] distanceKm;
+    final String[] impactLevel;
+    final double[] latitude; // radians, NaN when the venue is not located
+    final double[] longitude;
+    final double[] cosLatitude;
+    final int[] night; // stay night the event starts on, -1 when undated
+    final int[] lastNight; // equals night unless the event runs over several days
+
+    private PreparedAnalysis(SurgeModel model, double fixedSurge, double dataCompleteness, int nights, int events) {
+        this.model = model;
+        this.fixedSurge = fixedSurge;
+        this.dataCompleteness = dataCompleteness;
+        this.nights = nights;
+        this.visitors = new int[events];
+        this.capacityEstimated = new boolean[events];
+        this.distanceKm = new double[events];
+        this.impactLevel = new String[events];
+        this.latitude = new double[events];
+        this.longitude = new double[events];
+        this.cosLatitude = new double[events];
+        this.night = new int[events];
+        this.lastNight = new int[events];
+    }
+
+    static PreparedAnalysis of(JsonNode analysis, SurgeModel model, SurgeComponents components) {
+        JsonNode events = analysis.path("events");
+        int count = events.size();
+        PreparedAnalysis p = new PreparedAnalysis(model,
+                components.getSeasonalImpact() * model.getSeasonalityWeight()
+                        + components.getCalendarImpact() * model.getCalendarWeight()
+                        + components.getDemandImpact() * model.getDemandSupplyWeight(),
+                SurgeCalculationEngine.dataCompleteness(analysis),
+                analysis.path("nights").isArray() ? analysis.path("nights").size() : 1,
+                count);
+
+        JsonNode checkIn = analysis.path("stay_period").path("check_in");
+        long firstNight = checkIn.isTextual() ? LocalDate.parse(checkIn.asText()).toEpochDay() : 0;
+        for (int i = 0; i < count; i++) {
+            JsonNode event = events.get(i);
+            p.visitors[i] = event.path("expected_visitors").asInt();
+            p.capacityEstimated[i] = event.path("capacity_estimated").asBoolean(false);
+            p.distanceKm[i] = event.path("distance_km").asDouble(DEFAULT_DISTANCE_KM);
+            p.impactLevel[i] = event.path("impact_level").asText().intern();
+            p.latitude[i] = Math.toRadians(event.path("latitude").asDouble(Double.NaN));
+            p.longitude[i] = Math.toRadians(event.path("longitude").asDouble(Double.NaN));
+            p.cosLatitude[i] = Math.cos(p.latitude[i]);
+            JsonNode date = event.path("date");
+            JsonNode endDate = event.path("end_date");
+            p.night[i] = date.isTextual() && checkIn.isTextual()
+                    ? (int) (LocalDate.parse(date.asText()).toEpochDay() - firstNight)
+                    : -1;
+            p.lastNight[i] = endDate.isTextual() && date.isTextual() && checkIn.isTextual()
+                    ? (int) (LocalDate.parse(endDate.asText()).toEpochDay() - firstNight)
+                    : p.night[i];
+        }
+        return p;
+    }
+
+    int eventCount() {
+        return visitors.length;
+    }
+
+    // Whether the event's impact reaches modelSurge(); callers may skip scoring the others
+    boolean counts(int event) {
+        return nights <= 1 || Math.max(0, night[event]) <= Math.min(nights - 1, lastNight[event]);
+    }
+
+    // This thread's buffer for one impact per event, valid until the next call on the thread
+    double[] eventImpactBuffer() {
+        double[] buffer = EVENT_BUFFERS.get();
+        if (buffer.length < visitors.length) {
+            buffer = new double[Integer.highestOneBit(visitors.length) << 1];
+            EVENT_BUFFERS.set(buffer);
+        }
+        return buffer;
+    }
+
+    // Model surge (percent) for the given per-event impacts: single nights cap the total, longer
+    // stays cap each night and combine them with the model's peak-night weight
+    double modelSurge(double[] eventImpacts) {
+        double eventImpact;
+        if (nights > 1) {
+            double[] perNight = nightBuffer();
+            for (int i = 0; i < visitors.length; i++) {
+                for (int n = Math.max(0, night[i]), last = Math.min(nights - 1, lastNight[i]); n <= last; n++) {
+                    perNight[n] += eventImpacts[i];
+                }
+            }
+            for (int n = 0; n < nights; n++) {
+                perNight[n] = model.capEventImpact(perNight[n]);
+            }
+            eventImpact = SurgeCalculationEngine.stayScore(perNight, nights, model.getPeakNightWeight());
+        } else {
+            double total = 0.0;
+            for (int i = 0; i < visitors.length; i++) {
+                total += eventImpacts[i];
+            }
+            eventImpact = model.capEventImpact(total);
+        }
+        return (eventImpact * model.getEventWeight() + fixedSurge) * 100;
+    }
+
+    private double[] nightBuffer() {
+        double[] buffer = NIGHT_BUFFERS.get();
+        if (buffer.length < nights) {
+            buffer = new double[Integer.highestOneBit(nights) << 1];
+            NIGHT_BUFFERS.set(buffer);
+        } else {
+            Arrays.fill(buffer, 0, nights, 0.0);
+        }
+        return buffer;
+    }
+}
@@ -1,42 +1,27 @@
 package com.event.tracker.service;
 
+import com.event.tracker.model.CityInfo;
 import com.event.tracker.model.SeasonalityInfo;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.Month;
-import java.util.Map;
 @Slf4j
 @Service
 public class SeasonalityService {
 
-    // City-specific peak seasons (simplified)
-    private static final Map<String, Map<Month, String>> CITY_SEASONS = Map.of(
-            "berlin", Map.of(
-                    Month.DECEMBER, "peak",
-                    Month.JUNE, "peak",
-                    Month.JULY, "peak",
-                    Month.AUGUST, "peak"
-            ),
-            "paris", Map.of(
-                    Month.APRIL, "peak",
-                    Month.MAY, "peak",
-                    Month.JUNE, "peak",
-                    Month.SEPTEMBER, "peak"
-            ),
-            "london", Map.of(
-                    Month.JUNE, "peak",
-                    Month.JULY, "peak",
-                    Month.AUGUST, "peak",
-                    Month.DECEMBER, "peak"
-            )
-    );
+    private final CityReferenceService cityReferenceService;
+
+    public SeasonalityService(CityReferenceService cityReferenceService) {
+        this.cityReferenceService = cityReferenceService;
+    }
 
     public SeasonalityInfo analyze(String city, LocalDate date) {
+        CityInfo cityInfo = cityReferenceService.lookup(city);
         String season = getSeason(date);
-        boolean isPeak = isPeakSeason(city.toLowerCase(), date.getMonth());
-        String tourismLevel = getTourismLevel(city, date.getMonth(), isPeak);
+        boolean isPeak = cityInfo != null && cityInfo.isPeak(date.getMonth());
+        String tourismLevel = getTourismLevel(cityInfo, date.getMonth(), isPeak);
         double occupancy = getTypicalOccupancy(isPeak, season);
 
         return SeasonalityInfo.builder()
@@ -57,12 +42,12 @@ public class SeasonalityService {
         };
     }
 
-    private boolean isPeakSeason(String city, Month month) {
-        Map<Month, String> citySeason = CITY_SEASONS.getOrDefault(city, Map.of());
-        return "peak".equals(citySeason.get(month));
-    }
+    private String getTourismLevel(CityInfo cityInfo, Month month, boolean isPeak) {
+        String curveLevel = cityInfo != null ? cityInfo.tourismLevel(month) : null;
+        if (curveLevel != null) {
+            return curveLevel;
+        }
 
-    private String getTourismLevel(String city, Month month, boolean isPeak) {
         if (isPeak) {
             return "high";
         }
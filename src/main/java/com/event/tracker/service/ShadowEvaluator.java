@@ -0,0 +1,171 @@
+package com.event.tracker.service;
+
+import com.event.tracker.model.ShadowSample;
+import com.event.tracker.model.SurgeCalculation;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Re-scores a sample of live calculations with a candidate surge model off the response path
+// and keeps the differences for comparison. Submissions never block: when the worker is
+// behind, samples are dropped and counted.
+@Slf4j
+@Service
+public class ShadowEvaluator {
+
+    private final SurgeCalculationEngine surgeEngine;
+    private final SurgeModelRegistry modelRegistry;
+    private final String candidateMode;
+    private final double sampleRate;
+    private final ThreadPoolExecutor executor;
+
+    private final ShadowSample[] ring;
+    private long written;
+
+    // Running aggregates over every evaluated sample
+    private long count;
+    private double sumDelta;
+    private double sumAbsDelta;
+    private double sumSquaredDelta;
+    private double maxAbsDelta;
+    private long driverChanges;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public ShadowEvaluator(SurgeCalculationEngine surgeEngine,
+                           SurgeModelRegistry modelRegistry,
+                           @Value("${surge.shadow.mode:}") String candidateMode,
+                           @Value("${surge.shadow.sample-rate:0.1}") double sampleRate,
+                           @Value("${surge.shadow.buffer-size:1024}") int bufferSize,
+                           @Value("${surge.shadow.queue-size:256}") int queueSize) {
+        this.surgeEngine = surgeEngine;
+        this.modelRegistry = modelRegistry;
+        this.candidateMode = candidateMode;
+        this.sampleRate = sampleRate;
+        this.ring = new ShadowSample[bufferSize];
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "surge-shadow");
+                    t.setDaemon(true);
+                    return t;
+                },
+                (r, pool) -> dropped.incrementAndGet());
+    }
+
+    public boolean isEnabled() {
+        return !candidateMode.isBlank() && sampleRate > 0;
+    }
+
+    public void maybeEvaluate(JsonNode analysisParams, double currentPrice, double baselinePrice,
+                              SurgeCalculation primary) {
+        if (!isEnabled() || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        executor.execute(() -> evaluate(analysisParams, currentPrice, baselinePrice, primary));
+    }
+
+    private void evaluate(JsonNode analysisParams, double currentPrice, double baselinePrice,
+                          SurgeCalculation primary) {
+        try {
+            String city = analysisParams.path("city").asText(null);
+            SurgeModel candidate = modelRegistry.resolve(city, candidateMode);
+            // Uncached so candidate entries never evict the primary model's cached components
+            SurgeCalculation shadow = surgeEngine.calculateUncached(
+                    analysisParams, currentPrice, baselinePrice, candidate);
+
+            double delta = shadow.getModelSurge() - primary.getModelSurge();
+            record(ShadowSample.builder()
+                    .timestamp(Instant.now())
+                    .city(city)
+                    .primaryModel(primary.getModelKey())
+                    .candidateModel(candidate.getKey())
+                    .primaryModelSurge(primary.getModelSurge())
+                    .candidateModelSurge(shadow.getModelSurge())
+                    .delta(delta)
+                    .primaryConfidence(primary.getConfidenceLevel())
+                    .candidateConfidence(shadow.getConfidenceLevel())
+                    .primaryDriverChanged(!primary.getPrimaryDriver().equals(shadow.getPrimaryDriver()))
+                    .build());
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            log.debug("Shadow evaluation failed", e);
+        }
+    }
+
+    private synchronized void record(ShadowSample sample) {
+        ring[(int) (written++ % ring.length)] = sample;
+
+        double abs = Math.abs(sample.getDelta());
+        count++;
+        sumDelta += sample.getDelta();
+        sumAbsDelta += abs;
+        sumSquaredDelta += sample.getDelta() * sample.getDelta();
+        maxAbsDelta = Math.max(maxAbsDelta, abs);
+        if (sample.isPrimaryDriverChanged()) {
+            driverChanges++;
+        }
+    }
+
+    // Newest first; limit is clamped to [0, samples held]
+    public synchronized List<ShadowSample> recentSamples(int limit) {
+        int available = (int) Math.min(written, ring.length);
+        int n = Math.max(0, Math.min(limit, available));
+        List<ShadowSample> samples = new ArrayList<>(n);
+        for (long i = written - 1; i >= written - n; i--) {
+            samples.add(ring[(int) (i % ring.length)]);
+        }
+        return samples;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", isEnabled());
+        stats.put("candidate_mode", candidateMode);
+        stats.put("sample_rate", sampleRate);
+        stats.put("evaluated", count);
+        stats.put("dropped", dropped.get());
+        stats.put("failed", failed.get());
+        if (count == 0) {
+            return stats;
+        }
+
+        stats.put("mean_delta", sumDelta / count);
+        stats.put("mean_abs_delta", sumAbsDelta / count);
+        stats.put("rms_delta", Math.sqrt(sumSquaredDelta / count));
+        stats.put("max_abs_delta", maxAbsDelta);
+        stats.put("primary_driver_change_rate", (double) driverChanges / count);
+
+        // Percentiles over the samples still in the ring buffer
+        int available = (int) Math.min(written, ring.length);
+        double[] abs = new double[available];
+        for (int i = 0; i < available; i++) {
+            abs[i] = Math.abs(ring[i].getDelta());
+        }
+        Arrays.sort(abs);
+        stats.put("recent_p50_abs_delta", abs[(int) (0.50 * (available - 1))]);
+        stats.put("recent_p95_abs_delta", abs[(int) (0.95 * (available - 1))]);
+        stats.put("recent_p99_abs_delta", abs[(int) (0.99 * (available - 1))]);
+        return stats;
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,148 @@
+package com.event.tracker.service;
+
+import com.event.tracker.model.SurgeBatch;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Bulk (hotel, date) scoring for re-pricing jobs, e.g. the batch runner's "reprice" requests. Each
+// analysis is prepared once (PreparedAnalysis); rows are then scored on a work-stealing pool,
+// re-deriving only the event component from the hotel's own distance to each event, with the same
+// confidence SurgeCalculationEngine reports. Rows allocate nothing.
+@Service
+public class SurgeBatchScorer {
+
+    // Receives one scored row; called concurrently from pool workers
+    public interface Sink {
+        void accept(int row, double surgePercentage, double modelSurge, double confidence);
+    }
+
+    // Preallocated primitive output, indexed by row
+    public static final class Result implements Sink {
+        public final double[] surgePercentage;
+        public final double[] modelSurge;
+        public final double[] confidence;
+
+        public Result(int rows) {
+            this.surgePercentage = new double[rows];
+            this.modelSurge = new double[rows];
+            this.confidence = new double[rows];
+        }
+
+        @Override
+        public void accept(int row, double surgePercentage, double modelSurge, double confidence) {
+            this.surgePercentage[row] = surgePercentage;
+            this.modelSurge[row] = modelSurge;
+            this.confidence[row] = confidence;
+        }
+    }
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final SurgeCalculationEngine surgeEngine;
+    private final ForkJoinPool pool;
+    private final int splitThreshold;
+
+    public SurgeBatchScorer(SurgeCalculationEngine surgeEngine,
+                            @Value("${surge.bulk.parallelism:0}") int parallelism,
+                            @Value("${surge.bulk.split-threshold:1024}") int splitThreshold) {
+        this.surgeEngine = surgeEngine;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.splitThreshold = Math.max(1, splitThreshold);
+    }
+
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    public Result score(SurgeBatch batch, String mode) {
+        Result result = new Result(batch.size());
+        score(batch, mode, result);
+        return result;
+    }
+
+    public void score(SurgeBatch batch, String mode, Sink sink) {
+        List<JsonNode> analyses = batch.getAnalyses();
+        PreparedAnalysis[] prepared = new PreparedAnalysis[analyses.size()];
+        for (int i = 0; i < prepared.length; i++) {
+            prepared[i] = prepare(analyses.get(i), mode);
+        }
+        pool.invoke(new ScoreRange(batch, prepared, sink, 0, batch.size()));
+    }
+
+    private PreparedAnalysis prepare(JsonNode analysis, String mode) {
+        JsonNode city = analysis.get("city");
+        return surgeEngine.prepare(analysis, surgeEngine.resolveModel(city != null ? city.asText() : null, mode));
+    }
+
+    private void scoreRow(SurgeBatch batch, PreparedAnalysis p, int row, Sink sink) {
+        double hotelLat = batch.getHotelLatitude() != null ? Math.toRadians(batch.getHotelLatitude()[row]) : Double.NaN;
+        double hotelLon = batch.getHotelLongitude() != null ? Math.toRadians(batch.getHotelLongitude()[row]) : Double.NaN;
+        double[] impacts = p.eventImpactBuffer();
+        for (int i = 0; i < p.eventCount(); i++) {
+            impacts[i] = p.counts(i)
+                    ? p.model.eventImpact(p.visitors[i], distance(p, i, hotelLat, hotelLon), p.impactLevel[i])
+                    : 0.0;
+        }
+        double modelSurge = p.modelSurge(impacts);
+
+        double baseline = batch.getBaseline()[row];
+        double actualSurge = ((batch.getPrice()[row] - baseline) / baseline) * 100;
+        sink.accept(row, actualSurge, modelSurge,
+                SurgeCalculationEngine.confidence(actualSurge, modelSurge, p.dataCompleteness));
+    }
+
+    // Haversine hotel-to-venue distance (coordinates in radians) when both are located,
+    // otherwise the distance reported with the event
+    private static double distance(PreparedAnalysis p, int event, double hotelLat, double hotelLon) {
+        double lat = p.latitude[event];
+        double lon = p.longitude[event];
+        if (Double.isNaN(hotelLat) || Double.isNaN(hotelLon) || Double.isNaN(lat) || Double.isNaN(lon)) {
+            return p.distanceKm[event];
+        }
+        double sinLat = Math.sin((lat - hotelLat) / 2);
+        double sinLon = Math.sin((lon - hotelLon) / 2);
+        double a = sinLat * sinLat + Math.cos(hotelLat) * p.cosLatitude[event] * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private final class ScoreRange extends RecursiveAction {
+        private final SurgeBatch batch;
+        private final PreparedAnalysis[] prepared;
+        private final Sink sink;
+        private final int from;
+        private final int to;
+
+        ScoreRange(SurgeBatch batch, PreparedAnalysis[] prepared, Sink sink, int from, int to) {
+            this.batch = batch;
+            this.prepared = prepared;
+            this.sink = sink;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= splitThreshold) {
+                int[] analysisIndex = batch.getAnalysisIndex();
+                for (int row = from; row < to; row++) {
+                    scoreRow(batch, prepared[analysisIndex[row]], row, sink);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ScoreRange(batch, prepared, sink, from, mid),
+                    new ScoreRange(batch, prepared, sink, mid, to));
+        }
+    }
+}
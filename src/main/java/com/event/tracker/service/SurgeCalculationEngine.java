@@ -1,144 +1,286 @@
 package com.event.tracker.service;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.event.tracker.model.Factor;
+import com.event.tracker.model.Recommendation;
+import com.event.tracker.model.SourceStatus;
 import com.event.tracker.model.SurgeCalculation;
+import com.event.tracker.model.SurgeComponents;
+import com.event.tracker.utils.AnalysisFingerprint;
+import com.event.tracker.utils.DemandAggregator;
+import com.event.tracker.utils.LruCache;
 
 @Service
 public class SurgeCalculationEngine {
 
+    private static final double SIGNIFICANT_FACTOR_IMPACT = 10;
+    // Confidence lost per input source a partial analysis had to do without or took from an old copy
+    private static final double MISSING_SOURCE_PENALTY = 0.15;
+    private static final double STALE_SOURCE_PENALTY = 0.05;
+    private static final double MIN_DATA_COMPLETENESS = 0.4;
+
+    private static final Recommendation ALTERNATIVE_DATES = new Recommendation("alternative_dates",
+            "Consider booking 1-2 days earlier or later", 0.4, "high");
+    private static final Recommendation ALTERNATIVE_LOCATION = new Recommendation("alternative_location",
+            "Consider nearby cities or suburbs", 0.5, null);
+    private static final Recommendation BOOKING_TIMING = new Recommendation("booking_timing",
+            "Prices are elevated - book soon if dates are fixed", null, "medium");
+
+    private static final List<Recommendation> VERY_HIGH_SURGE_RECOMMENDATIONS =
+            List.of(ALTERNATIVE_DATES, ALTERNATIVE_LOCATION);
+    private static final List<Recommendation> ELEVATED_SURGE_RECOMMENDATIONS = List.of(BOOKING_TIMING);
+
+    private final SurgeModelRegistry modelRegistry;
+    private final LruCache<AnalysisFingerprint, SurgeComponents> componentCache;
+
+    public SurgeCalculationEngine(SurgeModelRegistry modelRegistry,
+                                  @Value("${surge.cache.max-entries:1024}") int cacheMaxEntries) {
+        this.modelRegistry = modelRegistry;
+        this.componentCache = new LruCache<>(cacheMaxEntries);
+    }
+
+    // Hit/miss/eviction counters of the per-analysis component cache
+    public Map<String, Long> cacheStats() {
+        return componentCache.stats();
+    }
+
     public SurgeCalculation calculate(JsonNode analysisParams,
                                       double currentPrice,
                                       double baselinePrice,
                                       String mode) {
+        JsonNode city = analysisParams.get("city");
+        SurgeModel model = modelRegistry.resolve(city != null ? city.asText() : null, mode);
+        return calculate(analysisParams, currentPrice, baselinePrice, mode, model);
+    }
 
-        List<Factor> factors = new ArrayList<>();
-        double surgeFactor = 0.0;
-
-        // 1. EVENT IMPACT (75% weight)
-        JsonNode events = analysisParams.get("events");
-        double eventImpact = calculateEventImpact(events, factors);
-        surgeFactor += eventImpact * 0.75;
-
-        // 2. SEASONALITY IMPACT (10% weight)
-        JsonNode seasonality = analysisParams.get("seasonality");
-        double seasonalImpact = calculateSeasonalImpact(seasonality, factors);
-        surgeFactor += seasonalImpact * 0.10;
+    public SurgeCalculation calculate(JsonNode analysisParams,
+                                      double currentPrice,
+                                      double baselinePrice,
+                                      String mode,
+                                      SurgeModel model) {
+        return calculate(analysisParams, currentPrice, baselinePrice, mode, model, true);
+    }
 
-        // 3. CALENDAR IMPACT (5% weight)
-        JsonNode calendar = analysisParams.get("calendar_factors");
-        double calendarImpact = calculateCalendarImpact(calendar, factors);
-        surgeFactor += calendarImpact * 0.05;
+    // explain = false leaves the explanation text out, for bulk callers that only need the numbers
+    public SurgeCalculation calculate(JsonNode analysisParams,
+                                      double currentPrice,
+                                      double baselinePrice,
+                                      String mode,
+                                      SurgeModel model,
+                                      boolean explain) {
+
+        // Event/seasonality/calendar/demand scoring only depends on the analysis content and the model,
+        // so repeated calls with a different price reuse it
+        return calculate(analysisParams, currentPrice, baselinePrice, model,
+                components(analysisParams, model), explain);
+    }
 
-        // 4. DEMAND-SUPPLY IMPACT (10% weight)
-        JsonNode demand = analysisParams.get("demand_indicators");
-        double demandImpact = calculateDemandImpact(demand, factors);
-        surgeFactor += demandImpact * 0.10;
+    // Scores without reading or filling the component cache and without explanation text, for side
+    // evaluations such as shadow models that must not evict the entries live calls rely on
+    public SurgeCalculation calculateUncached(JsonNode analysisParams,
+                                              double currentPrice,
+                                              double baselinePrice,
+                                              SurgeModel model) {
+        return calculate(analysisParams, currentPrice, baselinePrice, model,
+                computeComponents(analysisParams, model), false);
+    }
 
+    private SurgeCalculation calculate(JsonNode analysisParams,
+                                       double currentPrice,
+                                       double baselinePrice,
+                                       SurgeModel model,
+                                       SurgeComponents components,
+                                       boolean explain) {
         // Calculate actual surge percentage
         double actualSurge = ((currentPrice - baselinePrice) / baselinePrice) * 100;
-        double modelSurge = surgeFactor * 100;
+        double modelSurge = components.getModelSurge();
 
         // Build result
         SurgeCalculation result = new SurgeCalculation();
         result.setSurgePercentage(actualSurge);
         result.setModelSurge(modelSurge);
         result.setSurgeCategory(categorizeSurge(actualSurge));
-        result.setConfidenceLevel(calculateConfidence(actualSurge, modelSurge));
-        result.setFactors(factors);
-        result.setMode(mode);
-        result.setPrimaryDriver(determinePrimaryDriver(factors));
+        double completeness = dataCompleteness(analysisParams);
+        result.setDataCompleteness(completeness);
+        result.setConfidenceLevel(confidence(actualSurge, modelSurge, completeness));
+        result.setFactors(components.getFactors());
+        result.setMode(model.getMode()); // the mode actually applied, e.g. "standard" for an unknown one
+        result.setModelKey(model.getKey());
+        result.setPrimaryDriver(components.getPrimaryDriver());
         result.setSurgeJustified(actualSurge > 20); // Surge > 20% is considered justified
-        result.setExplanation(generateExplanation(actualSurge, factors, analysisParams));
-        result.setRecommendations(generateRecommendations(actualSurge, analysisParams));
+        result.setExplanation(explain ? generateExplanation(actualSurge, components) : null);
+        result.setRecommendations(recommendationsFor(actualSurge));
 
         // Set weights
-        result.setEventWeight(0.75);
-        result.setSeasonalityWeight(0.10);
-        result.setCalendarWeight(0.05);
-        result.setDemandSupplyWeight(0.10);
+        result.setEventWeight(model.getEventWeight());
+        result.setSeasonalityWeight(model.getSeasonalityWeight());
+        result.setCalendarWeight(model.getCalendarWeight());
+        result.setDemandSupplyWeight(model.getDemandSupplyWeight());
 
         Map<String, Double> weights = new HashMap<>();
-        weights.put("events", 0.75);
-        weights.put("seasonality", 0.10);
-        weights.put("calendar", 0.05);
-        weights.put("demand_supply", 0.10);
+        weights.put("events", model.getEventWeight());
+        weights.put("seasonality", model.getSeasonalityWeight());
+        weights.put("calendar", model.getCalendarWeight());
+        weights.put("demand_supply", model.getDemandSupplyWeight());
         result.setFactorWeights(weights);
 
         return result;
     }
 
-    private double calculateEventImpact(JsonNode events, List<Factor> factors) {
+    // Price-independent scoring only, for callers that track model surge without market prices
+    public SurgeComponents components(JsonNode analysisParams, SurgeModel model) {
+        AnalysisFingerprint key = AnalysisFingerprint.of(model.getKey(), analysisParams);
+        SurgeComponents components = componentCache.getIfPresent(key);
+        if (components == null) {
+            components = computeComponents(analysisParams, model);
+            componentCache.put(key.detach(), components);
+        }
+        return components;
+    }
+
+    // Flattened form for callers that re-score the event component many times
+    PreparedAnalysis prepare(JsonNode analysisParams, SurgeModel model) {
+        return PreparedAnalysis.of(analysisParams, model, components(analysisParams, model));
+    }
+
+    public SurgeModel resolveModel(String city, String mode) {
+        return modelRegistry.resolve(city, mode);
+    }
+
+    private SurgeComponents computeComponents(JsonNode analysisParams, SurgeModel model) {
+        List<Factor> factors = new ArrayList<>();
+        double surgeFactor = 0.0;
+
+        // Multi-night stays are scored night by night and aggregated; single nights keep the check-in view
+        JsonNode nights = analysisParams.get("nights");
+        boolean perNight = nights != null && nights.isArray() && nights.size() > 1;
+
+        // 1. EVENT IMPACT (75% weight in the standard model)
+        JsonNode events = analysisParams.get("events");
+        DemandAggregator eventDays = stayWindow(analysisParams.get("stay_period"));
+        double eventImpact = calculateEventImpact(events, eventDays, factors, model);
+        if (perNight) {
+            eventImpact = nightlyEventImpact(eventDays, nights.size(), model);
+        }
+        surgeFactor += eventImpact * model.getEventWeight();
+
+        // 2. SEASONALITY IMPACT (10% weight)
+        JsonNode seasonality = analysisParams.get("seasonality");
+        double seasonalImpact = perNight
+                ? calculateNightlySeasonalImpact(nights, factors, model)
+                : calculateSeasonalImpact(seasonality, factors, model);
+        surgeFactor += seasonalImpact * model.getSeasonalityWeight();
+
+        // 3. CALENDAR IMPACT (5% weight)
+        JsonNode calendar = analysisParams.get("calendar_factors");
+        double calendarImpact = perNight
+                ? calculateNightlyCalendarImpact(nights, factors, model)
+                : calculateCalendarImpact(calendar, factors, model);
+        surgeFactor += calendarImpact * model.getCalendarWeight();
+
+        // 4. DEMAND-SUPPLY IMPACT (10% weight)
+        JsonNode demand = analysisParams.get("demand_indicators");
+        double demandImpact = calculateDemandImpact(demand, factors, model);
+        surgeFactor += demandImpact * model.getDemandSupplyWeight();
+
+        // One pass for the primary driver (first factor with the highest impact) and the significant-factor count
+        Factor primaryFactor = null;
+        long significantFactors = 0;
+        for (Factor factor : factors) {
+            if (primaryFactor == null || factor.getImpactPercentage() > primaryFactor.getImpactPercentage()) {
+                primaryFactor = factor;
+            }
+            if (factor.getImpactPercentage() > SIGNIFICANT_FACTOR_IMPACT) {
+                significantFactors++;
+            }
+        }
+        String explanationDriver = primaryFactor != null && primaryFactor.getImpactPercentage() > 0
+                ? primaryFactor.getDescription().toLowerCase(Locale.ROOT)
+                : null;
+
+        return SurgeComponents.builder()
+                .eventImpact(eventImpact)
+                .seasonalImpact(seasonalImpact)
+                .calendarImpact(calendarImpact)
+                .demandImpact(demandImpact)
+                .modelSurge(surgeFactor * 100)
+                .factors(List.copyOf(factors))
+                .primaryDriver(primaryFactor != null ? primaryFactor.getFactor() : "UNKNOWN")
+                .explanationDriver(explanationDriver)
+                .significantFactors(significantFactors)
+                .explanationTail(explanationTail(explanationDriver, significantFactors))
+                .build();
+    }
+
+    private double calculateEventImpact(JsonNode events, DemandAggregator demand, List<Factor> factors,
+                                        SurgeModel model) {
         if (events == null || !events.isArray() || events.size() == 0) {
             return 0.0;
         }
 
-        double totalImpact = 0.0;
-
         for (JsonNode event : events) {
             String name = event.get("name").asText();
             String impactLevel = event.get("impact_level").asText();
             int expectedVisitors = event.get("expected_visitors").asInt();
             double distanceKm = event.has("distance_km")
                     ? event.get("distance_km").asDouble()
-                    : 5.0;
+                    : PreparedAnalysis.DEFAULT_DISTANCE_KM;
 
-            // Distance decay
-            double distanceFactor = Math.max(0, 1 - (distanceKm / 50.0));
-
-            // Visitor impact
-            double visitorFactor = Math.min(1.0, expectedVisitors / 10000.0);
-
-            // Impact level multiplier
-            double levelMultiplier = switch(impactLevel) {
-                case "critical" -> 1.5;
-                case "high" -> 1.2;
-                case "medium" -> 0.8;
-                default -> 0.4;
-            };
-
-            double eventImpact = visitorFactor * distanceFactor * levelMultiplier;
-            totalImpact += eventImpact;
+            double eventImpact = model.eventImpact(expectedVisitors, distanceKm, impactLevel);
+            long day = eventDay(event.get("date"));
+            JsonNode endDate = event.get("end_date");
+            demand.add(day, endDate != null ? eventDay(endDate) : day, expectedVisitors, impactLevel, eventImpact);
 
             // Add to factors list
             factors.add(Factor.builder()
                     .factor(impactLevel.toUpperCase() + " Event")
                     .description(name + " (" + expectedVisitors + " visitors)")
                     .impactPercentage(eventImpact * 100)
-                    .weight(0.75)
+                    .weight(model.getEventWeight())
                     .severity(impactLevel)
                     .build());
         }
 
-        return Math.min(2.5, totalImpact);
+        return model.capEventImpact(demand.totalImpact());
     }
 
-    private double calculateSeasonalImpact(JsonNode seasonality, List<Factor> factors) {
+    // Fetch window of the analysis; a missing stay period collapses to a single day
+    private DemandAggregator stayWindow(JsonNode stayPeriod) {
+        if (stayPeriod == null || !stayPeriod.has("check_in")) {
+            return new DemandAggregator(LocalDate.EPOCH, LocalDate.EPOCH);
+        }
+        LocalDate checkIn = LocalDate.parse(stayPeriod.get("check_in").asText());
+        LocalDate checkOut = stayPeriod.has("check_out")
+                ? LocalDate.parse(stayPeriod.get("check_out").asText())
+                : checkIn;
+        return new DemandAggregator(checkIn, checkOut);
+    }
+
+    private long eventDay(JsonNode date) {
+        return date != null && !date.isNull() ? LocalDate.parse(date.asText()).toEpochDay() : Long.MIN_VALUE;
+    }
+
+    private double calculateSeasonalImpact(JsonNode seasonality, List<Factor> factors, SurgeModel model) {
         boolean isPeak = seasonality.get("is_peak_season").asBoolean();
         String tourismLevel = seasonality.get("tourism_level").asText();
 
-        double baseImpact = isPeak ? 0.3 : 0.0;
-        double tourismMultiplier = switch(tourismLevel) {
-            case "very_high" -> 0.4;
-            case "high" -> 0.2;
-            case "medium" -> 0.1;
-            default -> 0.0;
-        };
-
-        double impact = baseImpact + tourismMultiplier;
+        double impact = model.seasonalImpact(isPeak, tourismLevel);
 
         if (impact > 0) {
             factors.add(Factor.builder()
                     .factor("Seasonality")
                     .description(isPeak ? "Peak season" : "Tourism level: " + tourismLevel)
                     .impactPercentage(impact * 100)
-                    .weight(0.10)
+                    .weight(model.getSeasonalityWeight())
                     .severity(isPeak ? "medium" : "low")
                     .build());
         }
@@ -146,20 +288,20 @@ public class SurgeCalculationEngine {
         return impact;
     }
 
-    private double calculateCalendarImpact(JsonNode calendar, List<Factor> factors) {
+    private double calculateCalendarImpact(JsonNode calendar, List<Factor> factors, SurgeModel model) {
         double impact = 0.0;
         List<String> calendarFactors = new ArrayList<>();
 
         if (calendar.get("is_weekend").asBoolean()) {
-            impact += 0.15;
+            impact += model.getWeekendImpact();
             calendarFactors.add("weekend");
         }
         if (calendar.get("is_holiday").asBoolean()) {
-            impact += 0.25;
+            impact += model.getHolidayImpact();
             calendarFactors.add("public holiday");
         }
         if (calendar.get("is_long_weekend").asBoolean()) {
-            impact += 0.35;
+            impact += model.getLongWeekendImpact();
             calendarFactors.add("long weekend");
         }
 
@@ -168,7 +310,7 @@ public class SurgeCalculationEngine {
                     .factor("Calendar Factors")
                     .description(String.join(", ", calendarFactors))
                     .impactPercentage(impact * 100)
-                    .weight(0.05)
+                    .weight(model.getCalendarWeight())
                     .severity("low")
                     .build());
         } else {
@@ -176,8 +318,8 @@ public class SurgeCalculationEngine {
             factors.add(Factor.builder()
                     .factor("Weekday Discount")
                     .description("Booking on weekday")
-                    .impactPercentage(-5.0)
-                    .weight(0.05)
+                    .impactPercentage(model.getWeekdayDiscountPercentage())
+                    .weight(model.getCalendarWeight())
                     .severity("low")
                     .build());
         }
@@ -185,22 +327,123 @@ public class SurgeCalculationEngine {
         return impact;
     }
 
-    private double calculateDemandImpact(JsonNode demand, List<Factor> factors) {
+    // Events only count on the night they happen; each night is capped on its own
+    private double nightlyEventImpact(DemandAggregator eventDays, int nightCount, SurgeModel model) {
+        double[] perNight = new double[nightCount];
+        for (int i = 0; i < nightCount && i < eventDays.days(); i++) {
+            perNight[i] = model.capEventImpact(eventDays.impactOn(i));
+        }
+        return stayScore(perNight, model);
+    }
+
+    private double calculateNightlySeasonalImpact(JsonNode nights, List<Factor> factors, SurgeModel model) {
+        double[] perNight = new double[nights.size()];
+        int peakNights = 0;
+        int i = 0;
+        for (JsonNode night : nights) {
+            boolean isPeak = night.path("is_peak_season").asBoolean();
+            perNight[i++] = model.seasonalImpact(isPeak, night.path("tourism_level").asText());
+            if (isPeak) {
+                peakNights++;
+            }
+        }
+        double impact = stayScore(perNight, model);
+
+        if (impact > 0) {
+            factors.add(Factor.builder()
+                    .factor("Seasonality")
+                    .description(peakNights > 0
+                            ? "Peak season (" + nightShare(peakNights, nights.size()) + ")"
+                            : "Tourism level: " + nights.get(0).path("tourism_level").asText())
+                    .impactPercentage(impact * 100)
+                    .weight(model.getSeasonalityWeight())
+                    .severity(peakNights > 0 ? "medium" : "low")
+                    .build());
+        }
+
+        return impact;
+    }
+
+    private double calculateNightlyCalendarImpact(JsonNode nights, List<Factor> factors, SurgeModel model) {
+        double[] perNight = new double[nights.size()];
+        int weekendNights = 0;
+        int holidayNights = 0;
+        int longWeekendNights = 0;
+        int i = 0;
+        for (JsonNode night : nights) {
+            double impact = 0.0;
+            if (night.path("is_weekend").asBoolean()) {
+                impact += model.getWeekendImpact();
+                weekendNights++;
+            }
+            if (night.path("is_holiday").asBoolean()) {
+                impact += model.getHolidayImpact();
+                holidayNights++;
+            }
+            if (night.path("is_long_weekend").asBoolean()) {
+                impact += model.getLongWeekendImpact();
+                longWeekendNights++;
+            }
+            perNight[i++] = impact;
+        }
+        double impact = stayScore(perNight, model);
+
+        if (impact > 0) {
+            List<String> calendarFactors = new ArrayList<>();
+            if (weekendNights > 0) calendarFactors.add("weekend (" + nightShare(weekendNights, nights.size()) + ")");
+            if (holidayNights > 0) calendarFactors.add("public holiday (" + nightShare(holidayNights, nights.size()) + ")");
+            if (longWeekendNights > 0) calendarFactors.add("long weekend (" + nightShare(longWeekendNights, nights.size()) + ")");
+            factors.add(Factor.builder()
+                    .factor("Calendar Factors")
+                    .description(String.join(", ", calendarFactors))
+                    .impactPercentage(impact * 100)
+                    .weight(model.getCalendarWeight())
+                    .severity("low")
+                    .build());
+        } else {
+            factors.add(Factor.builder()
+                    .factor("Weekday Discount")
+                    .description("All nights on weekdays")
+                    .impactPercentage(model.getWeekdayDiscountPercentage())
+                    .weight(model.getCalendarWeight())
+                    .severity("low")
+                    .build());
+        }
+
+        return impact;
+    }
+
+    // Blend of the worst night and the mean night, so one sold-out night still shows in a long stay
+    private double stayScore(double[] perNight, SurgeModel model) {
+        return stayScore(perNight, perNight.length, model.getPeakNightWeight());
+    }
+
+    // Shared with the bulk scorer, which reuses one buffer for stays of any length
+    static double stayScore(double[] perNight, int nights, double peakNightWeight) {
+        double max = 0.0;
+        double sum = 0.0;
+        for (int i = 0; i < nights; i++) {
+            max = Math.max(max, perNight[i]);
+            sum += perNight[i];
+        }
+        return peakNightWeight * max + (1 - peakNightWeight) * (sum / nights);
+    }
+
+    private String nightShare(int nights, int total) {
+        return nights + " of " + total + " nights";
+    }
+
+    private double calculateDemandImpact(JsonNode demand, List<Factor> factors, SurgeModel model) {
         String level = demand.get("overall_demand_level").asText();
 
-        double impact = switch(level) {
-            case "very_high" -> 0.5;
-            case "high" -> 0.3;
-            case "medium" -> 0.1;
-            default -> 0.0;
-        };
+        double impact = model.demandImpact(level);
 
         if (impact > 0) {
             factors.add(Factor.builder()
                     .factor("Demand-Supply Pressure")
                     .description("Overall demand level: " + level)
                     .impactPercentage(impact * 100)
-                    .weight(0.10)
+                    .weight(model.getDemandSupplyWeight())
                     .severity(impact > 0.3 ? "high" : "medium")
                     .build());
         }
@@ -216,73 +459,62 @@ public class SurgeCalculationEngine {
         return "MINIMAL";
     }
 
-    private double calculateConfidence(double actualSurge, double modelSurge) {
-        double difference = Math.abs(actualSurge - modelSurge);
-        return Math.max(0.5, 1.0 - (difference / 100.0));
+    // 1.0 for a complete analysis; lower when metadata.source_status marks missing or stale sources
+    public static double dataCompleteness(JsonNode analysisParams) {
+        double completeness = 1.0;
+        for (JsonNode status : analysisParams.path("metadata").path("source_status")) {
+            String label = status.asText();
+            if (SourceStatus.MISSING.label().equals(label)) {
+                completeness -= MISSING_SOURCE_PENALTY;
+            } else if (SourceStatus.STALE.label().equals(label)) {
+                completeness -= STALE_SOURCE_PENALTY;
+            }
+        }
+        return Math.max(MIN_DATA_COMPLETENESS, completeness);
     }
 
-    private String determinePrimaryDriver(List<Factor> factors) {
-        return factors.stream()
-                .max((f1, f2) -> Double.compare(f1.getImpactPercentage(), f2.getImpactPercentage()))
-                .map(f -> f.getFactor())
-                .orElse("UNKNOWN");
+    // Agreement between the actual and the model surge, scaled down by missing or stale inputs;
+    // shared with the bulk scorer so both report the same confidence for the same analysis
+    static double confidence(double actualSurge, double modelSurge, double dataCompleteness) {
+        double difference = Math.abs(actualSurge - modelSurge);
+        return Math.max(0.5, 1.0 - (difference / 100.0)) * dataCompleteness;
     }
 
-    private String generateExplanation(double surge, List<Factor> factors, JsonNode params) {
-        StringBuilder explanation = new StringBuilder();
-
-        explanation.append(String.format("The %.0f%% price surge is primarily driven by ", surge));
-
-        Factor primaryFactor = factors.stream()
-                .filter(f -> f.getImpactPercentage() > 0)
-                .max((f1, f2) -> Double.compare(f1.getImpactPercentage(), f2.getImpactPercentage()))
-                .orElse(null);
-
-        if (primaryFactor != null) {
-            explanation.append(primaryFactor.getDescription().toLowerCase());
+    private static String explanationTail(String driver, long significantFactors) {
+        StringBuilder tail = new StringBuilder(96);
+        if (driver != null) {
+            tail.append(driver);
         }
-
-        // Add contributing factors
-        long contributingFactors = factors.stream()
-                .filter(f -> f.getImpactPercentage() > 10)
-                .count();
-
-        if (contributingFactors > 1) {
-            explanation.append(" combined with ");
-            explanation.append(contributingFactors - 1);
-            explanation.append(" other significant factor");
-            if (contributingFactors > 2) explanation.append("s");
+        if (significantFactors > 1) {
+            tail.append(" combined with ").append(significantFactors - 1).append(" other significant factor");
+            if (significantFactors > 2) {
+                tail.append('s');
+            }
         }
+        return tail.append('.').toString();
+    }
 
-        explanation.append(".");
-
-        return explanation.toString();
+    // Only the surge figure depends on the price; the rest of the sentence is cached with the components
+    private static String generateExplanation(double surge, SurgeComponents components) {
+        return "The " + wholePercent(surge) + "% price surge is primarily driven by " + components.getExplanationTail();
     }
 
-    private List<Map<String, Object>> generateRecommendations(double surge, JsonNode params) {
-        List<Map<String, Object>> recommendations = new ArrayList<>();
+    // Same text as String.format("%.0f", value) (half-up, keeps "-0") without the formatter
+    static String wholePercent(double value) {
+        if (!Double.isFinite(value) || Math.abs(value) >= 1e15) {
+            return String.format("%.0f", value);
+        }
+        long rounded = Math.round(Math.abs(value));
+        return (Double.doubleToRawLongBits(value) < 0 ? "-" : "") + rounded;
+    }
 
+    private static List<Recommendation> recommendationsFor(double surge) {
         if (surge > 100) {
-            Map<String, Object> altDates = new HashMap<>();
-            altDates.put("type", "alternative_dates");
-            altDates.put("suggestion", "Consider booking 1-2 days earlier or later");
-            altDates.put("potential_saving", surge * 0.4);
-            altDates.put("urgency", "high");
-            recommendations.add(altDates);
-
-            Map<String, Object> altLocation = new HashMap<>();
-            altLocation.put("type", "alternative_location");
-            altLocation.put("suggestion", "Consider nearby cities or suburbs");
-            altLocation.put("potential_saving", surge * 0.5);
-            recommendations.add(altLocation);
-        } else if (surge > 50) {
-            Map<String, Object> bookNow = new HashMap<>();
-            bookNow.put("type", "booking_timing");
-            bookNow.put("suggestion", "Prices are elevated - book soon if dates are fixed");
-            bookNow.put("urgency", "medium");
-            recommendations.add(bookNow);
+            return VERY_HIGH_SURGE_RECOMMENDATIONS;
         }
-
-        return recommendations;
+        if (surge > 50) {
+            return ELEVATED_SURGE_RECOMMENDATIONS;
+        }
+        return List.of();
     }
 }
@@ -0,0 +1,632 @@
+package com.event.tracker.service;
+
+import com.event.tracker.model.CityInfo;
+import com.event.tracker.model.SurgeCalculation;
+import com.event.tracker.model.SurgeHistoryPoint;
+import com.event.tracker.model.SurgeRollup;
+import com.event.tracker.utils.GorillaBlock;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Append-only history of every surge calculation, one series per (canonical city, stay date).
+// record() only touches memory: points wait in a per-series buffer until the background flush
+// Gorilla-compresses them into blocks and appends those, with any new dictionary entries, to
+// fixed-size memory-mapped segment files. Several server processes can share the directory: every
+// read or append of the dictionaries and segments happens under one FileLock on history.lock, so a
+// flush first catches up on the dictionary lines and blocks the others appended (across any
+// segments they rolled over to) and only then assigns ids to its new series and drivers.
+// Queries share a read lock. Hourly and daily rollups are kept in memory for the retention window
+// only (rebuilt from the blocks in that window on startup); older ranges are aggregated from points.
+@Slf4j
+@Service
+public class SurgeHistoryStore {
+
+    private static final String[] CATEGORIES = {"MINIMAL", "LOW", "MODERATE", "HIGH", "VERY_HIGH"};
+    private static final int UNKNOWN_CATEGORY = 7;
+    private static final int MAX_DRIVERS = 0xFFFF;
+    // Stored for drivers recorded once the dictionary is full
+    private static final int OTHER_DRIVER = MAX_DRIVERS;
+    private static final String OTHER_DRIVER_NAME = "OTHER";
+    private static final String LOCK_FILE = "history.lock";
+
+    // FileLocks are held per JVM, so stores in one process sharing a directory also queue here
+    private static final Map<Path, ReentrantLock> PROCESS_LOCKS = new ConcurrentHashMap<>();
+    private static final long HOUR_MS = 3_600_000L;
+    private static final long DAY_MS = 24 * HOUR_MS;
+
+    // seriesId, count, minTimestamp, maxTimestamp, byteLength
+    private static final int BLOCK_HEADER = 4 + 4 + 8 + 8 + 4;
+
+    private final CityReferenceService cityReferenceService;
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final int blockPoints;
+    private final long flushIntervalSeconds;
+    private final long rollupRetentionMs;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Everything below is guarded by lock
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private int readOffset; // end of the blocks seen so far in the last segment
+
+    private final Map<String, Series> seriesByKey = new HashMap<>();
+    private final Map<Integer, Series> seriesById = new HashMap<>();
+    private final Map<String, List<Series>> seriesByCity = new HashMap<>();
+    private final List<Series> unflushed = new ArrayList<>();
+    private int persistedSeries;
+    private long seriesDictOffset;
+
+    private final Map<String, Integer> driverIds = new HashMap<>();
+    private final List<String> drivers = new ArrayList<>();
+    private long driversDictOffset;
+
+    private ScheduledExecutorService flusher;
+    private boolean available;
+
+    public SurgeHistoryStore(CityReferenceService cityReferenceService,
+                             @Value("${surge.history.enabled:true}") boolean enabled,
+                             @Value("${surge.history.dir}") String directory,
+                             @Value("${surge.history.segment-size-mb:16}") int segmentSizeMb,
+                             @Value("${surge.history.block-points:120}") int blockPoints,
+                             @Value("${surge.history.flush-interval-seconds:30}") long flushIntervalSeconds,
+                             @Value("${surge.history.rollup-retention-days:30}") int rollupRetentionDays) {
+        this.cityReferenceService = cityReferenceService;
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.segmentSize = segmentSizeMb * 1024 * 1024;
+        this.blockPoints = blockPoints;
+        this.flushIntervalSeconds = flushIntervalSeconds;
+        this.rollupRetentionMs = rollupRetentionDays * DAY_MS;
+    }
+
+    public void record(String city, LocalDate stayDate, SurgeCalculation calculation) {
+        record(city, stayDate, System.currentTimeMillis(), calculation.getSurgePercentage(),
+                calculation.getModelSurge(), calculation.getSurgeCategory(), calculation.getPrimaryDriver());
+    }
+
+    public void record(String city, LocalDate stayDate, long timestamp, double surgePercentage,
+                       double modelSurge, String category, String primaryDriver) {
+        String driver = primaryDriver != null ? primaryDriver : "UNKNOWN";
+        lock.writeLock().lock();
+        try {
+            if (!available) {
+                return;
+            }
+            if (drivers.size() >= MAX_DRIVERS && !driverIds.containsKey(driver)) {
+                driver = OTHER_DRIVER_NAME;
+            }
+            Series s = series(cityKey(city), stayDate);
+            if (s.pending.size == 0) {
+                unflushed.add(s);
+            }
+            s.pending.add(timestamp, surgePercentage, modelSurge, categoryCode(category), driver);
+            if (timestamp >= rollupCutoff()) {
+                s.rollup(timestamp, surgePercentage, modelSurge, category, driver);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Map<String, List<SurgeHistoryPoint>> queryPoints(String city, LocalDate stayDate,
+                                                            Instant from, Instant to) {
+        lock.readLock().lock();
+        try {
+            Map<String, List<SurgeHistoryPoint>> result = new LinkedHashMap<>();
+            for (Series s : matching(city, stayDate)) {
+                List<SurgeHistoryPoint> points = new ArrayList<>();
+                forEachPoint(s, from.toEpochMilli(), to.toEpochMilli(), (ts, surge, model, category, driver) ->
+                        points.add(SurgeHistoryPoint.builder()
+                                .timestamp(Instant.ofEpochMilli(ts))
+                                .surgePercentage(surge)
+                                .modelSurge(model)
+                                .surgeCategory(category)
+                                .primaryDriver(driver)
+                                .build()));
+                result.put(s.key(), points);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, List<SurgeRollup>> queryRollups(String city, LocalDate stayDate,
+                                                       Instant from, Instant to, boolean daily) {
+        long bucket = daily ? DAY_MS : HOUR_MS;
+        long fromKey = from.toEpochMilli() - Math.floorMod(from.toEpochMilli(), bucket);
+        long toMs = to.toEpochMilli();
+        lock.readLock().lock();
+        try {
+            boolean inMemory = fromKey >= rollupCutoff();
+            Map<String, List<SurgeRollup>> result = new LinkedHashMap<>();
+            for (Series s : matching(city, stayDate)) {
+                TreeMap<Long, SurgeRollup> buckets;
+                if (inMemory) {
+                    buckets = daily ? s.daily : s.hourly;
+                } else {
+                    // Older than the rollups kept in memory: aggregate the stored points
+                    TreeMap<Long, SurgeRollup> computed = new TreeMap<>();
+                    forEachPoint(s, fromKey, toMs, (ts, surge, model, category, driver) ->
+                            computed.computeIfAbsent(ts - Math.floorMod(ts, bucket),
+                                            b -> new SurgeRollup(Instant.ofEpochMilli(b)))
+                                    .add(surge, model, category, driver));
+                    buckets = computed;
+                }
+                result.put(s.key(), new ArrayList<>(buckets.subMap(fromKey, true, toMs, true).values()));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @PostConstruct
+    void open() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Files.createDirectories(directory);
+            sync(false);
+            available = true;
+            log.info("Opened surge history with {} series in {} segments under {}",
+                    seriesById.size(), segments.size(), directory);
+        } catch (IOException e) {
+            log.warn("Surge history disabled, could not open {}", directory, e);
+            return;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "surge-history-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalSeconds, flushIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    // Writes every buffered point so it survives a restart and becomes visible to other processes
+    public void flush() {
+        lock.writeLock().lock();
+        try {
+            if (!available) {
+                return;
+            }
+            sync(true);
+            long cutoff = rollupCutoff();
+            for (Series s : seriesByKey.values()) {
+                s.hourly.headMap(cutoff).clear();
+                s.daily.headMap(cutoff).clear();
+            }
+        } catch (IOException e) {
+            log.warn("Could not flush surge history", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    void close() throws InterruptedException {
+        if (flusher != null) {
+            flusher.shutdown();
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        flush();
+    }
+
+    // Under the directory's lock file: read what other processes appended, then (when writing)
+    // append our dictionary entries and blocks. Every process appends to the dictionaries and
+    // segments only while holding it, so one catch-up is complete until the lock is released.
+    private void sync(boolean write) throws IOException {
+        ReentrantLock processLock = PROCESS_LOCKS.computeIfAbsent(directory.toAbsolutePath().normalize(),
+                k -> new ReentrantLock());
+        processLock.lock();
+        try (FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock fileLock = lockChannel.lock()) {
+            catchUpDictionaries();
+            int segment = Math.max(0, segments.size() - 1);
+            openSegment(segment);
+            // Another process may have rolled over to newer segments meanwhile
+            while (true) {
+                scanFrom(segment);
+                if (!Files.exists(segmentPath(segment + 1))) {
+                    break;
+                }
+                segment++;
+                openSegment(segment);
+                readOffset = 0;
+            }
+            if (write && !unflushed.isEmpty()) {
+                append();
+            }
+        } finally {
+            processLock.unlock();
+        }
+    }
+
+    private void append() throws IOException {
+        // Dictionary lines first, so no block ever references an id another process cannot resolve
+        // Ids follow the line numbers, so they are only taken once the lines are written
+        List<Series> newSeries = new ArrayList<>();
+        List<String> newDrivers = new ArrayList<>();
+        StringBuilder seriesLines = new StringBuilder();
+        StringBuilder driverLines = new StringBuilder();
+        for (Series s : unflushed) {
+            if (s.id == 0) {
+                newSeries.add(s);
+                seriesLines.append(s.key()).append('\n');
+            }
+            for (int i = 0; i < s.pending.size; i++) {
+                String driver = s.pending.drivers[i];
+                if (!driverIds.containsKey(driver) && !newDrivers.contains(driver)
+                        && drivers.size() + newDrivers.size() < MAX_DRIVERS) {
+                    newDrivers.add(driver);
+                    driverLines.append(driver).append('\n');
+                }
+            }
+        }
+        seriesDictOffset += appendLines(directory.resolve("series.dict"), seriesLines);
+        for (Series s : newSeries) {
+            s.id = ++persistedSeries;
+            seriesById.put(s.id, s);
+        }
+        driversDictOffset += appendLines(directory.resolve("drivers.dict"), driverLines);
+        for (String driver : newDrivers) {
+            driverIds.put(driver, drivers.size());
+            drivers.add(driver);
+        }
+
+        int segment = segments.size() - 1;
+        for (Series s : unflushed) {
+            PendingPoints points = s.pending;
+            for (int start = 0; start < points.size; start += blockPoints) {
+                GorillaBlock block = new GorillaBlock();
+                for (int i = start; i < Math.min(points.size, start + blockPoints); i++) {
+                    block.add(points.timestamps[i], points.surge[i], points.model[i], points.categories[i],
+                            driverIds.getOrDefault(points.drivers[i], OTHER_DRIVER));
+                }
+                byte[] bytes = block.toBytes();
+                if (BLOCK_HEADER + bytes.length > segmentSize) {
+                    throw new IOException("Block of " + bytes.length + " bytes exceeds segment size");
+                }
+                if (readOffset + BLOCK_HEADER + bytes.length > segmentSize) {
+                    segments.get(segment).force();
+                    segment++;
+                    openSegment(segment);
+                    readOffset = 0;
+                }
+                write(segment, s, block, bytes);
+            }
+            points.clear();
+        }
+        unflushed.clear();
+        segments.get(segment).force();
+    }
+
+    private void write(int segment, Series s, GorillaBlock block, byte[] bytes) {
+        ByteBuffer buffer = segments.get(segment).duplicate();
+        buffer.position(readOffset);
+        // Payload first, series id last, so a torn write never looks like a complete block
+        buffer.putInt(0)
+                .putInt(block.count())
+                .putLong(block.minTimestamp())
+                .putLong(block.maxTimestamp())
+                .putInt(bytes.length)
+                .put(bytes);
+        buffer.putInt(readOffset, s.id);
+        s.blocks.add(new BlockRef(segment, readOffset + BLOCK_HEADER, block.count(),
+                block.minTimestamp(), block.maxTimestamp(), bytes.length));
+        readOffset += BLOCK_HEADER + bytes.length;
+    }
+
+    // Registers the blocks after readOffset; the rollups take the points still inside the retention window
+    private void scanFrom(int segment) {
+        ByteBuffer buffer = segments.get(segment).duplicate();
+        long cutoff = rollupCutoff();
+        int offset = readOffset;
+        while (offset + BLOCK_HEADER <= segmentSize) {
+            int id = buffer.getInt(offset);
+            int length = buffer.getInt(offset + 24);
+            if (id == 0 || length < 0 || offset + BLOCK_HEADER + length > segmentSize) {
+                break;
+            }
+            BlockRef block = new BlockRef(segment, offset + BLOCK_HEADER, buffer.getInt(offset + 4),
+                    buffer.getLong(offset + 8), buffer.getLong(offset + 16), length);
+            Series s = seriesById.get(id);
+            // Only a series whose dictionary line was torn by a crash has no entry
+            if (s != null) {
+                s.blocks.add(block);
+                if (block.maxTimestamp >= cutoff) {
+                    GorillaBlock.decode(read(block), block.count, (ts, surge, model, category, driver) -> {
+                        if (ts >= cutoff) {
+                            s.rollup(ts, surge, model, categoryName(category), driverName(driver));
+                        }
+                    });
+                }
+            }
+            offset += BLOCK_HEADER + length;
+        }
+        readOffset = offset;
+    }
+
+    // Maps the segment, creating it if needed; segments are opened in order
+    private void openSegment(int index) throws IOException {
+        if (index >= segments.size()) {
+            segments.add(map(segmentPath(index)));
+        }
+    }
+
+    private void catchUpDictionaries() throws IOException {
+        seriesDictOffset = readLines(directory.resolve("series.dict"), seriesDictOffset, line -> {
+            int id = ++persistedSeries;
+            int split = line.lastIndexOf('|');
+            if (split <= 0) {
+                return; // torn line from a crashed writer; its id stays unused
+            }
+            String key = line.substring(0, split);
+            LocalDate stayDate;
+            try {
+                stayDate = LocalDate.parse(line.substring(split + 1));
+            } catch (RuntimeException e) {
+                return;
+            }
+            Series s = seriesByKey.get(key + "|" + stayDate);
+            if (s == null) {
+                s = register(key, stayDate);
+            } else if (s.id != 0) {
+                return; // duplicate line, the first id wins
+            }
+            s.id = id;
+            seriesById.put(id, s);
+        });
+        driversDictOffset = readLines(directory.resolve("drivers.dict"), driversDictOffset, line -> {
+            driverIds.putIfAbsent(line, drivers.size());
+            drivers.add(line);
+        });
+    }
+
+    // Feeds the lines after offset to the consumer and returns the new offset. Only called under the
+    // directory lock, so an unterminated last line was torn by a crash and is terminated here.
+    private static long readLines(Path file, long offset, java.util.function.Consumer<String> consumer)
+            throws IOException {
+        if (!Files.exists(file)) {
+            return offset;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size <= offset) {
+                return offset;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) (size - offset));
+            while (buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) >= 0) {
+                // read until full
+            }
+            byte[] bytes = buffer.array();
+            int lineStart = 0;
+            for (int i = 0; i < bytes.length; i++) {
+                if (bytes[i] == '\n') {
+                    consumer.accept(new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8));
+                    lineStart = i + 1;
+                }
+            }
+            if (lineStart < bytes.length) {
+                consumer.accept(new String(bytes, lineStart, bytes.length - lineStart, StandardCharsets.UTF_8));
+                channel.write(ByteBuffer.wrap(new byte[]{'\n'}), size);
+                size++;
+            }
+            return size;
+        }
+    }
+
+    private static long appendLines(Path file, StringBuilder lines) throws IOException {
+        if (lines.length() == 0) {
+            return 0;
+        }
+        byte[] bytes = lines.toString().getBytes(StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        return bytes.length;
+    }
+
+    private void forEachPoint(Series s, long fromMs, long toMs, NamedPointConsumer consumer) {
+        GorillaBlock.PointConsumer decoded = (ts, surge, model, category, driver) -> {
+            if (ts >= fromMs && ts <= toMs) {
+                consumer.accept(ts, surge, model, categoryName(category), driverName(driver));
+            }
+        };
+        for (BlockRef block : s.blocks) {
+            if (block.maxTimestamp >= fromMs && block.minTimestamp <= toMs) {
+                GorillaBlock.decode(read(block), block.count, decoded);
+            }
+        }
+        PendingPoints points = s.pending;
+        for (int i = 0; i < points.size; i++) {
+            long ts = points.timestamps[i];
+            if (ts >= fromMs && ts <= toMs) {
+                consumer.accept(ts, points.surge[i], points.model[i], categoryName(points.categories[i]),
+                        points.drivers[i]);
+            }
+        }
+    }
+
+    private byte[] read(BlockRef block) {
+        byte[] bytes = new byte[block.length];
+        segments.get(block.segment).get(block.offset, bytes);
+        return bytes;
+    }
+
+    private MappedByteBuffer map(Path path) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            if (file.length() < segmentSize) {
+                file.setLength(segmentSize);
+            }
+            return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private Path segmentPath(int index) {
+        return directory.resolve(String.format("segment-%06d.dat", index));
+    }
+
+    private long rollupCutoff() {
+        long cutoff = System.currentTimeMillis() - rollupRetentionMs;
+        return cutoff - Math.floorMod(cutoff, DAY_MS);
+    }
+
+    // Aliases ("nyc", "New York City") share the canonical city's series
+    private String cityKey(String city) {
+        CityInfo info = cityReferenceService.lookup(city);
+        return (info != null ? info.getName() : city).trim().toLowerCase(Locale.ROOT);
+    }
+
+    private List<Series> matching(String city, LocalDate stayDate) {
+        String cityKey = cityKey(city);
+        if (stayDate != null) {
+            Series s = seriesByKey.get(cityKey + "|" + stayDate);
+            return s != null ? List.of(s) : List.of();
+        }
+        return seriesByCity.getOrDefault(cityKey, List.of());
+    }
+
+    private Series series(String cityKey, LocalDate stayDate) {
+        Series s = seriesByKey.get(cityKey + "|" + stayDate);
+        return s != null ? s : register(cityKey, stayDate);
+    }
+
+    private Series register(String cityKey, LocalDate stayDate) {
+        Series s = new Series(cityKey, stayDate);
+        seriesByKey.put(s.key(), s);
+        seriesByCity.computeIfAbsent(cityKey, k -> new ArrayList<>()).add(s);
+        return s;
+    }
+
+    private String driverName(int code) {
+        if (code == OTHER_DRIVER) {
+            return OTHER_DRIVER_NAME;
+        }
+        return code < drivers.size() ? drivers.get(code) : "UNKNOWN";
+    }
+
+    private static int categoryCode(String category) {
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            if (CATEGORIES[i].equals(category)) {
+                return i;
+            }
+        }
+        return UNKNOWN_CATEGORY;
+    }
+
+    private static String categoryName(int code) {
+        return code < CATEGORIES.length ? CATEGORIES[code] : "UNKNOWN";
+    }
+
+    private interface NamedPointConsumer {
+        void accept(long timestamp, double surgePercentage, double modelSurge, String category, String driver);
+    }
+
+    private record BlockRef(int segment, int offset, int count, long minTimestamp, long maxTimestamp, int length) {
+    }
+
+    // Points recorded since the last flush, with driver names: ids are only assigned under the lock
+    private static final class PendingPoints {
+        long[] timestamps = new long[8];
+        double[] surge = new double[8];
+        double[] model = new double[8];
+        int[] categories = new int[8];
+        String[] drivers = new String[8];
+        int size;
+
+        void add(long timestamp, double surgePercentage, double modelSurge, int category, String driver) {
+            if (size == timestamps.length) {
+                int capacity = size * 2;
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                surge = Arrays.copyOf(surge, capacity);
+                model = Arrays.copyOf(model, capacity);
+                categories = Arrays.copyOf(categories, capacity);
+                drivers = Arrays.copyOf(drivers, capacity);
+            }
+            timestamps[size] = timestamp;
+            surge[size] = surgePercentage;
+            model[size] = modelSurge;
+            categories[size] = category;
+            drivers[size] = driver;
+            size++;
+        }
+
+        void clear() {
+            Arrays.fill(drivers, 0, size, null);
+            size = 0;
+        }
+    }
+
+    private static final class Series {
+        final String city;
+        final LocalDate stayDate;
+        final List<BlockRef> blocks = new ArrayList<>();
+        final TreeMap<Long, SurgeRollup> hourly = new TreeMap<>();
+        final TreeMap<Long, SurgeRollup> daily = new TreeMap<>();
+        final PendingPoints pending = new PendingPoints();
+        int id; // 0 until the series is in series.dict
+
+        Series(String city, LocalDate stayDate) {
+            this.city = city;
+            this.stayDate = stayDate;
+        }
+
+        void rollup(long timestamp, double surge, double model, String category, String driver) {
+            long hour = timestamp - Math.floorMod(timestamp, HOUR_MS);
+            long day = timestamp - Math.floorMod(timestamp, DAY_MS);
+            hourly.computeIfAbsent(hour, h -> new SurgeRollup(Instant.ofEpochMilli(h)))
+                    .add(surge, model, category, driver);
+            daily.computeIfAbsent(day, d -> new SurgeRollup(Instant.ofEpochMilli(d)))
+                    .add(surge, model, category, driver);
+        }
+
+        String key() {
+            return city + "|" + stayDate;
+        }
+    }
+}
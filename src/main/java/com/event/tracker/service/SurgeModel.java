@@ -0,0 +1,41 @@
+package com.event.tracker.service;
+
+// Coefficients used by SurgeCalculationEngine to turn analysis components into a model surge.
+// Implementations must be immutable: the engine caches results per model key.
+public interface SurgeModel {
+
+    // Unique per loaded model instance, e.g. "paris/standard@3"; changes on every reload
+    String getKey();
+
+    String getMode();
+
+    double getEventWeight();
+
+    double getSeasonalityWeight();
+
+    double getCalendarWeight();
+
+    double getDemandSupplyWeight();
+
+    double eventImpact(int expectedVisitors, double distanceKm, String impactLevel);
+
+    // Distance beyond which an event has no impact
+    double getDistanceCutoffKm();
+
+    double capEventImpact(double totalEventImpact);
+
+    double seasonalImpact(boolean isPeakSeason, String tourismLevel);
+
+    double getWeekendImpact();
+
+    double getHolidayImpact();
+
+    double getLongWeekendImpact();
+
+    double getWeekdayDiscountPercentage();
+
+    double demandImpact(String demandLevel);
+
+    // Share of the worst night in a multi-night stay score; the rest is the mean over all nights
+    double getPeakNightWeight();
+}
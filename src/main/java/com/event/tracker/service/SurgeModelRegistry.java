@@ -0,0 +1,166 @@
+package com.event.tracker.service;
+
+import com.event.tracker.model.CityInfo;
+import com.event.tracker.utils.FileWatcher;
+import com.event.tracker.utils.JsonHelper;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Loads surge models per calculation mode (and optional per-city overrides) and swaps them atomically on reload.
+// Modes are matched case-insensitively and cities through their canonical CityReferenceService name.
+@Slf4j
+@Service
+public class SurgeModelRegistry {
+
+    private static final String BUNDLED_FILE = "data/surge-models.json";
+
+    private final CityReferenceService cityReferenceService;
+    private final String externalFile;
+    private final boolean watch;
+    private final AtomicInteger generation = new AtomicInteger();
+
+    private volatile ModelTable table = new ModelTable("standard",
+            Map.of("standard", WeightedSurgeModel.STANDARD), Map.of());
+    private Closeable watcher = () -> { };
+
+    public SurgeModelRegistry(
+            CityReferenceService cityReferenceService,
+            @Value("${surge.models.file:}") String externalFile,
+            @Value("${surge.models.watch:true}") boolean watch) {
+        this.cityReferenceService = cityReferenceService;
+        this.externalFile = externalFile;
+        this.watch = watch;
+    }
+
+    // Unknown modes get the default model; callers report the resolved model's getMode()
+    public SurgeModel resolve(String city, String mode) {
+        ModelTable current = table;
+        String requested = mode != null && !mode.isBlank() ? mode.trim().toLowerCase(Locale.ROOT) : current.defaultMode;
+
+        if (city != null && !current.byCity.isEmpty()) {
+            Map<String, SurgeModel> cityModels = current.byCity.get(cityKey(city));
+            if (cityModels != null && cityModels.containsKey(requested)) {
+                return cityModels.get(requested);
+            }
+        }
+
+        SurgeModel model = current.byMode.get(requested);
+        return model != null ? model : current.byMode.get(current.defaultMode);
+    }
+
+    public Iterable<String> modes() {
+        return table.byMode.keySet();
+    }
+
+    // Widest event reach of any loaded model; events further away cannot move any surge
+    public double maxDistanceCutoffKm() {
+        ModelTable current = table;
+        double max = 0;
+        for (SurgeModel model : current.byMode.values()) {
+            max = Math.max(max, model.getDistanceCutoffKm());
+        }
+        for (Map<String, SurgeModel> cityModels : current.byCity.values()) {
+            for (SurgeModel model : cityModels.values()) {
+                max = Math.max(max, model.getDistanceCutoffKm());
+            }
+        }
+        return max;
+    }
+
+    @PostConstruct
+    void init() {
+        reload();
+        if (watch && !externalFile.isBlank()) {
+            watcher = FileWatcher.watch(Path.of(externalFile), "surge-model-watcher", this::reload);
+        }
+    }
+
+    public void reload() {
+        try {
+            JsonNode root;
+            String source;
+            if (!externalFile.isBlank() && Files.exists(Path.of(externalFile))) {
+                source = externalFile;
+                root = JsonHelper.getMapper().readTree(Path.of(externalFile).toFile());
+            } else {
+                source = "classpath:" + BUNDLED_FILE;
+                try (InputStream in = new ClassPathResource(BUNDLED_FILE).getInputStream()) {
+                    root = JsonHelper.getMapper().readTree(in);
+                }
+            }
+            table = compile(root, generation.incrementAndGet());
+            log.info("Loaded surge models {} ({} city overrides) from {}",
+                    table.byMode.keySet(), table.byCity.size(), source);
+        } catch (Exception e) {
+            // Keep serving the previous models
+            log.warn("Could not load surge models", e);
+        }
+    }
+
+    private ModelTable compile(JsonNode root, int gen) {
+        Map<String, SurgeModel> byMode = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> modes = root.path("models").fields();
+        while (modes.hasNext()) {
+            Map.Entry<String, JsonNode> entry = modes.next();
+            String mode = entry.getKey().trim().toLowerCase(Locale.ROOT);
+            byMode.put(mode, WeightedSurgeModel.STANDARD.with(mode + "@" + gen, mode, entry.getValue()));
+        }
+
+        String defaultMode = root.path("default_mode").asText("standard").trim().toLowerCase(Locale.ROOT);
+        if (!byMode.containsKey(defaultMode)) {
+            throw new IllegalArgumentException("default_mode '" + defaultMode + "' has no model");
+        }
+
+        // City overrides are applied on top of the mode's model
+        Map<String, Map<String, SurgeModel>> byCity = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> cities = root.path("cities").fields();
+        while (cities.hasNext()) {
+            Map.Entry<String, JsonNode> cityEntry = cities.next();
+            String city = cityKey(cityEntry.getKey());
+            Map<String, SurgeModel> cityModels = new HashMap<>(byCity.getOrDefault(city, Map.of()));
+            cityEntry.getValue().fields().forEachRemaining(modeEntry -> {
+                String mode = modeEntry.getKey().trim().toLowerCase(Locale.ROOT);
+                WeightedSurgeModel base = (WeightedSurgeModel) byMode.get(mode);
+                if (base == null) {
+                    throw new IllegalArgumentException("City " + city + " overrides unknown mode " + modeEntry.getKey());
+                }
+                cityModels.put(mode, base.with(city + "/" + mode + "@" + gen, mode, modeEntry.getValue()));
+            });
+            byCity.put(city, Map.copyOf(cityModels));
+        }
+
+        return new ModelTable(defaultMode, Map.copyOf(byMode), Map.copyOf(byCity));
+    }
+
+    // An alias ("nyc") and the canonical name ("New York") select the same overrides
+    private String cityKey(String city) {
+        CityInfo info = cityReferenceService.lookup(city);
+        return (info != null ? info.getName() : city).trim().toLowerCase(Locale.ROOT);
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        watcher.close();
+    }
+
+    private record ModelTable(String defaultMode,
+                              Map<String, SurgeModel> byMode,
+                              Map<String, Map<String, SurgeModel>> byCity) {
+    }
+}
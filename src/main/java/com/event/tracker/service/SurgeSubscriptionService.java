@@ -0,0 +1,417 @@
+package com.event.tracker.service;
+
+import com.event.tracker.model.SurgeComponents;
+import com.event.tracker.model.SurgeUpdate;
+import com.event.tracker.utils.DemandAggregator;
+import com.event.tracker.utils.TokenBucketLimiter.Priority;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Keeps analysis state resident for subscribed (city, dates) stays and refreshes each distinct
+// stay once per interval, however many clients watch it. Each refresh builds a per-day histogram of
+// the events running on every day of the stay (multi-day events count on each day up to end_date)
+// and diffs it against the previous one; subscribers only get a delta, listing the changed days,
+// when a day, the calendar or demand actually changed. The per-day impacts in a delta score only
+// the events running on the changed days; the model surge goes through the engine's component
+// cache, so an unchanged analysis is never re-scored and a changed one is scored in full once.
+// Upstream fetches run outside the stay's monitor, which only guards swapping the new state in.
+@Slf4j
+@Service
+public class SurgeSubscriptionService {
+
+    private final AnalysisParametersService analysisService;
+    private final SurgeCalculationEngine surgeEngine;
+    private final long refreshIntervalSeconds;
+    private final int maxSubscriptions;
+    private final int queueSize;
+    private final Semaphore subscriptionSlots;
+
+    private final Map<String, WatchedStay> watched = new ConcurrentHashMap<>();
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final List<Consumer<SurgeUpdate>> listeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService scheduler;
+
+    public SurgeSubscriptionService(AnalysisParametersService analysisService,
+                                    SurgeCalculationEngine surgeEngine,
+                                    @Value("${surge.subscriptions.refresh-interval-seconds:300}") long refreshIntervalSeconds,
+                                    @Value("${surge.subscriptions.max:1000}") int maxSubscriptions,
+                                    @Value("${surge.subscriptions.queue-size:100}") int queueSize) {
+        this.analysisService = analysisService;
+        this.surgeEngine = surgeEngine;
+        this.refreshIntervalSeconds = refreshIntervalSeconds;
+        this.maxSubscriptions = maxSubscriptions;
+        this.queueSize = queueSize;
+        this.subscriptionSlots = new Semaphore(maxSubscriptions);
+    }
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "surge-subscriptions");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::refreshAll,
+                refreshIntervalSeconds, refreshIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    // Transports that can push (e.g. MCP notifications) register here; polling clients use poll()
+    public void addListener(Consumer<SurgeUpdate> listener) {
+        listeners.add(listener);
+    }
+
+    public SurgeUpdate subscribe(String city, String countryCode, LocalDate checkIn, LocalDate checkOut,
+                                 int radiusKm, List<String> hotels, String mode) {
+        // A slot is held per live subscription and handed back by unsubscribe or a failed subscribe
+        if (!subscriptionSlots.tryAcquire()) {
+            throw new IllegalStateException("Subscription limit of " + maxSubscriptions + " reached");
+        }
+        try {
+            return register(city, countryCode, checkIn, checkOut, radiusKm, hotels, mode);
+        } catch (RuntimeException e) {
+            subscriptionSlots.release();
+            throw e;
+        }
+    }
+
+    private SurgeUpdate register(String city, String countryCode, LocalDate checkIn, LocalDate checkOut,
+                                 int radiusKm, List<String> hotels, String mode) {
+        String key = String.join("|", city.trim().toLowerCase(Locale.ROOT),
+                countryCode.trim().toUpperCase(Locale.ROOT), checkIn.toString(), checkOut.toString(),
+                String.valueOf(radiusKm));
+        WatchedStay stay = watched.computeIfAbsent(key,
+                k -> new WatchedStay(k, city, countryCode, checkIn, checkOut, radiusKm));
+        // Concurrent first subscribers of a stay share the upstream call through its single-flight
+        JsonNode initial = stay.analysis == null ? fetch(stay) : null;
+
+        synchronized (stay) {
+            if (watched.get(key) != stay) {
+                // The last subscriber left between lookup and lock; start over with a fresh entry
+                return register(city, countryCode, checkIn, checkOut, radiusKm, hotels, mode);
+            }
+            if (stay.analysis == null && initial != null) {
+                apply(stay, initial);
+            }
+            if (stay.analysis == null) {
+                watched.remove(key, stay);
+                throw new IllegalStateException("Initial analysis failed for " + city);
+            }
+
+            Subscription subscription = new Subscription(UUID.randomUUID().toString(), stay,
+                    hotels != null ? List.copyOf(hotels) : List.of(), mode, queueSize);
+            stay.subscribers.add(subscription);
+            subscriptions.put(subscription.id, subscription);
+
+            SurgeComponents components = components(stay, subscription);
+            subscription.lastModelSurge = components.getModelSurge();
+            return SurgeUpdate.builder()
+                    .subscriptionId(subscription.id)
+                    .sequence(subscription.sequence.getAndIncrement())
+                    .timestamp(Instant.now())
+                    .city(city)
+                    .checkIn(checkIn)
+                    .checkOut(checkOut)
+                    .hotels(subscription.hotels)
+                    .changedDays(stay.days())
+                    .dayEventImpacts(dayImpacts(stay, stay.days(), subscription))
+                    .previousModelSurge(components.getModelSurge())
+                    .modelSurge(components.getModelSurge())
+                    .primaryDriver(components.getPrimaryDriver())
+                    .analysisParameters(stay.analysis)
+                    .build();
+        }
+    }
+
+    public boolean unsubscribe(String subscriptionId) {
+        Subscription subscription = subscriptions.remove(subscriptionId);
+        if (subscription == null) {
+            return false;
+        }
+        subscriptionSlots.release();
+        WatchedStay stay = subscription.stay;
+        synchronized (stay) {
+            stay.subscribers.remove(subscription);
+            if (stay.subscribers.isEmpty()) {
+                watched.remove(stay.key, stay);
+            }
+        }
+        return true;
+    }
+
+    // Returns pending deltas, waiting up to waitSeconds for the first one
+    public List<SurgeUpdate> poll(String subscriptionId, int maxUpdates, int waitSeconds) throws InterruptedException {
+        Subscription subscription = subscriptions.get(subscriptionId);
+        if (subscription == null) {
+            throw new IllegalArgumentException("Unknown subscription " + subscriptionId);
+        }
+        List<SurgeUpdate> updates = new ArrayList<>();
+        SurgeUpdate first = subscription.pending.poll(waitSeconds, TimeUnit.SECONDS);
+        if (first != null) {
+            updates.add(first);
+            subscription.pending.drainTo(updates, maxUpdates - 1);
+        }
+        return updates;
+    }
+
+    public JsonNode currentAnalysis(String subscriptionId) {
+        Subscription subscription = subscriptions.get(subscriptionId);
+        return subscription != null ? subscription.stay.analysis : null;
+    }
+
+    public long missedUpdates(String subscriptionId) {
+        Subscription subscription = subscriptions.get(subscriptionId);
+        return subscription != null ? subscription.missed.get() : 0;
+    }
+
+    private void refreshAll() {
+        for (WatchedStay stay : watched.values()) {
+            try {
+                JsonNode analysis = fetch(stay);
+                if (analysis != null) {
+                    synchronized (stay) {
+                        apply(stay, analysis);
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Subscription refresh failed for {}", stay.key, e);
+            }
+        }
+    }
+
+    // One upstream round-trip per distinct stay, made without holding the stay's monitor; null on error
+    private JsonNode fetch(WatchedStay stay) {
+        JsonNode analysis = analysisService.getAnalysisParameters(stay.city, stay.countryCode,
+                stay.checkIn.toString(), stay.checkOut.toString(), stay.radiusKm, Priority.BACKGROUND);
+        if (analysis.has("error")) {
+            log.warn("Keeping previous analysis for {}: {}", stay.key, analysis.path("message").asText());
+            return null;
+        }
+        return analysis;
+    }
+
+    // Swaps a fetched analysis in under the stay's monitor; returns without fan-out when nothing changed
+    private void apply(WatchedStay stay, JsonNode analysis) {
+        // A partial event list would look like cancelled events; wait for a complete one
+        if (stay.analysis != null && analysis.path("metadata").has("missed_event_sources")) {
+            log.warn("Keeping previous analysis for {}: missed event sources {}", stay.key,
+                    analysis.path("metadata").path("missed_event_sources"));
+            return;
+        }
+
+        DayHistogram histogram = new DayHistogram(stay.checkIn, stay.checkOut, analysis.path("events"));
+        boolean firstLoad = stay.analysis == null;
+        List<LocalDate> changedDays = firstLoad ? List.of() : histogram.changedDays(stay.histogram);
+        boolean calendarChanged = !firstLoad
+                && !analysis.path("calendar_factors").equals(stay.analysis.path("calendar_factors"));
+        boolean demandChanged = !firstLoad
+                && !analysis.path("demand_indicators").equals(stay.analysis.path("demand_indicators"));
+
+        stay.analysis = analysis;
+        stay.histogram = histogram;
+        if (firstLoad || (changedDays.isEmpty() && !calendarChanged && !demandChanged)) {
+            return;
+        }
+
+        for (Subscription subscription : stay.subscribers) {
+            SurgeComponents components = components(stay, subscription);
+            SurgeUpdate update = SurgeUpdate.builder()
+                    .subscriptionId(subscription.id)
+                    .sequence(subscription.sequence.getAndIncrement())
+                    .timestamp(Instant.now())
+                    .city(stay.city)
+                    .checkIn(stay.checkIn)
+                    .checkOut(stay.checkOut)
+                    .hotels(subscription.hotels)
+                    .changedDays(changedDays)
+                    .dayEventImpacts(dayImpacts(stay, changedDays, subscription))
+                    .calendarChanged(calendarChanged)
+                    .previousModelSurge(subscription.lastModelSurge)
+                    .modelSurge(components.getModelSurge())
+                    .primaryDriver(components.getPrimaryDriver())
+                    .build();
+            subscription.lastModelSurge = components.getModelSurge();
+            publish(subscription, update);
+        }
+    }
+
+    private void publish(Subscription subscription, SurgeUpdate update) {
+        // Slow pollers lose the oldest deltas rather than growing the queue
+        while (!subscription.pending.offerLast(update)) {
+            if (subscription.pending.pollFirst() != null) {
+                subscription.missed.incrementAndGet();
+            }
+        }
+        for (Consumer<SurgeUpdate> listener : listeners) {
+            try {
+                listener.accept(update);
+            } catch (Exception e) {
+                log.warn("Surge update listener failed", e);
+            }
+        }
+    }
+
+    private SurgeComponents components(WatchedStay stay, Subscription subscription) {
+        SurgeModel model = surgeEngine.resolveModel(stay.city, subscription.mode);
+        return surgeEngine.components(stay.analysis, model);
+    }
+
+    // Event contribution of each requested day under the subscriber's model, multi-day events on every
+    // day they run; events that run on none of the requested days are not scored
+    private Map<LocalDate, Double> dayImpacts(WatchedStay stay, List<LocalDate> days, Subscription subscription) {
+        SurgeModel model = surgeEngine.resolveModel(stay.city, subscription.mode);
+        DemandAggregator impacts = new DemandAggregator(stay.checkIn, stay.checkOut);
+        boolean[] requested = new boolean[impacts.days()];
+        for (LocalDate day : days) {
+            requested[(int) (day.toEpochDay() - stay.checkIn.toEpochDay())] = true;
+        }
+        for (JsonNode event : stay.analysis.path("events")) {
+            long first = LocalDate.parse(event.path("date").asText()).toEpochDay();
+            long last = event.path("end_date").isTextual()
+                    ? LocalDate.parse(event.path("end_date").asText()).toEpochDay()
+                    : first;
+            if (!runsOnAny(requested, first - stay.checkIn.toEpochDay(), last - stay.checkIn.toEpochDay())) {
+                continue;
+            }
+            String impactLevel = event.path("impact_level").asText();
+            impacts.add(first, last, event.path("expected_visitors").asInt(), impactLevel,
+                    model.eventImpact(event.path("expected_visitors").asInt(),
+                            event.path("distance_km").asDouble(PreparedAnalysis.DEFAULT_DISTANCE_KM), impactLevel));
+        }
+        Map<LocalDate, Double> byDay = new LinkedHashMap<>();
+        for (LocalDate day : days) {
+            byDay.put(day, impacts.impactOn((int) (day.toEpochDay() - stay.checkIn.toEpochDay())));
+        }
+        return byDay;
+    }
+
+    private static boolean runsOnAny(boolean[] days, long from, long to) {
+        for (long day = Math.max(0, from), last = Math.min(days.length - 1L, to); day <= last; day++) {
+            if (days[(int) day]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private static final class WatchedStay {
+        final String key;
+        final String city;
+        final String countryCode;
+        final LocalDate checkIn;
+        final LocalDate checkOut;
+        final int radiusKm;
+        final List<Subscription> subscribers = new CopyOnWriteArrayList<>();
+        volatile JsonNode analysis;
+        DayHistogram histogram;
+
+        WatchedStay(String key, String city, String countryCode, LocalDate checkIn, LocalDate checkOut, int radiusKm) {
+            this.key = key;
+            this.city = city;
+            this.countryCode = countryCode;
+            this.checkIn = checkIn;
+            this.checkOut = checkOut;
+            this.radiusKm = radiusKm;
+        }
+
+        List<LocalDate> days() {
+            List<LocalDate> days = new ArrayList<>();
+            for (LocalDate day = checkIn; !day.isAfter(checkOut); day = day.plusDays(1)) {
+                days.add(day);
+            }
+            return days;
+        }
+    }
+
+    // Per day of the stay window: events running, their visitors and an order-independent digest of
+    // what they are (id, attendance, level, distance), so a swapped or moved event changes the day too
+    private static final class DayHistogram {
+        final DemandAggregator counts;
+        final long[] digests;
+
+        DayHistogram(LocalDate checkIn, LocalDate checkOut, JsonNode events) {
+            counts = new DemandAggregator(checkIn, checkOut);
+            digests = new long[counts.days()];
+            for (JsonNode event : events) {
+                long first = LocalDate.parse(event.path("date").asText()).toEpochDay();
+                long last = event.path("end_date").isTextual()
+                        ? LocalDate.parse(event.path("end_date").asText()).toEpochDay()
+                        : first;
+                int visitors = event.path("expected_visitors").asInt();
+                String impactLevel = event.path("impact_level").asText();
+                counts.add(first, last, visitors, impactLevel, 0.0);
+                long digest = mix((event.path("id").asText() + ':' + visitors + ':' + impactLevel + ':'
+                        + event.path("distance_km").asDouble()).hashCode());
+                int from = (int) Math.max(0, first - checkIn.toEpochDay());
+                int to = (int) Math.min(digests.length - 1L, last - checkIn.toEpochDay());
+                for (int day = from; day <= to; day++) {
+                    digests[day] += digest;
+                }
+            }
+        }
+
+        List<LocalDate> changedDays(DayHistogram previous) {
+            List<LocalDate> changed = new ArrayList<>();
+            for (int day = 0; day < digests.length; day++) {
+                if (counts.eventsOn(day) != previous.counts.eventsOn(day)
+                        || counts.visitorsOn(day) != previous.counts.visitorsOn(day)
+                        || digests[day] != previous.digests[day]) {
+                    changed.add(counts.day(day));
+                }
+            }
+            return changed;
+        }
+
+        private static long mix(long h) {
+            h *= 0x9E3779B97F4A7C15L;
+            return h ^ (h >>> 29);
+        }
+    }
+
+    private static final class Subscription {
+        final String id;
+        final WatchedStay stay;
+        final List<String> hotels;
+        final String mode;
+        final LinkedBlockingDeque<SurgeUpdate> pending;
+        final AtomicLong sequence = new AtomicLong();
+        final AtomicLong missed = new AtomicLong();
+        double lastModelSurge;
+
+        Subscription(String id, WatchedStay stay, List<String> hotels, String mode, int queueSize) {
+            this.id = id;
+            this.stay = stay;
+            this.hotels = hotels;
+            this.mode = mode;
+            this.pending = new LinkedBlockingDeque<>(queueSize);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.event.tracker.service;
+
+import com.event.tracker.model.SurgeInterval;
+import com.event.tracker.utils.AnalysisFingerprint;
+import com.event.tracker.utils.LruCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Monte Carlo spread of the model surge over the inputs the analysis only estimates: venue
+// capacity when Ticketmaster did not report it (log-normal around the type default), attendance
+// (normal around TicketmasterService.ASSUMED_ATTENDANCE) and event distance (normal around the
+// reported distance). Seasonality, calendar and demand components are taken as known.
+// Each analysis is prepared once (PreparedAnalysis); samples are then drawn on a fork/join pool,
+// each leaf with its own SplittableRandom split from a seed derived from the analysis, so the same
+// analysis always yields the same interval. The sampling loop allocates nothing.
+@Service
+public class SurgeUncertaintyEngine {
+
+    private static final int QUANTILE_STEPS = 20;
+
+    private final SurgeCalculationEngine surgeEngine;
+    private final boolean enabled;
+    private final int samples;
+    private final double level;
+    private final double attendanceStdDev;
+    private final double capacitySigma;
+    private final double distanceStdDevKm;
+    private final int splitThreshold;
+    private final ForkJoinPool pool;
+    private final LruCache<AnalysisFingerprint, SurgeInterval> intervalCache;
+
+    public SurgeUncertaintyEngine(SurgeCalculationEngine surgeEngine,
+                                  @Value("${surge.uncertainty.enabled:true}") boolean enabled,
+                                  @Value("${surge.uncertainty.samples:1000}") int samples,
+                                  @Value("${surge.uncertainty.level:0.9}") double level,
+                                  @Value("${surge.uncertainty.attendance-std-dev:0.08}") double attendanceStdDev,
+                                  @Value("${surge.uncertainty.capacity-sigma:0.4}") double capacitySigma,
+                                  @Value("${surge.uncertainty.distance-std-dev-km:2.0}") double distanceStdDevKm,
+                                  @Value("${surge.uncertainty.parallelism:0}") int parallelism,
+                                  @Value("${surge.uncertainty.split-threshold:500}") int splitThreshold,
+                                  @Value("${surge.cache.max-entries:1024}") int cacheMaxEntries) {
+        this.surgeEngine = surgeEngine;
+        this.enabled = enabled;
+        this.samples = Math.max(QUANTILE_STEPS + 1, samples);
+        this.level = level;
+        this.attendanceStdDev = attendanceStdDev;
+        this.capacitySigma = capacitySigma;
+        this.distanceStdDevKm = distanceStdDevKm;
+        this.splitThreshold = Math.max(1, splitThreshold);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.intervalCache = new LruCache<>(cacheMaxEntries);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Like the components, the interval depends only on the analysis and the model
+    public SurgeInterval estimate(JsonNode analysisParams, SurgeModel model) {
+        AnalysisFingerprint key = AnalysisFingerprint.of(model.getKey(), analysisParams);
+        SurgeInterval interval = intervalCache.getIfPresent(key);
+        if (interval == null) {
+            interval = simulate(analysisParams, model, key.hash());
+            intervalCache.put(key.detach(), interval);
+        }
+        return interval;
+    }
+
+    private SurgeInterval simulate(JsonNode analysisParams, SurgeModel model, long seed) {
+        PreparedAnalysis p = surgeEngine.prepare(analysisParams, model);
+        double[] modelSurge = new double[samples];
+        pool.invoke(new SampleRange(p, modelSurge, new SplittableRandom(seed), 0, samples));
+        return summarize(modelSurge);
+    }
+
+    // One draw of every uncertain event input, scored like SurgeCalculationEngine scores the analysis
+    private double sample(PreparedAnalysis p, SplittableRandom random) {
+        double[] impacts = p.eventImpactBuffer();
+        for (int i = 0; i < p.eventCount(); i++) {
+            impacts[i] = sampleEventImpact(p, i, random);
+        }
+        return p.modelSurge(impacts);
+    }
+
+    private double sampleEventImpact(PreparedAnalysis p, int event, SplittableRandom random) {
+        double attendance = TicketmasterService.ASSUMED_ATTENDANCE + attendanceStdDev * random.nextGaussian();
+        double scale = Math.min(1.0, Math.max(0.0, attendance)) / TicketmasterService.ASSUMED_ATTENDANCE;
+        if (p.capacityEstimated[event]) {
+            // Mean-preserving log-normal factor on the guessed capacity
+            scale *= Math.exp(capacitySigma * random.nextGaussian() - capacitySigma * capacitySigma / 2);
+        }
+        double distance = Math.abs(p.distanceKm[event] + distanceStdDevKm * random.nextGaussian());
+        return p.model.eventImpact((int) (p.visitors[event] * scale), distance, p.impactLevel[event]);
+    }
+
+    private SurgeInterval summarize(double[] modelSurge) {
+        Arrays.sort(modelSurge);
+        double sum = 0.0;
+        double sumSquares = 0.0;
+        for (double value : modelSurge) {
+            sum += value;
+            sumSquares += value * value;
+        }
+        int n = modelSurge.length;
+        double mean = sum / n;
+        double[] quantiles = new double[QUANTILE_STEPS + 1];
+        for (int q = 0; q <= QUANTILE_STEPS; q++) {
+            quantiles[q] = quantile(modelSurge, (double) q / QUANTILE_STEPS);
+        }
+        double tail = (1 - level) / 2;
+        return SurgeInterval.builder()
+                .level(level)
+                .low(quantile(modelSurge, tail))
+                .median(quantile(modelSurge, 0.5))
+                .high(quantile(modelSurge, 1 - tail))
+                .mean(mean)
+                .stdDev(Math.sqrt(Math.max(0.0, sumSquares / n - mean * mean)))
+                .samples(n)
+                .quantiles(quantiles)
+                .build();
+    }
+
+    // Linear interpolation between order statistics of a sorted sample
+    private static double quantile(double[] sorted, double p) {
+        double position = p * (sorted.length - 1);
+        int below = (int) Math.floor(position);
+        int above = Math.min(sorted.length - 1, below + 1);
+        return sorted[below] + (position - below) * (sorted[above] - sorted[below]);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // Splits before forking so every leaf gets a reproducible, independent stream
+    private final class SampleRange extends RecursiveAction {
+        private final PreparedAnalysis prepared;
+        private final double[] out;
+        private final SplittableRandom random;
+        private final int from;
+        private final int to;
+
+        SampleRange(PreparedAnalysis prepared, double[] out, SplittableRandom random, int from, int to) {
+            this.prepared = prepared;
+            this.out = out;
+            this.random = random;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= splitThreshold) {
+                for (int s = from; s < to; s++) {
+                    out[s] = sample(prepared, random);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            SplittableRandom right = random.split();
+            invokeAll(new SampleRange(prepared, out, random, from, mid),
+                    new SampleRange(prepared, out, right, mid, to));
+        }
+    }
+}
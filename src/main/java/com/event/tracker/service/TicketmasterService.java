@@ -1,61 +1,346 @@
 package com.event.tracker.service;
 
 import com.event.tracker.model.Event;
+import com.event.tracker.upstream.UpstreamCache;
+import com.event.tracker.upstream.UpstreamRecordings;
+import com.event.tracker.utils.EventClusterer;
+import com.event.tracker.utils.JsonHelper;
+import com.event.tracker.utils.RateLimitExceededException;
+import com.event.tracker.utils.TokenBucketLimiter;
+import com.event.tracker.utils.TokenBucketLimiter.Priority;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
-public class TicketmasterService {
+public class TicketmasterService implements EventSource {
+
+    // Ticketmaster reports quota state on every response
+    private static final String QUOTA_AVAILABLE_HEADER = "Rate-Limit-Available";
+    private static final String QUOTA_RESET_HEADER = "Rate-Limit-Reset";
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+    private static final int MAX_THROTTLED_ATTEMPTS = 3;
+    private static final double KM_PER_MILE = 1.609344;
+
+    // The only parts of an event and its venue that parseEvent reads
+    private static final Set<String> EVENT_FIELDS = Set.of("id", "name", "classifications", "dates", "distance", "units");
+    private static final Set<String> VENUE_FIELDS = Set.of("name", "capacity", "location");
+
+    // Share of capacity assumed to attend; the uncertainty engine samples around it
+    public static final double ASSUMED_ATTENDANCE = 0.85;
 
     private final WebClient webClient;
     private final String apiKey;
+    private final UpstreamCache cache;
+    private final EventQueryPlanner queryPlanner;
+    private final double permitsPerSecond;
+    private final double burst;
+    private final long dailyQuota;
+    private final Duration maxWait;
+    private final int queueSize;
+    private final Duration timeout;
+
+    // One bucket per API key: the quota belongs to the key, not to this service instance
+    private final Map<String, TokenBucketLimiter> limiters = new ConcurrentHashMap<>();
 
     public TicketmasterService(
             @Qualifier("ticketmasterWebClient") WebClient webClient,
-            @Value("${ticketmaster.api.key}") String apiKey) {
+            @Value("${ticketmaster.api.key}") String apiKey,
+            UpstreamCache cache,
+            EventQueryPlanner queryPlanner,
+            @Value("${ticketmaster.rate.per-second:5}") double permitsPerSecond,
+            @Value("${ticketmaster.rate.burst:5}") double burst,
+            @Value("${ticketmaster.rate.daily-quota:5000}") long dailyQuota,
+            @Value("${ticketmaster.rate.max-wait-ms:5000}") long maxWaitMs,
+            @Value("${ticketmaster.rate.queue-size:200}") int queueSize,
+            @Value("${ticketmaster.timeout-ms:5500}") long timeoutMs) {
         this.webClient = webClient;
         this.apiKey = apiKey;
+        this.cache = cache;
+        this.queryPlanner = queryPlanner;
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.dailyQuota = dailyQuota;
+        this.maxWait = Duration.ofMillis(maxWaitMs);
+        this.queueSize = queueSize;
+        this.timeout = Duration.ofMillis(timeoutMs);
+    }
+
+    @Override
+    public String getName() {
+        return UpstreamRecordings.TICKETMASTER;
+    }
+
+    @Override
+    public Duration getTimeout() {
+        return timeout;
     }
 
     public List<Event> fetchEvents(String city, String countryCode,
                                    LocalDate startDate, LocalDate endDate,
                                    int radiusKm) {
+        return fetchEvents(city, countryCode, startDate, endDate, radiusKm, Priority.INTERACTIVE);
+    }
+
+    // Throws RateLimitExceededException when no permit is available within the configured wait, and
+    // IllegalStateException when the request fails, so callers report the source as missing or stale
+    // instead of treating the failure as "no events".
+    // Background calls skip the cache lookup so refreshes see upstream changes, and re-warm it.
+    @Override
+    public List<Event> fetchEvents(String city, String countryCode,
+                                   LocalDate startDate, LocalDate endDate,
+                                   int radiusKm, Priority priority) {
+        String key = cacheKey(city, countryCode, startDate, endDate, radiusKm);
+        // The adaptive radius is only worked out on a miss, so it never changes the key
+        Supplier<String> loader = () -> fetchBody(city, countryCode, startDate, endDate,
+                queryPlanner.radiusKm(city, radiusKm, startDate, endDate), priority);
+        String body = priority == Priority.BACKGROUND
+                ? cache.refresh(UpstreamRecordings.TICKETMASTER, key, loader)
+                : cache.get(UpstreamRecordings.TICKETMASTER, key, loader);
+        return body != null ? EventClusterer.cluster(parseEvents(body)) : List.of();
+    }
+
+    // Last cached body for the query, however old; read from the cache only, never from the API
+    @Override
+    public List<Event> staleEvents(String city, String countryCode,
+                                   LocalDate startDate, LocalDate endDate, int radiusKm) {
+        String body = cache.getStale(UpstreamRecordings.TICKETMASTER,
+                cacheKey(city, countryCode, startDate, endDate, radiusKm));
+        return body != null ? EventClusterer.cluster(parseEvents(body)) : null;
+    }
+
+    private String cacheKey(String city, String countryCode, LocalDate startDate, LocalDate endDate, int radiusKm) {
+        return String.join("|", city.trim().toLowerCase(Locale.ROOT), countryCode.trim().toUpperCase(Locale.ROOT),
+                startDate.toString(), endDate.toString(), String.valueOf(queryPlanner.cappedRadiusKm(radiusKm)),
+                queryPlanner.queryKey());
+    }
+
+    public Map<String, Object> quota() {
+        return limiter().stats();
+    }
+
+    // Projected response body; failed requests throw instead of looking like an empty answer
+    private String fetchBody(String city, String countryCode,
+                             LocalDate startDate, LocalDate endDate,
+                             int radiusKm, Priority priority) {
+        TokenBucketLimiter limiter = limiter();
+        for (int attempt = 1; ; attempt++) {
+            limiter.acquire(priority);
+            try {
+                ResponseEntity<String> response = request(city, countryCode, startDate, endDate, radiusKm);
+                updateQuota(limiter, response.getHeaders());
+                return project(city, radiusKm, startDate, endDate, response.getBody());
+
+            } catch (WebClientResponseException.TooManyRequests e) {
+                Duration retryAfter = retryAfter(e.getHeaders());
+                limiter.pause(retryAfter);
+                log.warn("Ticketmaster throttled request for {} (attempt {}), backing off {} ms",
+                        city, attempt, retryAfter.toMillis());
+                if (attempt >= MAX_THROTTLED_ATTEMPTS) {
+                    throw new RateLimitExceededException("Ticketmaster kept throttling requests", retryAfter);
+                }
+            } catch (Exception e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    // Cancelled by EventSourceAggregator once the caller's deadline passed
+                    log.debug("Ticketmaster request for {} cancelled", city);
+                    throw new IllegalStateException("Ticketmaster request cancelled", e);
+                }
+                log.error("Error fetching events from Ticketmaster", e);
+                // The request URI carries the API key, so only the status or error type is reported
+                throw new IllegalStateException("Ticketmaster request failed: "
+                        + (e instanceof WebClientResponseException response
+                                ? "HTTP " + response.getStatusCode().value()
+                                : e.getClass().getSimpleName()), e);
+            }
+        }
+    }
+
+    private TokenBucketLimiter limiter() {
+        return limiters.computeIfAbsent(apiKey, key ->
+                new TokenBucketLimiter(permitsPerSecond, burst, maxWait, queueSize, dailyQuota));
+    }
+
+    private ResponseEntity<String> request(String city, String countryCode,
+                                           LocalDate startDate, LocalDate endDate,
+                                           int radiusKm) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/events.json")
+                        .queryParam("apikey", apiKey)
+                        .queryParam("city", city)
+                        .queryParam("countryCode", countryCode)
+                        .queryParam("startDateTime", startDate.atStartOfDay().format(
+                                DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "Z")
+                        .queryParam("endDateTime", endDate.atTime(23, 59).format(
+                                DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "Z")
+                        .queryParam("radius", radiusKm)
+                        .queryParam("unit", "km")
+                        .queryParam("size", queryPlanner.getPageSize())
+                        .queryParamIfPresent("classificationName",
+                                Optional.of(queryPlanner.getClassifications()).filter(c -> !c.isEmpty()))
+                        .queryParam("sort", "relevance,desc")
+                        .build())
+                .retrieve()
+                .toEntity(String.class)
+                .block(timeout);
+    }
+
+    private void updateQuota(TokenBucketLimiter limiter, HttpHeaders headers) {
+        String available = headers.getFirst(QUOTA_AVAILABLE_HEADER);
+        if (available == null) {
+            return;
+        }
         try {
-            String response = webClient.get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path("/events.json")
-                            .queryParam("apikey", apiKey)
-                            .queryParam("city", city)
-                            .queryParam("countryCode", countryCode)
-                            .queryParam("startDateTime", startDate.atStartOfDay().format(
-                                    DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "Z")
-                            .queryParam("endDateTime", endDate.atTime(23, 59).format(
-                                    DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "Z")
-                            .queryParam("radius", radiusKm)
-                            .queryParam("unit", "km")
-                            .queryParam("size", 50)
-                            .queryParam("sort", "relevance,desc")
-                            .build())
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            return parseEvents(response);
+            String reset = headers.getFirst(QUOTA_RESET_HEADER);
+            limiter.updateQuota(Long.parseLong(available.trim()), reset != null ? Long.parseLong(reset.trim()) : 0);
+        } catch (NumberFormatException e) {
+            log.debug("Ignoring malformed Ticketmaster quota headers: {}", available);
+        }
+    }
 
-        } catch (Exception e) {
-            log.error("Error fetching events from Ticketmaster", e);
-            return List.of();
+    // Retry-After is delta-seconds; HTTP-date values fall back to the default
+    private Duration retryAfter(HttpHeaders headers) {
+        String value = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (value != null) {
+            try {
+                return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return DEFAULT_RETRY_AFTER;
+    }
+
+    // Keeps only what parseEvent reads and drops events at venues below the minimum capacity. Images,
+    // sales, seat maps, attractions and links, most of each event's bytes, are skipped by the streaming
+    // parser without being materialized, and the cache stores the compact result. The page's
+    // totalElements feeds the adaptive radius.
+    private String project(String city, int radiusKm, LocalDate startDate, LocalDate endDate, String body) {
+        if (body == null) {
+            return null;
+        }
+        ObjectMapper mapper = JsonHelper.getMapper();
+        ObjectNode projected = mapper.createObjectNode();
+        ArrayNode events = mapper.createArrayNode();
+        int listed = 0;
+        try (JsonParser parser = mapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return body;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("page".equals(field)) {
+                    projected.set("page", parser.readValueAsTree());
+                } else if ("_embedded".equals(field) && value == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String embedded = parser.getCurrentName();
+                        if (parser.nextToken() == JsonToken.START_ARRAY && "events".equals(embedded)) {
+                            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                                listed++;
+                                ObjectNode event = projectEvent(parser);
+                                if (meetsMinimumCapacity(event)) {
+                                    events.add(event);
+                                }
+                            }
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not project Ticketmaster response for {}, keeping it whole", city, e);
+            return body;
         }
+        projected.putObject("_embedded").set("events", events);
+        queryPlanner.observe(city, radiusKm, startDate, endDate,
+                projected.path("page").path("totalElements").asLong(listed));
+        String compact = projected.toString();
+        log.debug("Projected Ticketmaster response for {}: {} -> {} chars, {} of {} events kept",
+                city, body.length(), compact.length(), events.size(), listed);
+        return compact;
+    }
+
+    private ObjectNode projectEvent(JsonParser parser) throws IOException {
+        ObjectNode event = JsonHelper.getMapper().createObjectNode();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (EVENT_FIELDS.contains(field)) {
+                event.set(field, parser.readValueAsTree());
+            } else if ("_embedded".equals(field) && value == JsonToken.START_OBJECT) {
+                ObjectNode venue = projectFirstVenue(parser);
+                if (venue != null) {
+                    event.putObject("_embedded").putArray("venues").add(venue);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return event;
+    }
+
+    private ObjectNode projectFirstVenue(JsonParser parser) throws IOException {
+        ObjectNode venue = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            if (parser.nextToken() != JsonToken.START_ARRAY || !"venues".equals(field)) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                if (venue != null) {
+                    parser.skipChildren();
+                    continue;
+                }
+                venue = JsonHelper.getMapper().createObjectNode();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String venueField = parser.getCurrentName();
+                    parser.nextToken();
+                    if (VENUE_FIELDS.contains(venueField)) {
+                        venue.set(venueField, parser.readValueAsTree());
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+        return venue;
+    }
+
+    // Venues without a reported capacity are kept; their size is estimated from the event type
+    private boolean meetsMinimumCapacity(ObjectNode event) {
+        JsonNode capacity = event.path("_embedded").path("venues").path(0).path("capacity");
+        return queryPlanner.getMinVenueCapacity() <= 0 || capacity.isMissingNode()
+                || capacity.asInt() >= queryPlanner.getMinVenueCapacity();
     }
 
     private List<Event> parseEvents(String jsonResponse) {
@@ -106,8 +391,9 @@ public class TicketmasterService {
             String venue = venueNode.path("name").asText("Unknown Venue");
 
             // Estimate capacity and visitors
+            boolean capacityEstimated = venueNode.path("capacity").isMissingNode();
             int capacity = estimateCapacity(type, venueNode);
-            int expectedVisitors = (int) (capacity * 0.85); // Assume 85% attendance
+            int expectedVisitors = (int) (capacity * ASSUMED_ATTENDANCE);
 
             // Calculate impact level
             String impactLevel = calculateImpactLevel(capacity, type);
@@ -120,8 +406,13 @@ public class TicketmasterService {
                     .date(date)
                     .time(time)
                     .capacity(capacity)
+                    .capacityEstimated(capacityEstimated)
                     .expectedVisitors(expectedVisitors)
-                    .distanceKm(0.0) // Will be calculated if geo data available
+                    .distanceKm(distanceKm(eventNode))
+                    .latitude(venueNode.path("location").has("latitude")
+                            ? venueNode.path("location").path("latitude").asDouble() : null)
+                    .longitude(venueNode.path("location").has("longitude")
+                            ? venueNode.path("location").path("longitude").asDouble() : null)
                     .impactLevel(impactLevel)
                     .ticketAvailability("available")
                     .build();
@@ -131,6 +422,17 @@ public class TicketmasterService {
         }
     }
 
+    // Ticketmaster reports the distance from the searched location for radius queries
+    private double distanceKm(JsonNode eventNode) {
+        JsonNode distance = eventNode.path("distance");
+        if (!distance.isNumber()) {
+            return 0.0;
+        }
+        return eventNode.path("units").asText("KILOMETERS").toUpperCase(Locale.ROOT).startsWith("MI")
+                ? distance.asDouble() * KM_PER_MILE
+                : distance.asDouble();
+    }
+
     private int estimateCapacity(String type, JsonNode venueNode) {
         // Try to get actual capacity
         JsonNode capacityNode = venueNode.path("capacity");
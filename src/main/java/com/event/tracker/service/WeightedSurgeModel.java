@@ -0,0 +1,155 @@
+package com.event.tracker.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Builder;
+import lombok.Value;
+
+// Table-driven SurgeModel; every coefficient is resolved when the model is loaded
+@Value
+@Builder(toBuilder = true)
+public class WeightedSurgeModel implements SurgeModel {
+
+    // The original hard-coded engine coefficients
+    public static final WeightedSurgeModel STANDARD = WeightedSurgeModel.builder()
+            .key("standard")
+            .mode("standard")
+            .eventWeight(0.75)
+            .seasonalityWeight(0.10)
+            .calendarWeight(0.05)
+            .demandSupplyWeight(0.10)
+            .eventCap(2.5)
+            .distanceCutoffKm(50.0)
+            .visitorSaturation(10000.0)
+            .criticalMultiplier(1.5)
+            .highMultiplier(1.2)
+            .mediumMultiplier(0.8)
+            .lowMultiplier(0.4)
+            .peakSeasonImpact(0.3)
+            .veryHighTourismImpact(0.4)
+            .highTourismImpact(0.2)
+            .mediumTourismImpact(0.1)
+            .weekendImpact(0.15)
+            .holidayImpact(0.25)
+            .longWeekendImpact(0.35)
+            .weekdayDiscountPercentage(-5.0)
+            .veryHighDemandImpact(0.5)
+            .highDemandImpact(0.3)
+            .mediumDemandImpact(0.1)
+            .peakNightWeight(0.5)
+            .build();
+
+    String key;
+    String mode;
+
+    double eventWeight;
+    double seasonalityWeight;
+    double calendarWeight;
+    double demandSupplyWeight;
+
+    double eventCap;
+    double distanceCutoffKm;
+    double visitorSaturation;
+    double criticalMultiplier;
+    double highMultiplier;
+    double mediumMultiplier;
+    double lowMultiplier;
+
+    double peakSeasonImpact;
+    double veryHighTourismImpact;
+    double highTourismImpact;
+    double mediumTourismImpact;
+
+    double weekendImpact;
+    double holidayImpact;
+    double longWeekendImpact;
+    double weekdayDiscountPercentage;
+
+    double veryHighDemandImpact;
+    double highDemandImpact;
+    double mediumDemandImpact;
+
+    double peakNightWeight;
+
+    @Override
+    public double eventImpact(int expectedVisitors, double distanceKm, String impactLevel) {
+        // Distance decay
+        double distanceFactor = Math.max(0, 1 - (distanceKm / distanceCutoffKm));
+
+        // Visitor impact
+        double visitorFactor = Math.min(1.0, expectedVisitors / visitorSaturation);
+
+        // Impact level multiplier
+        double levelMultiplier = switch (impactLevel) {
+            case "critical" -> criticalMultiplier;
+            case "high" -> highMultiplier;
+            case "medium" -> mediumMultiplier;
+            default -> lowMultiplier;
+        };
+
+        return visitorFactor * distanceFactor * levelMultiplier;
+    }
+
+    @Override
+    public double capEventImpact(double totalEventImpact) {
+        return Math.min(eventCap, totalEventImpact);
+    }
+
+    @Override
+    public double seasonalImpact(boolean isPeakSeason, String tourismLevel) {
+        double baseImpact = isPeakSeason ? peakSeasonImpact : 0.0;
+        double tourismMultiplier = switch (tourismLevel) {
+            case "very_high" -> veryHighTourismImpact;
+            case "high" -> highTourismImpact;
+            case "medium" -> mediumTourismImpact;
+            default -> 0.0;
+        };
+        return baseImpact + tourismMultiplier;
+    }
+
+    @Override
+    public double demandImpact(String demandLevel) {
+        return switch (demandLevel) {
+            case "very_high" -> veryHighDemandImpact;
+            case "high" -> highDemandImpact;
+            case "medium" -> mediumDemandImpact;
+            default -> 0.0;
+        };
+    }
+
+    // Copies this model, overriding any coefficient present in the JSON config node
+    public WeightedSurgeModel with(String key, String mode, JsonNode config) {
+        JsonNode weights = config.path("weights");
+        JsonNode levels = config.path("level_multipliers");
+        JsonNode tourism = config.path("tourism_impacts");
+        JsonNode calendar = config.path("calendar_impacts");
+        JsonNode demand = config.path("demand_impacts");
+
+        return toBuilder()
+                .key(key)
+                .mode(mode)
+                .eventWeight(weights.path("events").asDouble(eventWeight))
+                .seasonalityWeight(weights.path("seasonality").asDouble(seasonalityWeight))
+                .calendarWeight(weights.path("calendar").asDouble(calendarWeight))
+                .demandSupplyWeight(weights.path("demand_supply").asDouble(demandSupplyWeight))
+                .eventCap(config.path("event_cap").asDouble(eventCap))
+                .distanceCutoffKm(config.path("distance_cutoff_km").asDouble(distanceCutoffKm))
+                .visitorSaturation(config.path("visitor_saturation").asDouble(visitorSaturation))
+                .criticalMultiplier(levels.path("critical").asDouble(criticalMultiplier))
+                .highMultiplier(levels.path("high").asDouble(highMultiplier))
+                .mediumMultiplier(levels.path("medium").asDouble(mediumMultiplier))
+                .lowMultiplier(levels.path("low").asDouble(lowMultiplier))
+                .peakSeasonImpact(config.path("peak_season_impact").asDouble(peakSeasonImpact))
+                .veryHighTourismImpact(tourism.path("very_high").asDouble(veryHighTourismImpact))
+                .highTourismImpact(tourism.path("high").asDouble(highTourismImpact))
+                .mediumTourismImpact(tourism.path("medium").asDouble(mediumTourismImpact))
+                .weekendImpact(calendar.path("weekend").asDouble(weekendImpact))
+                .holidayImpact(calendar.path("holiday").asDouble(holidayImpact))
+                .longWeekendImpact(calendar.path("long_weekend").asDouble(longWeekendImpact))
+                .weekdayDiscountPercentage(calendar.path("weekday_discount_pct").asDouble(weekdayDiscountPercentage))
+                .veryHighDemandImpact(demand.path("very_high").asDouble(veryHighDemandImpact))
+                .highDemandImpact(demand.path("high").asDouble(highDemandImpact))
+                .mediumDemandImpact(demand.path("medium").asDouble(mediumDemandImpact))
+                .peakNightWeight(config.path("peak_night_weight").asDouble(peakNightWeight))
+                .build();
+    }
+}
@@ -5,28 +5,48 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.event.tracker.model.Factor;
+import com.event.tracker.model.Recommendation;
 import com.event.tracker.model.SurgeCalculation;
+import com.event.tracker.model.SurgeInterval;
 import com.event.tracker.service.BaselinePriceService;
+import com.event.tracker.service.ShadowEvaluator;
+import com.event.tracker.service.SurgeHistoryStore;
 import com.event.tracker.service.SurgeCalculationEngine;
+import com.event.tracker.service.SurgeModel;
+import com.event.tracker.service.SurgeUncertaintyEngine;
+import com.event.tracker.tracing.PipelineTracer;
+import com.event.tracker.tracing.Trace;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.ai.tool.annotation.ToolParam;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
-import java.util.Map;
+import java.time.LocalDate;
 
 @Service
 public class CalculateFinalSurgeTool {
 
     private final SurgeCalculationEngine surgeEngine;
     private final BaselinePriceService baselinePriceService;
+    private final ShadowEvaluator shadowEvaluator;
+    private final SurgeHistoryStore historyStore;
+    private final SurgeUncertaintyEngine uncertaintyEngine;
+    private final PipelineTracer tracer;
     private final ObjectMapper objectMapper;
 
     public CalculateFinalSurgeTool(SurgeCalculationEngine surgeEngine,
-                                   BaselinePriceService baselinePriceService) {
+                                   BaselinePriceService baselinePriceService,
+                                   ShadowEvaluator shadowEvaluator,
+                                   SurgeHistoryStore historyStore,
+                                   SurgeUncertaintyEngine uncertaintyEngine,
+                                   PipelineTracer tracer) {
         this.surgeEngine = surgeEngine;
         this.baselinePriceService = baselinePriceService;
+        this.shadowEvaluator = shadowEvaluator;
+        this.historyStore = historyStore;
+        this.uncertaintyEngine = uncertaintyEngine;
+        this.tracer = tracer;
         this.objectMapper = new ObjectMapper();
     }
     @Tool(
@@ -50,10 +70,14 @@ public class CalculateFinalSurgeTool {
             @ToolParam(description = "Output from get_analysis_parameters") JsonNode analysisParameters,
             @ToolParam(description = "Trivago hotel prices, must include average_price") JsonNode currentMarketData,
             @ToolParam(description = "Optional baseline price for comparison", required = false) Double baselinePrice,
-            @ToolParam(description = "Calculation sensitivity mode: standard/conservative/aggressive", required = false) String calculationMode
+            @ToolParam(description = "Calculation sensitivity mode: standard/conservative/aggressive", required = false) String calculationMode,
+            @ToolParam(description = "Include the explanation sentence in insights (default true)", required = false) Boolean includeExplanation,
+            @ToolParam(description = "Include the Monte Carlo model_surge interval (default true)", required = false) Boolean includeUncertainty
     ) {
+        Trace trace = tracer.start("calculate_final_surge");
         try {
             // Validate workflow
+            trace.stage("validation");
             if (!analysisParameters.has("metadata") || !analysisParameters.get("metadata").has("data_sources")) {
                 return createWorkflowError();
             }
@@ -62,6 +86,7 @@ public class CalculateFinalSurgeTool {
             }
 
             // Determine baseline
+            trace.stage("baseline");
             double baseline = (baselinePrice != null) ? baselinePrice :
                     baselinePriceService.estimate(
                             analysisParameters.get("city").asText(),
@@ -72,20 +97,55 @@ public class CalculateFinalSurgeTool {
             String mode = (calculationMode != null) ? calculationMode : "standard";
 
             // Compute surge
+            trace.stage("engine");
+            SurgeModel model = surgeEngine.resolveModel(analysisParameters.path("city").asText(null), mode);
             SurgeCalculation result = surgeEngine.calculate(
                     analysisParameters,
                     currentAvgPrice,
                     baseline,
-                    mode
+                    mode,
+                    model,
+                    includeExplanation == null || includeExplanation
+            );
+            if (uncertaintyEngine.isEnabled() && (includeUncertainty == null || includeUncertainty)) {
+                trace.stage("uncertainty");
+                SurgeInterval interval = uncertaintyEngine.estimate(analysisParameters, model);
+                // A partial analysis knows less than the simulation assumes
+                result.setModelSurgeInterval(result.getDataCompleteness() < 1.0
+                        ? interval.widened(1.0 / result.getDataCompleteness())
+                        : interval);
+            }
+
+            // Score the same request with the candidate model in the background
+            trace.stage("record");
+            shadowEvaluator.maybeEvaluate(analysisParameters, currentAvgPrice, baseline, result);
+
+            historyStore.record(
+                    analysisParameters.get("city").asText(),
+                    LocalDate.parse(analysisParameters.get("stay_period").get("check_in").asText()),
+                    result
+            );
+
+            // Learn from the observed market price once it has been scored against the current baseline
+            baselinePriceService.record(
+                    analysisParameters.get("city").asText(),
+                    analysisParameters.get("stay_period"),
+                    currentAvgPrice
             );
 
+            trace.stage("serialization");
+            trace.attribute("city", analysisParameters.get("city").asText());
+            trace.attribute("model", result.getModelKey());
             return buildSurgeResponse(result, baseline, currentAvgPrice, currentMarketData);
 
         } catch (Exception e) {
+            trace.attribute("error", String.valueOf(e.getMessage()));
             ObjectNode error = objectMapper.createObjectNode();
             error.put("error", "EXECUTION_ERROR");
             error.put("message", e.getMessage());
             return error;
+        } finally {
+            trace.end();
         }
     }
 
@@ -148,19 +208,42 @@ public class CalculateFinalSurgeTool {
         ObjectNode insights = objectMapper.createObjectNode();
         insights.put("primary_driver", calc.getPrimaryDriver());
         insights.put("confidence_level", calc.getConfidenceLevel());
+        if (calc.getDataCompleteness() < 1.0) {
+            insights.put("data_completeness", calc.getDataCompleteness());
+        }
         insights.put("is_surge_justified", calc.isSurgeJustified());
-        insights.put("explanation", calc.getExplanation());
+        if (calc.getExplanation() != null) {
+            insights.put("explanation", calc.getExplanation());
+        }
+        SurgeInterval interval = calc.getModelSurgeInterval();
+        if (interval != null) {
+            ObjectNode intervalNode = objectMapper.createObjectNode();
+            intervalNode.put("level", interval.getLevel());
+            intervalNode.put("low", interval.getLow());
+            intervalNode.put("median", interval.getMedian());
+            intervalNode.put("high", interval.getHigh());
+            intervalNode.put("mean", interval.getMean());
+            intervalNode.put("std_dev", interval.getStdDev());
+            intervalNode.put("samples", interval.getSamples());
+            insights.set("model_surge_interval", intervalNode);
+            // Where the observed surge falls among the simulated model surges (50 = right in the middle)
+            insights.put("actual_surge_percentile", interval.cumulativeProbability(calc.getSurgePercentage()) * 100);
+        }
         response.set("insights", insights);
 
         // Recommendations
         ArrayNode recommendations = objectMapper.createArrayNode();
-        for (Map<String, Object> rec : calc.getRecommendations()) {
+        for (Recommendation rec : calc.getRecommendations()) {
             ObjectNode recNode = objectMapper.createObjectNode();
-            rec.forEach((k, v) -> {
-                if (v instanceof String) recNode.put(k, (String) v);
-                else if (v instanceof Number) recNode.put(k, ((Number) v).doubleValue());
-                else if (v instanceof Boolean) recNode.put(k, (Boolean) v);
-            });
+            recNode.put("type", rec.getType());
+            recNode.put("suggestion", rec.getSuggestion());
+            Double saving = rec.potentialSaving(calc.getSurgePercentage());
+            if (saving != null) {
+                recNode.put("potential_saving", saving);
+            }
+            if (rec.getUrgency() != null) {
+                recNode.put("urgency", rec.getUrgency());
+            }
             recommendations.add(recNode);
         }
         response.set("recommendations", recommendations);
@@ -169,7 +252,9 @@ public class CalculateFinalSurgeTool {
         ObjectNode metadata = objectMapper.createObjectNode();
         metadata.put("algorithm_version", "1.0");
         metadata.put("calculation_mode", calc.getMode());
+        metadata.put("surge_model", calc.getModelKey());
         metadata.put("timestamp", Instant.now().toString());
+        metadata.set("component_cache", objectMapper.valueToTree(surgeEngine.cacheStats()));
         response.set("calculation_metadata", metadata);
 
         return response;
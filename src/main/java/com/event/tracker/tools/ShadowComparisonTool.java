@@ -0,0 +1,58 @@
+package com.event.tracker.tools;
+
+import com.event.tracker.model.ShadowSample;
+import com.event.tracker.service.ShadowEvaluator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ShadowComparisonTool {
+
+    private final ShadowEvaluator shadowEvaluator;
+    private final ObjectMapper objectMapper;
+
+    public ShadowComparisonTool(ShadowEvaluator shadowEvaluator) {
+        this.shadowEvaluator = shadowEvaluator;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Tool(
+            name = "get_shadow_model_comparison",
+            description = """
+            [OPERATIONS]
+
+            Reports how the shadow (candidate) surge model diverges from the live model
+            on sampled calculate_final_surge traffic: mean/RMS/max model surge deltas,
+            recent delta percentiles, primary driver change rate and the latest samples.
+            """
+    )
+    public JsonNode getShadowModelComparison(
+            @ToolParam(description = "Number of recent samples to include (default 10)", required = false) Integer recent
+    ) {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.set("stats", objectMapper.valueToTree(shadowEvaluator.stats()));
+
+        ArrayNode samples = objectMapper.createArrayNode();
+        for (ShadowSample sample : shadowEvaluator.recentSamples(recent != null ? recent : 10)) {
+            ObjectNode sampleNode = objectMapper.createObjectNode();
+            sampleNode.put("timestamp", sample.getTimestamp().toString());
+            sampleNode.put("city", sample.getCity());
+            sampleNode.put("primary_model", sample.getPrimaryModel());
+            sampleNode.put("candidate_model", sample.getCandidateModel());
+            sampleNode.put("primary_model_surge", sample.getPrimaryModelSurge());
+            sampleNode.put("candidate_model_surge", sample.getCandidateModelSurge());
+            sampleNode.put("delta", sample.getDelta());
+            sampleNode.put("primary_confidence", sample.getPrimaryConfidence());
+            sampleNode.put("candidate_confidence", sample.getCandidateConfidence());
+            sampleNode.put("primary_driver_changed", sample.isPrimaryDriverChanged());
+            samples.add(sampleNode);
+        }
+        response.set("recent_samples", samples);
+        return response;
+    }
+}
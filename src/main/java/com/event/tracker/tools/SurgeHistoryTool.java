@@ -0,0 +1,127 @@
+package com.event.tracker.tools;
+
+import com.event.tracker.model.SurgeHistoryPoint;
+import com.event.tracker.model.SurgeRollup;
+import com.event.tracker.service.SurgeHistoryStore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class SurgeHistoryTool {
+
+    private static final Set<String> RESOLUTIONS = Set.of("raw", "hourly", "daily");
+
+    private final SurgeHistoryStore historyStore;
+    private final ObjectMapper objectMapper;
+
+    public SurgeHistoryTool(SurgeHistoryStore historyStore) {
+        this.historyStore = historyStore;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Tool(
+            name = "get_surge_history",
+            description = """
+            [HOTEL SURGE TRENDS]
+
+            Returns how calculated surges for a city evolved over time, from the history
+            recorded by calculate_final_surge. One series per stay (check-in) date.
+
+            RESOLUTION:
+            - raw: every recorded calculation
+            - hourly / daily: count, min, max and average surge per bucket
+            """
+    )
+    public JsonNode getSurgeHistory(
+            @ToolParam(description = "City name (e.g., Berlin, New York)") String city,
+            @ToolParam(description = "Stay check-in date (YYYY-MM-DD); all stay dates when omitted", required = false) String stayDate,
+            @ToolParam(description = "Range start, ISO instant or YYYY-MM-DD (default 7 days ago)", required = false) String from,
+            @ToolParam(description = "Range end, ISO instant or YYYY-MM-DD (default now)", required = false) String to,
+            @ToolParam(description = "raw/hourly/daily (default hourly)", required = false) String resolution
+    ) {
+        try {
+            Instant end = to != null ? parseInstant(to) : Instant.now();
+            Instant start = from != null ? parseInstant(from) : end.minus(7, ChronoUnit.DAYS);
+            LocalDate stay = stayDate != null ? LocalDate.parse(stayDate) : null;
+            String res = resolution != null ? resolution.trim().toLowerCase(Locale.ROOT) : "hourly";
+            if (!RESOLUTIONS.contains(res)) {
+                ObjectNode error = objectMapper.createObjectNode();
+                error.put("error", "INVALID_RESOLUTION");
+                error.put("message", "resolution must be one of raw, hourly, daily (got '" + resolution + "')");
+                return error;
+            }
+
+            ObjectNode response = objectMapper.createObjectNode();
+            response.put("city", city);
+            response.put("from", start.toString());
+            response.put("to", end.toString());
+            response.put("resolution", res);
+
+            ObjectNode seriesNode = objectMapper.createObjectNode();
+            if ("raw".equals(res)) {
+                for (Map.Entry<String, List<SurgeHistoryPoint>> entry :
+                        historyStore.queryPoints(city, stay, start, end).entrySet()) {
+                    ArrayNode points = objectMapper.createArrayNode();
+                    for (SurgeHistoryPoint point : entry.getValue()) {
+                        ObjectNode pointNode = objectMapper.createObjectNode();
+                        pointNode.put("timestamp", point.getTimestamp().toString());
+                        pointNode.put("surge_percentage", point.getSurgePercentage());
+                        pointNode.put("model_surge", point.getModelSurge());
+                        pointNode.put("surge_category", point.getSurgeCategory());
+                        pointNode.put("primary_driver", point.getPrimaryDriver());
+                        points.add(pointNode);
+                    }
+                    seriesNode.set(entry.getKey(), points);
+                }
+            } else {
+                for (Map.Entry<String, List<SurgeRollup>> entry :
+                        historyStore.queryRollups(city, stay, start, end, "daily".equals(res)).entrySet()) {
+                    ArrayNode buckets = objectMapper.createArrayNode();
+                    for (SurgeRollup rollup : entry.getValue()) {
+                        ObjectNode bucketNode = objectMapper.createObjectNode();
+                        bucketNode.put("bucket_start", rollup.getBucketStart().toString());
+                        bucketNode.put("count", rollup.getCount());
+                        bucketNode.put("min_surge_percentage", rollup.getMinSurgePercentage());
+                        bucketNode.put("max_surge_percentage", rollup.getMaxSurgePercentage());
+                        bucketNode.put("avg_surge_percentage", rollup.getAvgSurgePercentage());
+                        bucketNode.put("min_model_surge", rollup.getMinModelSurge());
+                        bucketNode.put("max_model_surge", rollup.getMaxModelSurge());
+                        bucketNode.put("avg_model_surge", rollup.getAvgModelSurge());
+                        bucketNode.put("last_surge_category", rollup.getLastSurgeCategory());
+                        bucketNode.put("last_primary_driver", rollup.getLastPrimaryDriver());
+                        buckets.add(bucketNode);
+                    }
+                    seriesNode.set(entry.getKey(), buckets);
+                }
+            }
+            response.set("series", seriesNode);
+            return response;
+
+        } catch (Exception e) {
+            ObjectNode error = objectMapper.createObjectNode();
+            error.put("error", "EXECUTION_ERROR");
+            error.put("message", e.getMessage());
+            return error;
+        }
+    }
+
+    private Instant parseInstant(String value) {
+        return value.length() == 10
+                ? LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant()
+                : Instant.parse(value);
+    }
+}
@@ -0,0 +1,147 @@
+package com.event.tracker.tools;
+
+import com.event.tracker.model.SurgeUpdate;
+import com.event.tracker.service.SurgeSubscriptionService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Service
+public class SurgeSubscriptionTool {
+
+    private final SurgeSubscriptionService subscriptionService;
+    private final ObjectMapper objectMapper;
+
+    public SurgeSubscriptionTool(SurgeSubscriptionService subscriptionService) {
+        this.subscriptionService = subscriptionService;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Tool(
+            name = "subscribe_surge_updates",
+            description = """
+            [HOTEL SURGE MONITORING]
+
+            Registers a standing watch on a city and stay period instead of polling
+            get_analysis_parameters. The server keeps the analysis resident, refreshes it
+            periodically and records a delta whenever events, holidays or demand change.
+
+            OUTPUTS: subscription_id plus the initial analysis_parameters snapshot
+            NEXT STEP: poll_surge_updates with the subscription_id
+            """
+    )
+    public JsonNode subscribe(
+            @ToolParam(description = "City name (e.g., Berlin, New York)") String city,
+            @ToolParam(description = "ISO country code (e.g., DE, US)") String countryCode,
+            @ToolParam(description = "Check-in date (YYYY-MM-DD)") String checkInDate,
+            @ToolParam(description = "Check-out date (YYYY-MM-DD)") String checkOutDate,
+            @ToolParam(description = "Search radius in km", required = false) Integer searchRadiusKm,
+            @ToolParam(description = "Hotel names or ids to tag updates with", required = false) List<String> hotels,
+            @ToolParam(description = "Calculation mode: standard/conservative/aggressive", required = false) String calculationMode
+    ) {
+        try {
+            SurgeUpdate snapshot = subscriptionService.subscribe(city, countryCode,
+                    LocalDate.parse(checkInDate), LocalDate.parse(checkOutDate),
+                    searchRadiusKm != null ? searchRadiusKm : 30, hotels, calculationMode);
+            return toJson(snapshot);
+        } catch (Exception e) {
+            return error(e);
+        }
+    }
+
+    @Tool(
+            name = "poll_surge_updates",
+            description = """
+            [HOTEL SURGE MONITORING]
+
+            Returns the surge deltas recorded for a subscription since the last poll,
+            waiting up to wait_seconds for the first one. Each delta lists the changed days
+            (changed_days), their event impact (day_event_impacts), and the previous and new
+            model surge.
+            """
+    )
+    public JsonNode poll(
+            @ToolParam(description = "Subscription id from subscribe_surge_updates") String subscriptionId,
+            @ToolParam(description = "Seconds to wait for an update (default 0, max 60)", required = false) Integer waitSeconds,
+            @ToolParam(description = "Include the current analysis_parameters", required = false) Boolean includeAnalysis
+    ) {
+        try {
+            int wait = waitSeconds != null ? Math.max(0, Math.min(60, waitSeconds)) : 0;
+            List<SurgeUpdate> updates = subscriptionService.poll(subscriptionId, 100, wait);
+
+            ObjectNode response = objectMapper.createObjectNode();
+            response.put("subscription_id", subscriptionId);
+            response.put("missed_updates", subscriptionService.missedUpdates(subscriptionId));
+            ArrayNode updatesArray = objectMapper.createArrayNode();
+            for (SurgeUpdate update : updates) {
+                updatesArray.add(toJson(update));
+            }
+            response.set("updates", updatesArray);
+            if (Boolean.TRUE.equals(includeAnalysis)) {
+                response.set("analysis_parameters", subscriptionService.currentAnalysis(subscriptionId));
+            }
+            return response;
+        } catch (Exception e) {
+            return error(e);
+        }
+    }
+
+    @Tool(
+            name = "unsubscribe_surge_updates",
+            description = "Cancels a subscription created with subscribe_surge_updates."
+    )
+    public JsonNode unsubscribe(
+            @ToolParam(description = "Subscription id from subscribe_surge_updates") String subscriptionId
+    ) {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("subscription_id", subscriptionId);
+        response.put("cancelled", subscriptionService.unsubscribe(subscriptionId));
+        return response;
+    }
+
+    private JsonNode toJson(SurgeUpdate update) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("subscription_id", update.getSubscriptionId());
+        node.put("sequence", update.getSequence());
+        node.put("timestamp", update.getTimestamp().toString());
+        node.put("city", update.getCity());
+        node.put("check_in", update.getCheckIn().toString());
+        node.put("check_out", update.getCheckOut().toString());
+
+        ArrayNode hotels = objectMapper.createArrayNode();
+        update.getHotels().forEach(hotels::add);
+        node.set("hotels", hotels);
+
+        ArrayNode changedDays = objectMapper.createArrayNode();
+        update.getChangedDays().forEach(day -> changedDays.add(day.toString()));
+        node.set("changed_days", changedDays);
+
+        ObjectNode impacts = objectMapper.createObjectNode();
+        update.getDayEventImpacts().forEach((day, impact) -> impacts.put(day.toString(), impact));
+        node.set("day_event_impacts", impacts);
+
+        node.put("calendar_changed", update.isCalendarChanged());
+        node.put("previous_model_surge", update.getPreviousModelSurge());
+        node.put("model_surge", update.getModelSurge());
+        node.put("model_surge_change", update.getModelSurge() - update.getPreviousModelSurge());
+        node.put("primary_driver", update.getPrimaryDriver());
+        if (update.getAnalysisParameters() != null) {
+            node.set("analysis_parameters", update.getAnalysisParameters());
+        }
+        return node;
+    }
+
+    private JsonNode error(Exception e) {
+        ObjectNode error = objectMapper.createObjectNode();
+        error.put("error", "EXECUTION_ERROR");
+        error.put("message", e.getMessage());
+        return error;
+    }
+}
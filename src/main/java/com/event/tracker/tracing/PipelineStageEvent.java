@@ -0,0 +1,27 @@
+package com.event.tracker.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// One stage of a tool call as a JFR event, so a recording started with
+// `jcmd <pid> JFR.start` lines up GC, allocation and lock events with pipeline stages
+@Name("com.event.tracker.PipelineStage")
+@Label("Pipeline Stage")
+@Category({"Event Tracker", "Tools"})
+@Description("Duration of one stage of an MCP tool call")
+@StackTrace(false)
+class PipelineStageEvent extends Event {
+
+    @Label("Tool")
+    String tool;
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Trace Id")
+    String traceId;
+}
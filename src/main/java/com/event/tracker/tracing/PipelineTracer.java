@@ -0,0 +1,199 @@
+package com.event.tracker.tracing;
+
+import com.event.tracker.utils.JsonHelper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Stage timings of tool calls. With tracing enabled every call is timed and a sample of them,
+// plus every call slower than the threshold, is appended to an NDJSON file, one trace per line,
+// by a background writer that drops traces rather than slow a call down. Each line is a single
+// append, so processes sharing the file never interleave. While a JFR recording is running each
+// stage is also emitted as a PipelineStageEvent. With both off, start() returns Trace.NOOP and
+// tracing costs one volatile read per call.
+@Slf4j
+@Component
+public class PipelineTracer implements FlightRecorderListener {
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final Path file;
+    private final boolean jfrEnabled;
+    private final ThreadPoolExecutor exporter;
+
+    private volatile boolean jfrRecording;
+    private FileChannel channel; // exporter thread only
+
+    private final AtomicLong exported = new AtomicLong();
+    private final AtomicLong sampledOut = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong writeFailures = new AtomicLong();
+
+    public PipelineTracer(@Value("${tracing.enabled:false}") boolean enabled,
+                          @Value("${tracing.sample-rate:0.05}") double sampleRate,
+                          @Value("${tracing.slow-threshold-ms:2000}") long slowThresholdMs,
+                          @Value("${tracing.file:${user.home}/.event-tracker/traces.ndjson}") String file,
+                          @Value("${tracing.queue-size:1024}") int queueSize,
+                          @Value("${tracing.jfr:true}") boolean jfrEnabled) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        this.file = Path.of(file);
+        this.jfrEnabled = jfrEnabled;
+        this.exporter = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "trace-exporter");
+                    t.setDaemon(true);
+                    return t;
+                },
+                (r, pool) -> dropped.incrementAndGet());
+    }
+
+    @PostConstruct
+    void init() {
+        if (jfrEnabled) {
+            FlightRecorder.addListener(this);
+            // Recordings started with -XX:StartFlightRecording are already running
+            if (FlightRecorder.isInitialized()) {
+                updateJfrState();
+            }
+        }
+        if (enabled) {
+            log.info("Tracing tool calls to {} (sample rate {}, slow threshold {} ms)", file, sampleRate,
+                    TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos));
+        }
+    }
+
+    public Trace start(String tool) {
+        boolean jfr = jfrRecording;
+        if (!enabled && !jfr) {
+            return Trace.NOOP;
+        }
+        return new Trace(this, tool, enabled, jfr);
+    }
+
+    @Override
+    public void recordingStateChanged(Recording recording) {
+        updateJfrState();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("jfr_recording", jfrRecording);
+        stats.put("exported", exported.get());
+        stats.put("sampled_out", sampledOut.get());
+        stats.put("dropped", dropped.get());
+        stats.put("write_failures", writeFailures.get());
+        return stats;
+    }
+
+    // Tail sampling: the decision is made once the duration is known so slow calls are always kept
+    void finish(Trace trace) {
+        if (trace.durationNanos() < slowThresholdNanos && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            sampledOut.incrementAndGet();
+            return;
+        }
+        exporter.execute(() -> export(trace));
+    }
+
+    static String newTraceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return String.format("%016x%016x", random.nextLong(), random.nextLong());
+    }
+
+    private void updateJfrState() {
+        boolean running = false;
+        for (Recording recording : FlightRecorder.getFlightRecorder().getRecordings()) {
+            running |= recording.getState() == RecordingState.RUNNING;
+        }
+        if (running != jfrRecording) {
+            log.info("JFR recording {}, pipeline stage events {}", running ? "started" : "stopped",
+                    running ? "on" : "off");
+        }
+        jfrRecording = running;
+    }
+
+    private void export(Trace trace) {
+        ObjectNode node = JsonHelper.getMapper().createObjectNode();
+        node.put("trace_id", trace.traceId());
+        node.put("name", trace.name());
+        node.put("start", Instant.ofEpochMilli(trace.startEpochMillis()).toString());
+        node.put("duration_ms", millis(trace.durationNanos()));
+        node.set("attributes", JsonHelper.getMapper().valueToTree(trace.attributes()));
+        ArrayNode stages = node.putArray("stages");
+        for (Trace.Stage stage : trace.stages()) {
+            stages.addObject()
+                    .put("name", stage.name())
+                    .put("offset_ms", millis(stage.offsetNanos()))
+                    .put("duration_ms", millis(stage.durationNanos()));
+        }
+        try {
+            if (channel == null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+            }
+            // O_APPEND positions every write at the current end of file, so one write per line keeps
+            // lines whole when several processes trace to the same file
+            ByteBuffer line = ByteBuffer.wrap(
+                    (JsonHelper.getMapper().writeValueAsString(node) + "\n").getBytes(StandardCharsets.UTF_8));
+            while (line.hasRemaining()) {
+                channel.write(line);
+            }
+            exported.incrementAndGet();
+        } catch (IOException e) {
+            writeFailures.incrementAndGet();
+            log.warn("Could not export trace {}", trace.traceId(), e);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (jfrEnabled) {
+            FlightRecorder.removeListener(this);
+        }
+        exporter.shutdown();
+        exporter.awaitTermination(5, TimeUnit.SECONDS);
+        if (enabled) {
+            log.info("Trace export: {}", stats());
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Could not close trace file {}", file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.event.tracker.tracing;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Timing of one tool call as a sequence of stages: stage(name) ends the running stage and starts
+// the next, end() ends the last one and hands the trace to the tracer. Not thread-safe; a trace
+// belongs to the thread running the call. Trace.NOOP, handed out while tracing and JFR are both
+// off, ignores everything without allocating.
+public final class Trace {
+
+    static final Trace NOOP = new Trace(null, "", false, false);
+
+    record Stage(String name, long offsetNanos, long durationNanos) {
+    }
+
+    private final PipelineTracer tracer;
+    private final String name;
+    private final boolean recording; // keep stages for the file exporter
+    private final boolean jfr;       // emit a PipelineStageEvent per stage
+    private final String traceId;
+    private final long startEpochMillis;
+    private final long startNanos;
+    private final List<Stage> stages;
+    private Map<String, Object> attributes;
+
+    private String stageName;
+    private long stageStart;
+    private PipelineStageEvent stageEvent;
+    private long durationNanos = -1;
+
+    Trace(PipelineTracer tracer, String name, boolean recording, boolean jfr) {
+        this.tracer = tracer;
+        this.name = name;
+        this.recording = recording;
+        this.jfr = jfr;
+        this.traceId = tracer != null ? PipelineTracer.newTraceId() : "";
+        this.startEpochMillis = tracer != null ? System.currentTimeMillis() : 0;
+        this.startNanos = tracer != null ? System.nanoTime() : 0;
+        this.stages = recording ? new ArrayList<>(8) : List.of();
+    }
+
+    public void stage(String stage) {
+        if (tracer == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        endStage(now);
+        stageName = stage;
+        stageStart = now;
+        if (jfr) {
+            stageEvent = new PipelineStageEvent();
+            stageEvent.begin();
+        }
+    }
+
+    // Exported with the trace, e.g. the city or whether the answer was partial
+    public void attribute(String key, Object value) {
+        if (recording) {
+            if (attributes == null) {
+                attributes = new LinkedHashMap<>();
+            }
+            attributes.put(key, value);
+        }
+    }
+
+    public void end() {
+        if (tracer == null || durationNanos >= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        endStage(now);
+        durationNanos = now - startNanos;
+        if (recording) {
+            tracer.finish(this);
+        }
+    }
+
+    private void endStage(long now) {
+        if (stageName == null) {
+            return;
+        }
+        if (recording) {
+            stages.add(new Stage(stageName, stageStart - startNanos, now - stageStart));
+        }
+        if (stageEvent != null) {
+            stageEvent.end();
+            if (stageEvent.shouldCommit()) {
+                stageEvent.tool = name;
+                stageEvent.stage = stageName;
+                stageEvent.traceId = traceId;
+                stageEvent.commit();
+            }
+            stageEvent = null;
+        }
+        stageName = null;
+    }
+
+    String name() {
+        return name;
+    }
+
+    String traceId() {
+        return traceId;
+    }
+
+    long startEpochMillis() {
+        return startEpochMillis;
+    }
+
+    long durationNanos() {
+        return durationNanos;
+    }
+
+    List<Stage> stages() {
+        return stages;
+    }
+
+    Map<String, Object> attributes() {
+        return attributes != null ? attributes : Map.of();
+    }
+}
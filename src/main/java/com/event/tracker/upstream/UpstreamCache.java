@@ -0,0 +1,224 @@
+package com.event.tracker.upstream;
+
+import com.event.tracker.utils.JsonHelper;
+import com.event.tracker.utils.LruCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Two-tier cache of raw upstream response bodies: a bounded in-process LRU (L1) in front of one
+// JSON file per entry under <dir>/<upstream>/ (L2), so a new stdio session starts with the data
+// earlier sessions fetched. Files are written to a unique temp name and renamed into place, so
+// several server processes can share the directory: readers see a whole entry or none, and the
+// last writer wins. Entries expire by the age they were stored with, per upstream; expired entries
+// stay on disk for the stale-retention period so getStale() can still answer in a new session.
+@Slf4j
+@Component
+public class UpstreamCache {
+
+    private record Entry(String body, long storedAt) {
+    }
+
+    private final boolean enabled;
+    private final boolean recording;
+    private final Path directory;
+    private final Map<String, Duration> ttls;
+    private final Duration staleRetention;
+    private final LruCache<String, Entry> memory;
+
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong writeFailures = new AtomicLong();
+
+    public UpstreamCache(@Value("${upstream.cache.enabled:true}") boolean enabled,
+                         @Value("${upstream.cache.dir}") String directory,
+                         @Value("${upstream.cache.memory-entries:2048}") int memoryEntries,
+                         @Value("${upstream.cache.ticketmaster-ttl-minutes:60}") long ticketmasterTtlMinutes,
+                         @Value("${upstream.cache.holidays-ttl-hours:720}") long holidaysTtlHours,
+                         @Value("${upstream.cache.stale-retention-days:7}") long staleRetentionDays,
+                         @Value("${upstream.mode:live}") String upstreamMode) {
+        this.enabled = enabled;
+        // In record mode every request must reach the upstream to be recorded; the cache is only written
+        this.recording = "record".equalsIgnoreCase(upstreamMode);
+        this.directory = Path.of(directory);
+        this.ttls = Map.of(
+                UpstreamRecordings.TICKETMASTER, Duration.ofMinutes(ticketmasterTtlMinutes),
+                UpstreamRecordings.HOLIDAYS, Duration.ofHours(holidaysTtlHours));
+        this.staleRetention = Duration.ofDays(staleRetentionDays);
+        this.memory = new LruCache<>(memoryEntries);
+    }
+
+    // Drops entries past both their TTL and the stale-retention period so the directory does not grow
+    // forever; younger expired entries are kept as stale fallbacks
+    @PostConstruct
+    void sweep() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        for (Map.Entry<String, Duration> upstream : ttls.entrySet()) {
+            Path dir = directory.resolve(upstream.getKey());
+            if (!Files.isDirectory(dir)) {
+                continue;
+            }
+            long maxAge = Math.max(upstream.getValue().toMillis(), staleRetention.toMillis());
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    if (now - Files.getLastModifiedTime(file).toMillis() > maxAge) {
+                        Files.deleteIfExists(file);
+                        removed++;
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Could not sweep upstream cache {}", dir, e);
+            }
+        }
+        log.info("Upstream cache at {} ({} expired entries removed)", directory, removed);
+    }
+
+    // Cached body if fresh in either tier, otherwise the loader's; a null body is not cached
+    public String get(String upstream, String key, Supplier<String> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        if (recording) {
+            return load(upstream, key, loader);
+        }
+        long now = System.currentTimeMillis();
+        long ttl = ttl(upstream);
+        String memoryKey = upstream + '\n' + key;
+
+        Entry entry = memory.getIfPresent(memoryKey);
+        if (entry != null && now - entry.storedAt() <= ttl) {
+            return entry.body();
+        }
+        entry = read(upstream, key);
+        if (entry != null && now - entry.storedAt() <= ttl) {
+            diskHits.incrementAndGet();
+            memory.put(memoryKey, entry);
+            return entry.body();
+        }
+        return load(upstream, key, loader);
+    }
+
+    // Last stored body regardless of age, for callers that would rather answer with old data than
+    // none when the upstream cannot be reached in time; null when nothing was ever stored
+    public String getStale(String upstream, String key) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = memory.getIfPresent(upstream + '\n' + key);
+        if (entry == null) {
+            entry = read(upstream, key);
+        }
+        return entry != null ? entry.body() : null;
+    }
+
+    // Always calls the loader and stores its result, e.g. for background refreshes that must see
+    // upstream changes and that warm the cache for interactive callers
+    public String refresh(String upstream, String key, Supplier<String> loader) {
+        return enabled ? load(upstream, key, loader) : loader.get();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("memory", memory.stats());
+        stats.put("disk_hits", diskHits.get());
+        stats.put("upstream_loads", loads.get());
+        stats.put("write_failures", writeFailures.get());
+        return stats;
+    }
+
+    private String load(String upstream, String key, Supplier<String> loader) {
+        loads.incrementAndGet();
+        String body = loader.get();
+        if (body != null) {
+            Entry entry = new Entry(body, System.currentTimeMillis());
+            memory.put(upstream + '\n' + key, entry);
+            write(upstream, key, entry);
+        }
+        return body;
+    }
+
+    private Entry read(String upstream, String key) {
+        Path file = file(upstream, key);
+        try {
+            JsonNode node = JsonHelper.getMapper().readTree(Files.readAllBytes(file));
+            // Hash prefixes can collide; the stored key decides
+            if (!key.equals(node.path("key").asText())) {
+                return null;
+            }
+            return new Entry(node.path("body").asText(), node.path("stored_at").asLong());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Unreadable upstream cache entry {}", file, e);
+            return null;
+        }
+    }
+
+    private void write(String upstream, String key, Entry entry) {
+        Path file = file(upstream, key);
+        Path tmp = file.resolveSibling(file.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            ObjectNode node = JsonHelper.getMapper().createObjectNode();
+            node.put("key", key);
+            node.put("stored_at", entry.storedAt());
+            node.put("body", entry.body());
+            Files.write(tmp, JsonHelper.getMapper().writeValueAsBytes(node));
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            writeFailures.incrementAndGet();
+            log.warn("Could not cache {} response for {}", upstream, key, e);
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private long ttl(String upstream) {
+        Duration ttl = ttls.get(upstream);
+        if (ttl == null) {
+            throw new IllegalArgumentException("No cache TTL configured for upstream " + upstream);
+        }
+        return ttl.toMillis();
+    }
+
+    private Path file(String upstream, String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(upstream).resolve(HexFormat.of().formatHex(hash, 0, 12) + ".json");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
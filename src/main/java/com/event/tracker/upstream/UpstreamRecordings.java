@@ -0,0 +1,133 @@
+package com.event.tracker.upstream;
+
+import com.event.tracker.utils.JsonHelper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+// On-disk recordings of upstream API responses, one JSON file per distinct request under
+// <dir>/<upstream>/. Requests are keyed by their path relative to the upstream base URL and
+// their sorted query parameters, minus credentials, so the live client and the local stub
+// agree on the key.
+@Slf4j
+@Component
+public class UpstreamRecordings {
+
+    public static final String TICKETMASTER = "ticketmaster";
+    public static final String HOLIDAYS = "nager";
+
+    private static final String[] IGNORED_PARAMS = {"apikey"};
+
+    private final Path directory;
+
+    public UpstreamRecordings(@Value("${upstream.recordings.dir}") String directory) {
+        this.directory = Path.of(directory);
+    }
+
+    public record Recording(String key, int status, String contentType, String body) {
+    }
+
+    // Filter for the live client in record mode: passes the response through and saves a copy
+    public ExchangeFilterFunction recordingFilter(String upstream, String baseUrl) {
+        String basePath = URI.create(baseUrl).getRawPath();
+        return (request, next) -> next.exchange(request).flatMap(response -> response.bodyToMono(String.class)
+                .defaultIfEmpty("")
+                .map(body -> {
+                    URI url = request.url();
+                    String relativePath = url.getRawPath().startsWith(basePath)
+                            ? url.getRawPath().substring(basePath.length())
+                            : url.getRawPath();
+                    save(upstream, new Recording(key(relativePath, url.getRawQuery()), response.statusCode().value(),
+                            response.headers().contentType().map(Object::toString).orElse("application/json"), body));
+                    return response.mutate().body(body).build();
+                }));
+    }
+
+    public Recording find(String upstream, String key) {
+        Path file = file(upstream, key);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            JsonNode node = JsonHelper.getMapper().readTree(file.toFile());
+            return new Recording(node.path("key").asText(), node.path("status").asInt(200),
+                    node.path("content_type").asText("application/json"), node.path("body").asText());
+        } catch (IOException e) {
+            log.warn("Unreadable recording {}", file, e);
+            return null;
+        }
+    }
+
+    public void save(String upstream, Recording recording) {
+        Path file = file(upstream, recording.key());
+        try {
+            Files.createDirectories(file.getParent());
+            ObjectNode node = JsonHelper.getMapper().createObjectNode();
+            node.put("key", recording.key());
+            node.put("status", recording.status());
+            node.put("content_type", recording.contentType());
+            node.put("body", recording.body());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            JsonHelper.getMapper().writeValue(tmp.toFile(), node);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not record {} response for {}", upstream, recording.key(), e);
+        }
+    }
+
+    // "/events.json?city=Berlin&size=50" with parameters sorted and credentials dropped
+    public static String key(String relativePath, String rawQuery) {
+        Map<String, String> params = new TreeMap<>();
+        if (rawQuery != null && !rawQuery.isEmpty()) {
+            for (String pair : rawQuery.split("&")) {
+                int eq = pair.indexOf('=');
+                String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+                String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+                if (!ignored(name)) {
+                    params.put(name, value);
+                }
+            }
+        }
+        StringBuilder key = new StringBuilder(relativePath.isEmpty() ? "/" : relativePath);
+        char separator = '?';
+        for (Map.Entry<String, String> param : params.entrySet()) {
+            key.append(separator).append(param.getKey()).append('=').append(param.getValue());
+            separator = '&';
+        }
+        return key.toString();
+    }
+
+    private static boolean ignored(String name) {
+        for (String ignoredParam : IGNORED_PARAMS) {
+            if (ignoredParam.equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Path file(String upstream, String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(upstream).resolve(HexFormat.of().formatHex(hash, 0, 12) + ".json");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.event.tracker.upstream;
+
+import com.event.tracker.utils.JsonHelper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Local stand-in for Ticketmaster and Nager.Date in replay mode. Serves recorded responses on the
+// loopback interface under /ticketmaster and /nager, with injected latency, errors and padding.
+// Requests without a recording get a synthetic payload when synthetic-events >= 0, else a 404.
+@Slf4j
+@Component
+public class UpstreamStubServer {
+
+    private final UpstreamRecordings recordings;
+    private final boolean enabled;
+    private final int port;
+    private final long latencyMs;
+    private final long latencyJitterMs;
+    private final double errorRate;
+    private final int paddingBytes;
+    private final int syntheticEvents;
+
+    // Recordings are immutable once written, so each is read from disk at most once
+    private final Map<String, UpstreamRecordings.Recording> loaded = new ConcurrentHashMap<>();
+    private HttpServer server;
+    private ExecutorService executor;
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public UpstreamStubServer(UpstreamRecordings recordings,
+                              @Value("${upstream.mode:live}") String mode,
+                              @Value("${upstream.stub.port:0}") int port,
+                              @Value("${upstream.stub.latency-ms:0}") long latencyMs,
+                              @Value("${upstream.stub.latency-jitter-ms:0}") long latencyJitterMs,
+                              @Value("${upstream.stub.error-rate:0.0}") double errorRate,
+                              @Value("${upstream.stub.padding-kb:0}") int paddingKb,
+                              @Value("${upstream.stub.synthetic-events:-1}") int syntheticEvents) {
+        this.recordings = recordings;
+        this.enabled = "replay".equalsIgnoreCase(mode);
+        this.port = port;
+        this.latencyMs = latencyMs;
+        this.latencyJitterMs = latencyJitterMs;
+        this.errorRate = errorRate;
+        this.paddingBytes = paddingKb * 1024;
+        this.syntheticEvents = syntheticEvents;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        // The JDK server leaves Nagle on by default, which adds ~40 ms to every small keep-alive response
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        // Latency is injected by sleeping, so every in-flight request needs its own thread
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "upstream-stub");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/" + UpstreamRecordings.TICKETMASTER, exchange -> handle(UpstreamRecordings.TICKETMASTER, exchange));
+        server.createContext("/" + UpstreamRecordings.HOLIDAYS, exchange -> handle(UpstreamRecordings.HOLIDAYS, exchange));
+        server.start();
+        log.info("Upstream stub listening on {} (latency {}+{} ms, error rate {}, padding {} B)",
+                baseUrl(""), latencyMs, latencyJitterMs, errorRate, paddingBytes);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Base URL the WebClient for the given upstream should use in replay mode
+    public String baseUrl(String upstream) {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/" + upstream;
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new HashMap<>();
+        stats.put("served", served.get());
+        stats.put("injected_errors", injectedErrors.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+
+    private void handle(String upstream, HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String relativePath = exchange.getRequestURI().getRawPath().substring(upstream.length() + 1);
+            String key = UpstreamRecordings.key(relativePath, exchange.getRequestURI().getRawQuery());
+
+            long delay = latencyMs + (latencyJitterMs > 0 ? ThreadLocalRandom.current().nextLong(latencyJitterMs + 1) : 0);
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+            served.incrementAndGet();
+
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                injectedErrors.incrementAndGet();
+                send(exchange, 503, "application/json", "{\"error\":\"injected upstream failure\"}");
+                return;
+            }
+
+            UpstreamRecordings.Recording recording = loaded.computeIfAbsent(upstream + key,
+                    k -> recordings.find(upstream, key));
+            if (recording != null) {
+                send(exchange, recording.status(), recording.contentType(), recording.body());
+            } else if (syntheticEvents >= 0) {
+                misses.incrementAndGet();
+                send(exchange, 200, "application/json", synthetic(upstream, exchange));
+            } else {
+                misses.incrementAndGet();
+                send(exchange, 404, "application/json", "{\"error\":\"no recording for " + key.replace("\"", "'") + "\"}");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        // Trailing whitespace keeps the JSON valid while growing the payload
+        int padding = status == 200 ? paddingBytes : 0;
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length + padding);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+            byte[] spaces = new byte[Math.min(padding, 8192)];
+            Arrays.fill(spaces, (byte) ' ');
+            for (int remaining = padding; remaining > 0; remaining -= spaces.length) {
+                out.write(spaces, 0, Math.min(remaining, spaces.length));
+            }
+        }
+    }
+
+    private String synthetic(String upstream, HttpExchange exchange) {
+        Map<String, String> query = new HashMap<>();
+        String rawQuery = exchange.getRequestURI().getQuery();
+        if (rawQuery != null) {
+            for (String pair : rawQuery.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    query.put(pair.substring(0, eq), pair.substring(eq + 1));
+                }
+            }
+        }
+        return UpstreamRecordings.TICKETMASTER.equals(upstream)
+                ? syntheticEvents(query)
+                : exchange.getRequestURI().getPath().endsWith("/AvailableCountries")
+                ? syntheticCountries()
+                : syntheticHolidays(exchange.getRequestURI().getPath());
+    }
+
+    // Ticketmaster-shaped page of events spread across the requested date range
+    private String syntheticEvents(Map<String, String> query) {
+        LocalDate start = LocalDate.parse(query.getOrDefault("startDateTime", LocalDate.now().toString()).substring(0, 10));
+        LocalDate end = LocalDate.parse(query.getOrDefault("endDateTime", start.toString()).substring(0, 10));
+        int days = (int) Math.max(1, end.toEpochDay() - start.toEpochDay() + 1);
+        String[] segments = {"Music", "Sports", "Arts & Theatre", "Family"};
+        // synthetic-events is the count within the default 30 km; the city is uniformly dense
+        int radius = Integer.parseInt(query.getOrDefault("radius", "30"));
+        int total = (int) Math.round(syntheticEvents * radius * radius / 900.0);
+        int size = Integer.parseInt(query.getOrDefault("size", "50"));
+
+        ObjectNode root = JsonHelper.getMapper().createObjectNode();
+        ArrayNode events = root.putObject("_embedded").putArray("events");
+        for (int i = 0; i < Math.min(total, size); i++) {
+            ObjectNode event = events.addObject();
+            event.put("id", "synthetic-" + start + "-" + i);
+            event.put("name", "Synthetic Event " + i);
+            event.putArray("classifications").addObject().putObject("segment").put("name", segments[i % segments.length]);
+            event.putObject("dates").putObject("start").put("localDate", start.plusDays(i % days).toString());
+            event.put("distance", (double) (i % Math.max(1, radius)));
+            event.put("units", "KILOMETERS");
+            ObjectNode venue = event.putObject("_embedded").putArray("venues").addObject();
+            venue.put("name", "Synthetic Venue " + (i % 10));
+            venue.putObject("location")
+                    .put("latitude", String.valueOf(52.52 + (i % 10) * 0.01))
+                    .put("longitude", String.valueOf(13.40 + (i % 10) * 0.01));
+        }
+        root.putObject("page").put("size", size).put("totalElements", total).put("number", 0);
+        return root.toString();
+    }
+
+    private String syntheticCountries() {
+        ArrayNode countries = JsonHelper.getMapper().createArrayNode();
+        for (String code : new String[]{"DE", "FR", "GB", "US"}) {
+            countries.addObject().put("countryCode", code).put("name", code);
+        }
+        return countries.toString();
+    }
+
+    // Nager.Date-shaped list with New Year and Christmas of the requested year
+    private String syntheticHolidays(String path) {
+        String[] parts = path.split("/");
+        int year = LocalDate.now().getYear();
+        for (String part : parts) {
+            if (part.matches("\\d{4}")) {
+                year = Integer.parseInt(part);
+            }
+        }
+        ArrayNode holidays = JsonHelper.getMapper().createArrayNode();
+        for (LocalDate date : new LocalDate[]{LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 25)}) {
+            ObjectNode holiday = holidays.addObject();
+            holiday.put("date", date.toString());
+            holiday.put("localName", date.getMonthValue() == 1 ? "New Year's Day" : "Christmas Day");
+            holiday.put("global", true);
+            holiday.putArray("types").add("Public");
+        }
+        return holidays.toString();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+}
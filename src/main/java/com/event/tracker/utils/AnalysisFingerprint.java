@@ -0,0 +1,111 @@
+package com.event.tracker.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+
+// Cache key for the scoring-relevant sections of an analysis_parameters object under one model.
+// Lookups use a cheap 64-bit structural hash (object fields are combined order-independently, so
+// key order does not matter; timestamps/workflow hints are not part of it). The sections themselves
+// are kept to rule out collisions: equals() compares them only when the hashes match, and keys
+// stored in a cache hold a private copy via detach().
+public final class AnalysisFingerprint {
+
+    private static final String[] SECTIONS = {"events", "seasonality", "calendar_factors", "nights",
+            "demand_indicators"};
+
+    private final String modelKey;
+    private final JsonNode[] sections;
+    private final long hash;
+
+    private AnalysisFingerprint(String modelKey, JsonNode[] sections, long hash) {
+        this.modelKey = modelKey;
+        this.sections = sections;
+        this.hash = hash;
+    }
+
+    public static AnalysisFingerprint of(String modelKey, JsonNode analysisParams) {
+        JsonNode[] sections = new JsonNode[SECTIONS.length];
+        long hash = mix(modelKey.hashCode());
+        for (int i = 0; i < SECTIONS.length; i++) {
+            sections[i] = analysisParams.path(SECTIONS[i]);
+            hash = hash * 31 + hash(sections[i]);
+        }
+        return new AnalysisFingerprint(modelKey, sections, mix(hash));
+    }
+
+    // Same key over deep copies, so a cached key cannot change when the caller's JSON does
+    public AnalysisFingerprint detach() {
+        JsonNode[] copies = new JsonNode[sections.length];
+        for (int i = 0; i < sections.length; i++) {
+            copies[i] = sections[i].deepCopy();
+        }
+        return new AnalysisFingerprint(modelKey, copies, hash);
+    }
+
+    public long hash() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof AnalysisFingerprint other
+                && hash == other.hash
+                && modelKey.equals(other.modelKey)
+                && Arrays.equals(sections, other.sections);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    // Consistent with JsonNode.equals: equal trees always hash alike
+    private static long hash(JsonNode node) {
+        switch (node.getNodeType()) {
+            case OBJECT: {
+                long h = 0x6f626a;
+                Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    h += mix(field.getKey().hashCode() * 0x9E3779B97F4A7C15L + hash(field.getValue()));
+                }
+                return mix(h ^ node.size());
+            }
+            case ARRAY: {
+                long h = 0x617272;
+                for (JsonNode item : node) {
+                    h = h * 31 + hash(item);
+                }
+                return mix(h ^ node.size());
+            }
+            case STRING:
+                return mix(node.textValue().hashCode() ^ 0x737472L);
+            case NUMBER:
+                return mix(node.isIntegralNumber()
+                        ? node.longValue()
+                        : Double.doubleToLongBits(node.doubleValue()) ^ 0x6e756dL);
+            case BOOLEAN:
+                return node.booleanValue() ? 0x74727565L : 0x66616c73L;
+            case MISSING:
+                return 0x3f;
+            default:
+                return node.getNodeType().ordinal();
+        }
+    }
+
+    // MurmurHash3 64-bit finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,128 @@
+package com.event.tracker.utils;
+
+import com.event.tracker.model.CityInfo;
+
+import java.util.List;
+
+// Immutable open-addressing table from normalized city names/aliases to CityInfo.
+// Keys are stored trimmed and case-folded char by char with fold(); lookups hash and compare
+// the caller's string in place with the same fold, so get() never allocates and both sides
+// agree even where String.toLowerCase would change the length (e.g. a dotted capital I).
+public final class CityIndex {
+
+    public static final CityIndex EMPTY = new CityIndex(List.of());
+
+    private final String[] keys;
+    private final CityInfo[] values;
+    private final int mask;
+    private final int size;
+
+    public CityIndex(List<CityInfo> cities) {
+        int entries = 0;
+        for (CityInfo city : cities) {
+            entries += 1 + city.getAliases().size();
+        }
+        int capacity = Integer.highestOneBit(Math.max(4, entries * 2) - 1) << 1;
+        this.keys = new String[capacity];
+        this.values = new CityInfo[capacity];
+        this.mask = capacity - 1;
+
+        int count = 0;
+        for (CityInfo city : cities) {
+            count += put(normalize(city.getName()), city);
+            for (String alias : city.getAliases()) {
+                count += put(normalize(alias), city);
+            }
+        }
+        this.size = count;
+    }
+
+    public CityInfo get(String name) {
+        if (name == null) {
+            return null;
+        }
+        int start = firstNonSpace(name);
+        int end = lastNonSpace(name);
+        int len = end - start;
+        if (len <= 0) {
+            return null;
+        }
+
+        int slot = hash(name, start, end) & mask;
+        while (keys[slot] != null) {
+            String key = keys[slot];
+            if (key.length() == len && matches(key, name, start)) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public static String normalize(String name) {
+        String trimmed = name.trim();
+        char[] folded = new char[trimmed.length()];
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = fold(trimmed.charAt(i));
+        }
+        return new String(folded).intern();
+    }
+
+    // Same equivalence as String.regionMatches(true, ...), one char in, one char out
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static boolean matches(String key, String name, int start) {
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != fold(name.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int put(String key, CityInfo city) {
+        if (key.isEmpty()) {
+            return 0;
+        }
+        int slot = hash(key, 0, key.length()) & mask;
+        while (keys[slot] != null) {
+            if (keys[slot].equals(key)) {
+                return 0; // first definition wins
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = city;
+        return 1;
+    }
+
+    private static int hash(String s, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + fold(s.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static int firstNonSpace(String s) {
+        int i = 0;
+        while (i < s.length() && s.charAt(i) <= ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int lastNonSpace(String s) {
+        int i = s.length();
+        while (i > 0 && s.charAt(i - 1) <= ' ') {
+            i--;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,47 @@
+package com.event.tracker.utils;
+
+import java.time.Duration;
+
+// Point in time a tool call has to answer by, handed down to every step of the call so each one
+// waits at most for what is left of the caller's budget. Deadline.none() never expires.
+public final class Deadline {
+
+    private static final Deadline NONE = new Deadline(0, Long.MAX_VALUE);
+
+    private final long startNanos;
+    private final long budgetNanos;
+
+    private Deadline(long startNanos, long budgetNanos) {
+        this.startNanos = startNanos;
+        this.budgetNanos = budgetNanos;
+    }
+
+    public static Deadline none() {
+        return NONE;
+    }
+
+    public static Deadline after(Duration budget) {
+        return new Deadline(System.nanoTime(), Math.max(0, budget.toNanos()));
+    }
+
+    // A missing or non-positive budget means no deadline
+    public static Deadline ofMillis(Integer budgetMs) {
+        return budgetMs != null && budgetMs > 0 ? after(Duration.ofMillis(budgetMs)) : NONE;
+    }
+
+    public boolean isBounded() {
+        return this != NONE;
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    public long remainingNanos() {
+        return isBounded() ? budgetNanos - (System.nanoTime() - startNanos) : Long.MAX_VALUE;
+    }
+
+    public long budgetMillis() {
+        return Duration.ofNanos(budgetNanos).toMillis();
+    }
+}
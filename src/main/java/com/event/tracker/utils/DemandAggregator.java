@@ -0,0 +1,161 @@
+package com.event.tracker.utils;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+// Single-pass demand totals over a date window backed by primitive per-day histograms.
+// Events outside the window still count towards the totals but not towards any day.
+public final class DemandAggregator {
+
+    private static final double VISITORS_PER_POINT = 5000.0;
+    private static final double MAX_PRESSURE = 10.0;
+
+    private final long firstDay;
+    private final int[] eventsByDay;
+    private final int[] visitorsByDay;
+    private final int[] majorEventsByDay;
+    private final double[] impactByDay;
+
+    private int eventCount;
+    private int majorEvents;
+    private long totalVisitors;
+    private double totalImpact;
+
+    // Window is inclusive on both ends, matching the event fetch window [checkIn, checkOut]
+    public DemandAggregator(LocalDate from, LocalDate to) {
+        int days = (int) Math.max(1, to.toEpochDay() - from.toEpochDay() + 1);
+        this.firstDay = from.toEpochDay();
+        this.eventsByDay = new int[days];
+        this.visitorsByDay = new int[days];
+        this.majorEventsByDay = new int[days];
+        this.impactByDay = new double[days];
+    }
+
+    public void add(LocalDate date, int visitors, String impactLevel) {
+        add(date, null, visitors, impactLevel);
+    }
+
+    // Multi-day events (endDate set) count once in the totals and on every day they run
+    public void add(LocalDate date, LocalDate endDate, int visitors, String impactLevel) {
+        long day = date != null ? date.toEpochDay() : Long.MIN_VALUE;
+        add(day, endDate != null ? endDate.toEpochDay() : day, visitors, impactLevel, 0.0);
+    }
+
+    public void add(long epochDay, int visitors, String impactLevel, double impact) {
+        add(epochDay, epochDay, visitors, impactLevel, impact);
+    }
+
+    public void add(long firstEventDay, long lastEventDay, int visitors, String impactLevel, double impact) {
+        boolean major = isMajor(impactLevel);
+        eventCount++;
+        totalVisitors += visitors;
+        totalImpact += impact;
+        if (major) {
+            majorEvents++;
+        }
+
+        if (firstEventDay == Long.MIN_VALUE) {
+            return;
+        }
+        int from = (int) Math.max(0, firstEventDay - firstDay);
+        int to = (int) Math.min(visitorsByDay.length - 1L, lastEventDay - firstDay);
+        for (int day = from; day <= to; day++) {
+            eventsByDay[day]++;
+            visitorsByDay[day] += visitors;
+            impactByDay[day] += impact;
+            if (major) {
+                majorEventsByDay[day]++;
+            }
+        }
+    }
+
+    public void reset() {
+        Arrays.fill(eventsByDay, 0);
+        Arrays.fill(visitorsByDay, 0);
+        Arrays.fill(majorEventsByDay, 0);
+        Arrays.fill(impactByDay, 0.0);
+        eventCount = 0;
+        majorEvents = 0;
+        totalVisitors = 0;
+        totalImpact = 0.0;
+    }
+
+    public int days() {
+        return visitorsByDay.length;
+    }
+
+    public LocalDate day(int index) {
+        return LocalDate.ofEpochDay(firstDay + index);
+    }
+
+    public int eventCount() {
+        return eventCount;
+    }
+
+    public int majorEvents() {
+        return majorEvents;
+    }
+
+    public long totalVisitors() {
+        return totalVisitors;
+    }
+
+    public double totalImpact() {
+        return totalImpact;
+    }
+
+    public int eventsOn(int index) {
+        return eventsByDay[index];
+    }
+
+    public int visitorsOn(int index) {
+        return visitorsByDay[index];
+    }
+
+    public int majorEventsOn(int index) {
+        return majorEventsByDay[index];
+    }
+
+    public double impactOn(int index) {
+        return impactByDay[index];
+    }
+
+    // Event impact score over the whole window (0-10)
+    public double pressure() {
+        return pressure(majorEvents, totalVisitors);
+    }
+
+    public double pressureOn(int index) {
+        return pressure(majorEventsByDay[index], visitorsByDay[index]);
+    }
+
+    // Busiest day of the window by pressure, ties going to the earlier day
+    public int peakDay() {
+        int peak = 0;
+        double peakPressure = pressureOn(0);
+        for (int i = 1; i < visitorsByDay.length; i++) {
+            double p = pressureOn(i);
+            if (p > peakPressure) {
+                peak = i;
+                peakPressure = p;
+            }
+        }
+        return peak;
+    }
+
+    public double peakDayPressure() {
+        return pressureOn(peakDay());
+    }
+
+    public int[] dailyVisitors() {
+        return visitorsByDay.clone();
+    }
+
+    public static boolean isMajor(String impactLevel) {
+        return "high".equals(impactLevel) || "critical".equals(impactLevel);
+    }
+
+    public static double pressure(int majorEvents, long visitors) {
+        return Math.min(MAX_PRESSURE, (majorEvents * 2.0) + (visitors / VISITORS_PER_POINT));
+    }
+}
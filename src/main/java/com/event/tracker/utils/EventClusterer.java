@@ -0,0 +1,191 @@
+package com.event.tracker.utils;
+
+import com.event.tracker.model.Event;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Collapses Ticketmaster listings of one happening into a single event. Listings are bucketed by
+// (normalized name, normalized venue) in a hash map, so there is no pairwise comparison; inside a
+// bucket, listings on the same or consecutive days form one cluster. Listings of one show (ticket
+// tiers, packages: same day and start time, or no start time) share one crowd and count their largest
+// listing; shows at different start times on a day (matinee and evening) are separate audiences and
+// add up. The cluster's expected_visitors is its busiest day and total_visitors the sum over its days.
+public final class EventClusterer {
+
+    private static final Pattern BRACKETED = Pattern.compile("\\([^)]*\\)|\\[[^]]*]");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern LISTING_NOISE = Pattern.compile(
+            "\\b(?:day|night|tag|show|part|stage)\\s*\\d+\\b"
+                    + "|\\b(?:monday|tuesday|wednesday|thursday|friday|saturday|sunday)\\b"
+                    + "|\\b(?:\\d+\\s*-?\\s*day|weekend|day|single day|multi day)\\s+(?:pass|ticket)s?\\b"
+                    + "|\\b(?:vip|premium|platinum|hospitality)(?:\\s+(?:experiences?|access|lounge|seating))?\\b"
+                    + "|\\b(?:tickets?|packages?|upgrades?)\\b"
+                    + "|\\b20\\d\\d\\b");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final long SECONDS_PER_DAY = 86_400L;
+
+    private static final Map<String, Integer> LEVEL_RANK = Map.of("low", 0, "medium", 1, "high", 2, "critical", 3);
+
+    private EventClusterer() {
+    }
+
+    // Order of first appearance is kept; events without a date are passed through unclustered
+    public static List<Event> cluster(List<Event> events) {
+        if (events.size() < 2) {
+            return events;
+        }
+        Map<String, List<Event>> buckets = new HashMap<>();
+        Map<String, String> venues = new HashMap<>(); // far fewer venues than listings
+        List<Object> order = new ArrayList<>(events.size());
+        for (Event event : events) {
+            if (event.getDate() == null) {
+                order.add(event);
+                continue;
+            }
+            String venue = venues.computeIfAbsent(String.valueOf(event.getVenue()), EventClusterer::normalize);
+            String key = normalize(event.getName()) + '\u0000' + venue;
+            List<Event> bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = new ArrayList<>(2);
+                buckets.put(key, bucket);
+                order.add(bucket);
+            }
+            bucket.add(event);
+        }
+        if (order.size() == events.size()) {
+            return events; // nothing to merge
+        }
+
+        List<Event> clustered = new ArrayList<>(order.size());
+        for (Object entry : order) {
+            if (entry instanceof Event event) {
+                clustered.add(event);
+            } else {
+                @SuppressWarnings("unchecked")
+                List<Event> bucket = (List<Event>) entry;
+                splitRuns(bucket, clustered);
+            }
+        }
+        return clustered;
+    }
+
+    // Lower-case, accent-free name with bracketed text, dates, weekdays and ticket-tier words removed;
+    // a name that is nothing but such words keeps them
+    static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String s = Normalizer.normalize(name, Normalizer.Form.NFD);
+        s = DIACRITICS.matcher(s).replaceAll("").toLowerCase(Locale.ROOT);
+        String stripped = NON_ALPHANUMERIC.matcher(LISTING_NOISE.matcher(BRACKETED.matcher(s).replaceAll(" "))
+                .replaceAll(" ")).replaceAll(" ").trim();
+        return stripped.isEmpty() ? NON_ALPHANUMERIC.matcher(s).replaceAll(" ").trim() : stripped;
+    }
+
+    private static void splitRuns(List<Event> bucket, List<Event> out) {
+        if (bucket.size() == 1) {
+            out.add(bucket.get(0));
+            return;
+        }
+        bucket.sort(Comparator.comparing(Event::getDate));
+        int start = 0;
+        LocalDate runEnd = lastDay(bucket.get(0));
+        for (int i = 1; i <= bucket.size(); i++) {
+            if (i == bucket.size() || bucket.get(i).getDate().isAfter(runEnd.plusDays(1))) {
+                out.add(merge(bucket.subList(start, i)));
+                start = i;
+            }
+            if (i < bucket.size()) {
+                LocalDate last = lastDay(bucket.get(i));
+                runEnd = start == i || last.isAfter(runEnd) ? last : runEnd;
+            }
+        }
+    }
+
+    // Listings that already span days (earlier clusters, multi-day calendar entries) count on each day
+    private static Event merge(List<Event> run) {
+        Event first = run.get(0);
+        if (run.size() == 1) {
+            return first;
+        }
+        LocalDate lastDay = first.getDate();
+        for (Event event : run) {
+            LocalDate last = lastDay(event);
+            lastDay = last.isAfter(lastDay) ? last : lastDay;
+        }
+        int days = (int) (lastDay.toEpochDay() - first.getDate().toEpochDay()) + 1;
+        int[] untimedVisitors = new int[days];
+        Map<Long, Integer> shows = new HashMap<>(); // (day, start second) -> largest listing of that show
+        int listings = 0;
+        int capacity = 0;
+        boolean capacityEstimated = true;
+        String impactLevel = first.getImpactLevel();
+        Event located = null;
+        for (Event event : run) {
+            int visitors = event.getExpectedVisitors() != null ? event.getExpectedVisitors() : 0;
+            int from = (int) (event.getDate().toEpochDay() - first.getDate().toEpochDay());
+            int to = (int) (lastDay(event).toEpochDay() - first.getDate().toEpochDay());
+            if (event.getTime() != null && from == to) {
+                shows.merge(from * SECONDS_PER_DAY + event.getTime().toSecondOfDay(), visitors, Math::max);
+            } else {
+                for (int day = from; day <= to; day++) {
+                    untimedVisitors[day] = Math.max(untimedVisitors[day], visitors);
+                }
+            }
+            listings += event.getListingCount() != null ? event.getListingCount() : 1;
+            capacity = Math.max(capacity, event.getCapacity() != null ? event.getCapacity() : 0);
+            capacityEstimated &= !Boolean.FALSE.equals(event.getCapacityEstimated());
+            if (rank(event.getImpactLevel()) > rank(impactLevel)) {
+                impactLevel = event.getImpactLevel();
+            }
+            if (located == null && event.getLatitude() != null && event.getLongitude() != null) {
+                located = event;
+            }
+        }
+        int[] dayVisitors = new int[days];
+        for (Map.Entry<Long, Integer> show : shows.entrySet()) {
+            dayVisitors[(int) (show.getKey() / SECONDS_PER_DAY)] += show.getValue();
+        }
+        // A listing without a start time may belong to any of the day's shows
+        for (int day = 0; day < days; day++) {
+            dayVisitors[day] = Math.max(dayVisitors[day], untimedVisitors[day]);
+        }
+        int peakVisitors = 0;
+        int totalVisitors = 0;
+        for (int visitors : dayVisitors) {
+            peakVisitors = Math.max(peakVisitors, visitors);
+            totalVisitors += visitors;
+        }
+
+        return first.toBuilder()
+                .endDate(lastDay.isAfter(first.getDate()) ? lastDay : null)
+                .capacity(capacity)
+                .capacityEstimated(capacityEstimated)
+                .expectedVisitors(peakVisitors)
+                .totalVisitors(totalVisitors)
+                .listingCount(listings)
+                .impactLevel(impactLevel)
+                .latitude(located != null ? located.getLatitude() : first.getLatitude())
+                .longitude(located != null ? located.getLongitude() : first.getLongitude())
+                .build();
+    }
+
+    private static LocalDate lastDay(Event event) {
+        return event.getEndDate() != null && event.getEndDate().isAfter(event.getDate())
+                ? event.getEndDate()
+                : event.getDate();
+    }
+
+    private static int rank(String impactLevel) {
+        return impactLevel != null ? LEVEL_RANK.getOrDefault(impactLevel, 0) : -1;
+    }
+}
@@ -0,0 +1,62 @@
+package com.event.tracker.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+// Runs a callback on a daemon thread whenever a single file is created or modified. A failing
+// callback is logged with the file name and watching continues.
+@Slf4j
+public final class FileWatcher {
+
+    private FileWatcher() {
+    }
+
+    public static Closeable watch(Path file, String threadName, Runnable onChange) {
+        Path target = file.toAbsolutePath();
+        WatchService watchService;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            target.getParent().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            log.warn("Could not watch {} for changes", target, e);
+            return () -> { };
+        }
+
+        Thread watcher = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey key = watchService.take();
+                    boolean changed = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (target.getFileName().equals(event.context())) {
+                            changed = true;
+                        }
+                    }
+                    key.reset();
+                    if (changed) {
+                        try {
+                            onChange.run();
+                        } catch (RuntimeException e) {
+                            // Keep watching; the next change may fix the file
+                            log.warn("Reloading {} failed", target, e);
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                // Interrupted or watch service closed on shutdown
+            }
+        }, threadName);
+        watcher.setDaemon(true);
+        watcher.start();
+        return watchService;
+    }
+}
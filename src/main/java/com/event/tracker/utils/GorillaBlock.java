@@ -0,0 +1,216 @@
+package com.event.tracker.utils;
+
+import java.util.Arrays;
+
+// Compressed block of surge history points in the style of Facebook's Gorilla TSDB:
+// timestamps as delta-of-delta, doubles XORed with the previous value, category and
+// driver as small integer codes. Points are appended in time order.
+public final class GorillaBlock {
+
+    public interface PointConsumer {
+        void accept(long timestamp, double surgePercentage, double modelSurge, int category, int driver);
+    }
+
+    private final BitWriter out = new BitWriter();
+    private final DoubleColumn surgeColumn = new DoubleColumn();
+    private final DoubleColumn modelColumn = new DoubleColumn();
+    private int count;
+    private long minTimestamp;
+    private long lastTimestamp;
+    private long lastDelta;
+
+    public void add(long timestamp, double surgePercentage, double modelSurge, int category, int driver) {
+        if (count == 0) {
+            out.write(timestamp, 64);
+            minTimestamp = timestamp;
+        } else {
+            long delta = timestamp - lastTimestamp;
+            writeDeltaOfDelta(out, delta - lastDelta);
+            lastDelta = delta;
+        }
+        lastTimestamp = timestamp;
+
+        surgeColumn.write(out, surgePercentage);
+        modelColumn.write(out, modelSurge);
+        out.write(category, 3);
+        out.write(driver, 16);
+        count++;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public long minTimestamp() {
+        return minTimestamp;
+    }
+
+    public long maxTimestamp() {
+        return lastTimestamp;
+    }
+
+    public byte[] toBytes() {
+        return out.toBytes();
+    }
+
+    public static void decode(byte[] bytes, int count, PointConsumer consumer) {
+        BitReader in = new BitReader(bytes);
+        DoubleColumn surgeColumn = new DoubleColumn();
+        DoubleColumn modelColumn = new DoubleColumn();
+        long timestamp = 0;
+        long delta = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0) {
+                timestamp = in.read(64);
+            } else {
+                delta += readDeltaOfDelta(in);
+                timestamp += delta;
+            }
+            double surge = surgeColumn.read(in);
+            double model = modelColumn.read(in);
+            int category = (int) in.read(3);
+            int driver = (int) in.read(16);
+            consumer.accept(timestamp, surge, model, category, driver);
+        }
+    }
+
+    // '0' | '10'+7 | '110'+9 | '1110'+12 | '1111'+64, zig-zag encoded
+    private static void writeDeltaOfDelta(BitWriter out, long dod) {
+        long zz = (dod << 1) ^ (dod >> 63);
+        if (zz == 0) {
+            out.write(0b0, 1);
+        } else if (zz < (1L << 7)) {
+            out.write(0b10, 2);
+            out.write(zz, 7);
+        } else if (zz < (1L << 9)) {
+            out.write(0b110, 3);
+            out.write(zz, 9);
+        } else if (zz < (1L << 12)) {
+            out.write(0b1110, 4);
+            out.write(zz, 12);
+        } else {
+            out.write(0b1111, 4);
+            out.write(zz, 64);
+        }
+    }
+
+    private static long readDeltaOfDelta(BitReader in) {
+        int bits;
+        if (in.read(1) == 0) {
+            return 0;
+        } else if (in.read(1) == 0) {
+            bits = 7;
+        } else if (in.read(1) == 0) {
+            bits = 9;
+        } else if (in.read(1) == 0) {
+            bits = 12;
+        } else {
+            bits = 64;
+        }
+        long zz = in.read(bits);
+        return (zz >>> 1) ^ -(zz & 1);
+    }
+
+    private static final class DoubleColumn {
+        private long previous;
+        private int leading = -1;
+        private int trailing;
+        private boolean first = true;
+
+        void write(BitWriter out, double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            if (first) {
+                out.write(bits, 64);
+                first = false;
+                previous = bits;
+                return;
+            }
+            long xor = bits ^ previous;
+            previous = bits;
+            if (xor == 0) {
+                out.write(0, 1);
+                return;
+            }
+            out.write(1, 1);
+            int lz = Math.min(31, Long.numberOfLeadingZeros(xor));
+            int tz = Long.numberOfTrailingZeros(xor);
+            if (leading >= 0 && lz >= leading && tz >= trailing) {
+                // Fits in the previous meaningful window
+                out.write(0, 1);
+                out.write(xor >>> trailing, 64 - leading - trailing);
+            } else {
+                int significant = 64 - lz - tz;
+                out.write(1, 1);
+                out.write(lz, 5);
+                out.write(significant - 1, 6);
+                out.write(xor >>> tz, significant);
+                leading = lz;
+                trailing = tz;
+            }
+        }
+
+        double read(BitReader in) {
+            if (first) {
+                previous = in.read(64);
+                first = false;
+                return Double.longBitsToDouble(previous);
+            }
+            if (in.read(1) == 0) {
+                return Double.longBitsToDouble(previous);
+            }
+            if (in.read(1) == 1) {
+                leading = (int) in.read(5);
+                int significant = (int) in.read(6) + 1;
+                trailing = 64 - leading - significant;
+            }
+            long xor = in.read(64 - leading - trailing) << trailing;
+            previous ^= xor;
+            return Double.longBitsToDouble(previous);
+        }
+    }
+
+    private static final class BitWriter {
+        private byte[] buffer = new byte[64];
+        private int bitPosition;
+
+        void write(long value, int bits) {
+            ensure(bitPosition + bits);
+            for (int i = bits - 1; i >= 0; i--) {
+                if (((value >>> i) & 1) != 0) {
+                    buffer[bitPosition >>> 3] |= (byte) (0x80 >>> (bitPosition & 7));
+                }
+                bitPosition++;
+            }
+        }
+
+        byte[] toBytes() {
+            return Arrays.copyOf(buffer, (bitPosition + 7) >>> 3);
+        }
+
+        private void ensure(int bits) {
+            int bytes = (bits + 7) >>> 3;
+            if (bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(bytes, buffer.length * 2));
+            }
+        }
+    }
+
+    private static final class BitReader {
+        private final byte[] buffer;
+        private int bitPosition;
+
+        BitReader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        long read(int bits) {
+            long value = 0;
+            for (int i = 0; i < bits; i++) {
+                int bit = (buffer[bitPosition >>> 3] >>> (7 - (bitPosition & 7))) & 1;
+                value = (value << 1) | bit;
+                bitPosition++;
+            }
+            return value;
+        }
+    }
+}
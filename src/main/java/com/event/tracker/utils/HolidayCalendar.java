@@ -0,0 +1,54 @@
+package com.event.tracker.utils;
+
+import com.event.tracker.model.Holiday;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+// Per-day holiday and long-weekend flags for a date window, built with one pass over the holidays
+// so a stay can be swept night by night with constant-time lookups
+public final class HolidayCalendar {
+
+    public static final int LONG_WEEKEND_SPAN_DAYS = 2;
+
+    private final long firstDay;
+    private final boolean[] holiday;
+    private final boolean[] longWeekend;
+
+    public HolidayCalendar(List<Holiday> holidays, LocalDate from, LocalDate to) {
+        int days = (int) Math.max(1, to.toEpochDay() - from.toEpochDay() + 1);
+        this.firstDay = from.toEpochDay();
+        this.holiday = new boolean[days];
+        this.longWeekend = new boolean[days];
+
+        for (Holiday h : holidays) {
+            LocalDate date = h.getDate();
+            long offset = date.toEpochDay() - firstDay;
+            if (offset < -LONG_WEEKEND_SPAN_DAYS || offset >= days + LONG_WEEKEND_SPAN_DAYS) {
+                continue;
+            }
+            int index = (int) offset;
+            if (index >= 0 && index < days) {
+                holiday[index] = true;
+            }
+            // A Friday or Monday holiday makes the surrounding days a long weekend
+            DayOfWeek dayOfWeek = date.getDayOfWeek();
+            if (dayOfWeek == DayOfWeek.FRIDAY || dayOfWeek == DayOfWeek.MONDAY) {
+                int start = Math.max(0, index - LONG_WEEKEND_SPAN_DAYS);
+                int end = Math.min(days - 1, index + LONG_WEEKEND_SPAN_DAYS);
+                for (int i = start; i <= end; i++) {
+                    longWeekend[i] = true;
+                }
+            }
+        }
+    }
+
+    public boolean isHoliday(int index) {
+        return holiday[index];
+    }
+
+    public boolean isLongWeekend(int index) {
+        return longWeekend[index];
+    }
+}
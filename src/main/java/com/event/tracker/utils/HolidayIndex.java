@@ -0,0 +1,126 @@
+package com.event.tracker.utils;
+
+import com.event.tracker.model.Holiday;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Immutable holidays of many countries over a range of years. Each country is a sorted array of
+// epoch days with parallel name/type/flag columns (names and types interned), so a date range is
+// two binary searches and the whole world over a few years fits in well under a megabyte.
+public final class HolidayIndex {
+
+    public static final HolidayIndex EMPTY = new HolidayIndex(0, -1, Map.of());
+
+    private final int firstYear;
+    private final int lastYear;
+    private final Map<String, Country> countries;
+
+    private static final class Country {
+        final int[] days;
+        final String[] names;
+        final String[] types;
+        final boolean[] national;
+
+        Country(List<Holiday> holidays) {
+            List<Holiday> sorted = new ArrayList<>(holidays);
+            sorted.sort(Comparator.comparing(Holiday::getDate));
+            int n = sorted.size();
+            days = new int[n];
+            names = new String[n];
+            types = new String[n];
+            national = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                Holiday holiday = sorted.get(i);
+                days[i] = (int) holiday.getDate().toEpochDay();
+                names[i] = holiday.getName().intern();
+                types[i] = holiday.getType().intern();
+                national[i] = holiday.isNational();
+            }
+        }
+    }
+
+    private HolidayIndex(int firstYear, int lastYear, Map<String, Country> countries) {
+        this.firstYear = firstYear;
+        this.lastYear = lastYear;
+        this.countries = countries;
+    }
+
+    // holidaysByCountry must hold every year from firstYear to lastYear for each country it lists
+    public static HolidayIndex of(int firstYear, int lastYear, Map<String, List<Holiday>> holidaysByCountry) {
+        Map<String, Country> countries = new HashMap<>();
+        holidaysByCountry.forEach((code, holidays) -> countries.put(key(code), new Country(holidays)));
+        return new HolidayIndex(firstYear, lastYear, Map.copyOf(countries));
+    }
+
+    public boolean covers(String countryCode, int year) {
+        return year >= firstYear && year <= lastYear && countries.containsKey(key(countryCode));
+    }
+
+    // Holidays from..to inclusive, in date order; empty for a country the index does not hold
+    public List<Holiday> between(String countryCode, LocalDate from, LocalDate to) {
+        Country country = countries.get(key(countryCode));
+        if (country == null) {
+            return List.of();
+        }
+        int start = lowerBound(country.days, (int) from.toEpochDay());
+        int end = lowerBound(country.days, (int) to.toEpochDay() + 1);
+        if (start >= end) {
+            return List.of();
+        }
+        List<Holiday> holidays = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            holidays.add(Holiday.builder()
+                    .name(country.names[i])
+                    .date(LocalDate.ofEpochDay(country.days[i]))
+                    .type(country.types[i])
+                    .isNational(country.national[i])
+                    .build());
+        }
+        return holidays;
+    }
+
+    public int getFirstYear() {
+        return firstYear;
+    }
+
+    public int getLastYear() {
+        return lastYear;
+    }
+
+    public Set<String> countries() {
+        return Collections.unmodifiableSet(countries.keySet());
+    }
+
+    public int size() {
+        int size = 0;
+        for (Country country : countries.values()) {
+            size += country.days.length;
+        }
+        return size;
+    }
+
+    private static int lowerBound(int[] days, int day) {
+        int index = Arrays.binarySearch(days, day);
+        if (index < 0) {
+            return -index - 1;
+        }
+        // Several holidays can share a date; step back to the first
+        while (index > 0 && days[index - 1] == day) {
+            index--;
+        }
+        return index;
+    }
+
+    private static String key(String countryCode) {
+        return countryCode.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,99 @@
+package com.event.tracker.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Small bounded least-recently-used cache with hit/miss/eviction counters.
+// Values are computed outside the lock; two racing misses may both compute, last one wins.
+public class LruCache<K, V> {
+
+    private final int maxEntries;
+    private final Map<K, V> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public LruCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        V value;
+        synchronized (entries) {
+            value = entries.get(key);
+        }
+        if (value != null) {
+            hits.incrementAndGet();
+            return value;
+        }
+
+        misses.incrementAndGet();
+        value = loader.get();
+        if (maxEntries > 0) {
+            synchronized (entries) {
+                entries.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    // Lookup without a loader, for callers that validate or load the value themselves
+    public V getIfPresent(K key) {
+        V value;
+        synchronized (entries) {
+            value = entries.get(key);
+        }
+        (value != null ? hits : misses).incrementAndGet();
+        return value;
+    }
+
+    public void put(K key, V value) {
+        if (maxEntries > 0) {
+            synchronized (entries) {
+                entries.put(key, value);
+            }
+        }
+    }
+
+    public void remove(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public Map<String, Long> stats() {
+        long h = hits.get();
+        long m = misses.get();
+        return Map.of(
+                "hits", h,
+                "misses", m,
+                "evictions", evictions.get(),
+                "size", (long) size(),
+                "hit_rate_pct", h + m == 0 ? 0L : (h * 100) / (h + m)
+        );
+    }
+}
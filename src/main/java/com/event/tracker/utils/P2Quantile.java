@@ -0,0 +1,101 @@
+package com.event.tracker.utils;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Arrays;
+
+// Streaming quantile estimator (Jain & Chlamtac P-square algorithm).
+// Keeps five markers regardless of how many observations are added.
+@Data
+@NoArgsConstructor
+public class P2Quantile {
+
+    private double p;
+    private long count;
+    private double[] heights = new double[5];
+    private double[] positions = new double[5];
+    private double[] desired = new double[5];
+    private double[] increments = new double[5];
+
+    public P2Quantile(double p) {
+        this.p = p;
+        this.positions = new double[]{0, 1, 2, 3, 4};
+        this.desired = new double[]{0, 2 * p, 4 * p, 2 + 2 * p, 4};
+        this.increments = new double[]{0, p / 2, p, (1 + p) / 2, 1};
+    }
+
+    public void add(double x) {
+        if (count < 5) {
+            heights[(int) count++] = x;
+            if (count == 5) {
+                Arrays.sort(heights);
+            }
+            return;
+        }
+
+        // Find the cell the observation falls into, widening the extremes if needed
+        int k;
+        if (x < heights[0]) {
+            heights[0] = x;
+            k = 0;
+        } else if (x >= heights[4]) {
+            heights[4] = x;
+            k = 3;
+        } else {
+            k = 0;
+            while (x >= heights[k + 1]) {
+                k++;
+            }
+        }
+
+        for (int i = k + 1; i < 5; i++) {
+            positions[i]++;
+        }
+        for (int i = 0; i < 5; i++) {
+            desired[i] += increments[i];
+        }
+
+        // Adjust the middle markers towards their desired positions
+        for (int i = 1; i <= 3; i++) {
+            double d = desired[i] - positions[i];
+            if ((d >= 1 && positions[i + 1] - positions[i] > 1)
+                    || (d <= -1 && positions[i - 1] - positions[i] < -1)) {
+                int sign = d > 0 ? 1 : -1;
+                double candidate = parabolic(i, sign);
+                if (heights[i - 1] < candidate && candidate < heights[i + 1]) {
+                    heights[i] = candidate;
+                } else {
+                    heights[i] = linear(i, sign);
+                }
+                positions[i] += sign;
+            }
+        }
+        count++;
+    }
+
+    public double estimate() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (count < 5) {
+            double[] seen = Arrays.copyOf(heights, (int) count);
+            Arrays.sort(seen);
+            return seen[(int) Math.min(count - 1, Math.round(p * (count - 1)))];
+        }
+        return heights[2];
+    }
+
+    private double parabolic(int i, int d) {
+        double span = positions[i + 1] - positions[i - 1];
+        double right = (positions[i] - positions[i - 1] + d)
+                * (heights[i + 1] - heights[i]) / (positions[i + 1] - positions[i]);
+        double left = (positions[i + 1] - positions[i] - d)
+                * (heights[i] - heights[i - 1]) / (positions[i] - positions[i - 1]);
+        return heights[i] + d / span * (right + left);
+    }
+
+    private double linear(int i, int d) {
+        return heights[i] + d * (heights[i + d] - heights[i]) / (positions[i + d] - positions[i]);
+    }
+}
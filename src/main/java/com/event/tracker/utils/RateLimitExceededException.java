@@ -0,0 +1,18 @@
+package com.event.tracker.utils;
+
+import java.time.Duration;
+
+// Thrown when a rate-limited call could not get a permit within its allowed wait
+public class RateLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String message, Duration retryAfter) {
+        super(message + " (retry after " + Math.max(1, retryAfter.toSeconds()) + "s)");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
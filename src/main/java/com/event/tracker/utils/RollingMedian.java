@@ -0,0 +1,39 @@
+package com.event.tracker.utils;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Median over roughly the last "window" observations using two P-square generations.
+// Once the current generation is full it becomes the previous one and a fresh one starts,
+// so memory stays fixed while old prices age out.
+@Data
+@NoArgsConstructor
+public class RollingMedian {
+
+    private int window;
+    private P2Quantile current = new P2Quantile(0.5);
+    private P2Quantile previous;
+
+    public RollingMedian(int window) {
+        this.window = window;
+    }
+
+    public synchronized void add(double value) {
+        if (current.getCount() >= window) {
+            previous = current;
+            current = new P2Quantile(0.5);
+        }
+        current.add(value);
+    }
+
+    public synchronized long samples() {
+        return current.getCount() + (previous != null ? previous.getCount() : 0);
+    }
+
+    public synchronized double median(int minSamples) {
+        if (current.getCount() >= minSamples || previous == null) {
+            return current.estimate();
+        }
+        return previous.estimate();
+    }
+}
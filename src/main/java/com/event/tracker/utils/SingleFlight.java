@@ -0,0 +1,52 @@
+package com.event.tracker.utils;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+// Collapses concurrent calls with the same key into one execution: the first caller runs the
+// supplier, callers arriving while it is in flight wait for and share its result. Nothing is
+// cached; once the call completes the next caller starts a fresh one.
+public final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+
+    // Waiters receive share.apply(result) so a mutable result is never handed to two callers
+    public V run(K key, Supplier<V> supplier, UnaryOperator<V> share) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            shared.incrementAndGet();
+            try {
+                return share.apply(existing.join());
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+
+        executions.incrementAndGet();
+        try {
+            V result = supplier.get();
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    public Map<String, Long> stats() {
+        return Map.of(
+                "executions", executions.get(),
+                "shared", shared.get(),
+                "in_flight", (long) inFlight.size());
+    }
+}
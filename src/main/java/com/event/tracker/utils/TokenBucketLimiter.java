@@ -0,0 +1,195 @@
+package com.event.tracker.utils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Token bucket with a per-day quota and a priority wait queue. Permits go strictly to the head of
+// the queue (highest priority, then arrival order), so background traffic never overtakes an
+// interactive call. Callers wait at most maxWait, and the queue is bounded; both fail with
+// RateLimitExceededException rather than dropping work silently. pause() honours server back-off.
+public final class TokenBucketLimiter {
+
+    public enum Priority {
+        INTERACTIVE,
+        BACKGROUND
+    }
+
+    private record Waiter(Priority priority, long sequence) {
+    }
+
+    private final double permitsPerSecond;
+    private final double burst;
+    private final long maxWaitNanos;
+    private final int maxQueued;
+    private final long dailyQuota;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>(
+            Comparator.comparing(Waiter::priority).thenComparingLong(Waiter::sequence));
+
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil; // nanoTime, only compared by difference
+    private long dailyRemaining;
+    private long dailyResetEpochMillis;
+    private long sequence;
+    private long granted;
+    private long rejected;
+    private long totalWaitNanos;
+
+    public TokenBucketLimiter(double permitsPerSecond, double burst, Duration maxWait, int maxQueued, long dailyQuota) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = Math.max(1, burst);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.maxQueued = maxQueued;
+        this.dailyQuota = dailyQuota;
+        this.tokens = this.burst;
+        this.dailyRemaining = dailyQuota;
+        this.dailyResetEpochMillis = nextUtcMidnight();
+        this.lastRefill = System.nanoTime();
+        // nanoTime may be negative, so "not paused" has to be a real reading rather than 0
+        this.pausedUntil = lastRefill;
+    }
+
+    public void acquire(Priority priority) {
+        lock.lock();
+        try {
+            if (queue.size() >= maxQueued) {
+                rejected++;
+                throw new RateLimitExceededException("Rate limiter queue is full", Duration.ofNanos(estimatedWaitNanos()));
+            }
+            Waiter waiter = new Waiter(priority, sequence++);
+            queue.add(waiter);
+            long start = System.nanoTime();
+            long deadline = start + maxWaitNanos;
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    refill(now);
+                    long waitNanos;
+                    if (queue.peek() != waiter) {
+                        waitNanos = deadline - now;
+                    } else {
+                        waitNanos = nanosUntilPermit(now);
+                        if (waitNanos == 0) {
+                            tokens -= 1;
+                            if (dailyRemaining > 0) {
+                                dailyRemaining--;
+                            }
+                            granted++;
+                            totalWaitNanos += now - start;
+                            return;
+                        }
+                        if (now + waitNanos > deadline) {
+                            rejected++;
+                            throw new RateLimitExceededException("Rate limit wait exceeds " +
+                                    TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + " ms", Duration.ofNanos(waitNanos));
+                        }
+                    }
+                    if (now >= deadline) {
+                        rejected++;
+                        throw new RateLimitExceededException("Timed out behind higher-priority calls",
+                                Duration.ofNanos(estimatedWaitNanos()));
+                    }
+                    changed.awaitNanos(Math.min(waitNanos, deadline - now));
+                }
+            } finally {
+                queue.remove(waiter);
+                changed.signalAll();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RateLimitExceededException("Interrupted while waiting for a permit", Duration.ZERO);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Server asked us to back off (e.g. HTTP 429 Retry-After): no permits until the pause ends
+    public void pause(Duration duration) {
+        lock.lock();
+        try {
+            long until = System.nanoTime() + duration.toNanos();
+            if (until - pausedUntil > 0) {
+                pausedUntil = until;
+            }
+            tokens = Math.min(tokens, 0);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Server-reported quota state wins over the local count
+    public void updateQuota(long remaining, long resetEpochMillis) {
+        lock.lock();
+        try {
+            dailyRemaining = remaining;
+            if (resetEpochMillis > 0) {
+                dailyResetEpochMillis = resetEpochMillis;
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        lock.lock();
+        try {
+            refill(System.nanoTime());
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("available_permits", Math.floor(tokens * 100) / 100);
+            stats.put("permits_per_second", permitsPerSecond);
+            stats.put("daily_remaining", dailyRemaining);
+            stats.put("daily_reset_epoch_ms", dailyResetEpochMillis);
+            stats.put("queued_interactive", queue.stream().filter(w -> w.priority() == Priority.INTERACTIVE).count());
+            stats.put("queued_background", queue.stream().filter(w -> w.priority() == Priority.BACKGROUND).count());
+            stats.put("granted", granted);
+            stats.put("rejected", rejected);
+            stats.put("avg_wait_ms", granted == 0 ? 0.0 : totalWaitNanos / 1e6 / granted);
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(burst, tokens + (now - lastRefill) / 1e9 * permitsPerSecond);
+        lastRefill = now;
+        if (System.currentTimeMillis() >= dailyResetEpochMillis) {
+            dailyRemaining = dailyQuota;
+            dailyResetEpochMillis = nextUtcMidnight();
+        }
+    }
+
+    // 0 when a permit can be taken now
+    private long nanosUntilPermit(long now) {
+        long wait = Math.max(0, pausedUntil - now);
+        if (dailyRemaining == 0) {
+            wait = Math.max(wait, TimeUnit.MILLISECONDS.toNanos(dailyResetEpochMillis - System.currentTimeMillis()));
+        }
+        if (tokens < 1) {
+            wait = Math.max(wait, (long) Math.ceil((1 - tokens) / permitsPerSecond * 1e9));
+        }
+        return wait;
+    }
+
+    // Rough wait for a new arrival: its place in the queue at the refill rate
+    private long estimatedWaitNanos() {
+        return nanosUntilPermit(System.nanoTime()) + (long) (queue.size() / permitsPerSecond * 1e9);
+    }
+
+    private static long nextUtcMidnight() {
+        return LocalDate.now(ZoneOffset.UTC).plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -3,7 +3,9 @@ package com.event.tracker;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// Nothing the context starts may write under the developer's home directory
+@SpringBootTest(properties = {"ticketmaster.api.key=test-key", "holidays.preload.enabled=false",
+		"surge.history.enabled=false", "upstream.cache.enabled=false"})
 class EventHotelTrackerApplicationTests {
 
 	@Test
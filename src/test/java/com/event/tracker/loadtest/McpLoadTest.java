@@ -0,0 +1,376 @@
+package com.event.tracker.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// End-to-end load test of the packaged MCP server over stdio. Starts the jar as a child process with
+// upstream.mode=replay (local stub, synthetic payloads), sends a weighted mix of tools/call requests
+// open-loop at a fixed rate and measures each latency from the request's *intended* send time, so a
+// stalled server is charged for the requests queued behind the stall (coordinated-omission
+// correction). GC pauses and allocation rate come from the server's own GC log.
+//
+// Not a unit test; build the jar first (mvn -DskipTests package), then run e.g.
+//   java -cp <test+main classpath> com.event.tracker.loadtest.McpLoadTest \
+//        --rate=200 --duration=60 --mix=get_analysis_parameters:30,calculate_final_surge:70 \
+//        --report=target/load-report.json
+// Only the stdio transport exists in this server; there is no HTTP transport to drive.
+public class McpLoadTest {
+
+    private static final Pattern GC_PAUSE = Pattern.compile(
+            "\\[([\\d.]+)s].*Pause.* (\\d+)M->(\\d+)M\\((\\d+)M\\) ([\\d.]+)ms");
+    private static final double[] PERCENTILES = {50, 90, 95, 99, 99.9, 99.99};
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, String> options;
+    private final Map<Long, Pending> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private volatile boolean measuring;
+
+    private record Pending(String tool, long intendedNanos, boolean measured) {
+    }
+
+    public McpLoadTest(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (arg.startsWith("--") && eq > 2) {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        new McpLoadTest(options).run();
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    public void run() throws Exception {
+        double rate = Double.parseDouble(option("rate", "50"));
+        long warmupSeconds = Long.parseLong(option("warmup", "10"));
+        long durationSeconds = Long.parseLong(option("duration", "30"));
+        Map<String, Integer> mix = parseMix(option("mix", "get_analysis_parameters:30,calculate_final_surge:70"));
+        Path report = Path.of(option("report", "target/load-report.json"));
+        Path gcLog = Files.createTempFile("mcp-load-gc", ".log");
+        for (String tool : mix.keySet()) {
+            histograms.put(tool, new LatencyHistogram());
+        }
+
+        Process server = startServer(gcLog);
+        BufferedWriter toServer = new BufferedWriter(new OutputStreamWriter(server.getOutputStream(), StandardCharsets.UTF_8));
+        BufferedReader fromServer = new BufferedReader(new InputStreamReader(server.getInputStream(), StandardCharsets.UTF_8));
+        try {
+            initialize(toServer, fromServer);
+            JsonNode analysis = callSync(toServer, fromServer, "get_analysis_parameters", analysisArguments(0));
+
+            Thread reader = new Thread(() -> readResponses(fromServer), "load-test-reader");
+            reader.setDaemon(true);
+            reader.start();
+
+            // Open loop: request i is due at start + i / rate whether or not earlier ones have returned
+            Random random = new Random(Long.parseLong(option("seed", "42")));
+            long intervalNanos = (long) (1e9 / rate);
+            long start = System.nanoTime();
+            long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+            long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+            long sent = 0;
+            double gcFrom = Double.NaN;
+            for (long i = 0; ; i++) {
+                long intended = start + i * intervalNanos;
+                if (intended >= end) {
+                    break;
+                }
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (!measuring && intended >= measureFrom) {
+                    measuring = true;
+                    gcFrom = uptimeSeconds(server);
+                }
+                String tool = pick(mix, random);
+                JsonNode arguments = "calculate_final_surge".equals(tool)
+                        ? surgeArguments(analysis, random)
+                        : analysisArguments(random.nextInt(30));
+                send(toServer, tool, arguments, intended, measuring);
+                if (measuring) {
+                    sent++;
+                }
+            }
+            double gcTo = uptimeSeconds(server);
+
+            // Let in-flight requests finish; anything still missing counts as an error
+            long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (!inFlight.isEmpty() && System.nanoTime() < drainDeadline) {
+                Thread.sleep(10);
+            }
+            errors.addAndGet(inFlight.values().stream().filter(Pending::measured).count());
+
+            ObjectNode result = report(rate, durationSeconds, sent, gcLog, gcFrom, gcTo);
+            Files.createDirectories(report.toAbsolutePath().getParent());
+            mapper.writerWithDefaultPrettyPrinter().writeValue(report.toFile(), result);
+            System.out.println(mapper.writerWithDefaultPrettyPrinter().writeValueAsString(result));
+        } finally {
+            server.destroy();
+            server.waitFor(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private Process startServer(Path gcLog) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(option("java", Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+        for (String jvmArg : option("jvm-args", "-Xmx512m").split(" ")) {
+            if (!jvmArg.isBlank()) {
+                command.add(jvmArg);
+            }
+        }
+        command.add("-Xlog:gc:file=" + gcLog + ":uptime");
+        command.add("-jar");
+        command.add(option("jar", "target/tracker-0.0.1-SNAPSHOT.jar"));
+        command.add("--upstream.mode=replay");
+        command.add("--upstream.stub.synthetic-events=" + option("stub-events", "25"));
+        command.add("--upstream.stub.latency-ms=" + option("stub-latency-ms", "20"));
+        command.add("--upstream.stub.latency-jitter-ms=" + option("stub-jitter-ms", "10"));
+        command.add("--upstream.stub.error-rate=" + option("stub-error-rate", "0.0"));
+        // Keep the client-side Ticketmaster limiter out of the way; this measures the server itself
+        command.add("--ticketmaster.rate.per-second=" + option("tm-rate", "100000"));
+        command.add("--ticketmaster.rate.burst=" + option("tm-rate", "100000"));
+        command.add("--ticketmaster.rate.daily-quota=" + Long.MAX_VALUE);
+        command.add("--surge.history.dir=" + Files.createTempDirectory("mcp-load-history"));
+        command.add("--upstream.cache.dir=" + Files.createTempDirectory("mcp-load-cache"));
+        command.add("--baseline.model.file=" + Files.createTempDirectory("mcp-load-baseline").resolve("model.json"));
+        return new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.appendTo(Path.of(option("server-log", "target/load-server.log")).toFile()))
+                .start();
+    }
+
+    private void initialize(BufferedWriter out, BufferedReader in) throws IOException {
+        ObjectNode params = mapper.createObjectNode();
+        params.put("protocolVersion", "2024-11-05");
+        params.putObject("capabilities");
+        params.putObject("clientInfo").put("name", "mcp-load-test").put("version", "1.0");
+        write(out, request(0, "initialize", params));
+        readUntilId(in, 0);
+        ObjectNode initialized = mapper.createObjectNode();
+        initialized.put("jsonrpc", "2.0");
+        initialized.put("method", "notifications/initialized");
+        write(out, initialized);
+    }
+
+    private JsonNode callSync(BufferedWriter out, BufferedReader in, String tool, JsonNode arguments) throws IOException {
+        long id = nextId.getAndIncrement();
+        write(out, request(id, "tools/call", toolParams(tool, arguments)));
+        JsonNode response = readUntilId(in, id);
+        return mapper.readTree(response.path("result").path("content").path(0).path("text").asText("{}"));
+    }
+
+    private void send(BufferedWriter out, String tool, JsonNode arguments, long intendedNanos, boolean measured)
+            throws IOException {
+        long id = nextId.getAndIncrement();
+        inFlight.put(id, new Pending(tool, intendedNanos, measured));
+        write(out, request(id, "tools/call", toolParams(tool, arguments)));
+    }
+
+    private void readResponses(BufferedReader in) {
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                long now = System.nanoTime();
+                JsonNode message = mapper.readTree(line);
+                if (!message.has("id")) {
+                    continue;
+                }
+                Pending pending = inFlight.remove(message.get("id").asLong());
+                if (pending == null || !pending.measured()) {
+                    continue;
+                }
+                if (message.has("error") || message.path("result").path("isError").asBoolean()) {
+                    errors.incrementAndGet();
+                }
+                LatencyHistogram histogram = histograms.get(pending.tool());
+                synchronized (histogram) {
+                    histogram.record((now - pending.intendedNanos()) / 1000);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Server output closed: " + e.getMessage());
+        }
+    }
+
+    private JsonNode readUntilId(BufferedReader in, long id) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            JsonNode message = mapper.readTree(line);
+            if (message.path("id").asLong(-1) == id) {
+                return message;
+            }
+        }
+        throw new IOException("Server exited before answering request " + id);
+    }
+
+    private synchronized void write(BufferedWriter out, JsonNode message) throws IOException {
+        out.write(message.toString());
+        out.newLine();
+        out.flush();
+    }
+
+    private ObjectNode request(long id, String method, JsonNode params) {
+        ObjectNode request = mapper.createObjectNode();
+        request.put("jsonrpc", "2.0");
+        request.put("id", id);
+        request.put("method", method);
+        request.set("params", params);
+        return request;
+    }
+
+    private ObjectNode toolParams(String tool, JsonNode arguments) {
+        ObjectNode params = mapper.createObjectNode();
+        params.put("name", tool);
+        params.set("arguments", arguments);
+        return params;
+    }
+
+    private JsonNode analysisArguments(int dayOffset) {
+        LocalDate checkIn = LocalDate.now().plusDays(30 + dayOffset);
+        ObjectNode arguments = mapper.createObjectNode();
+        arguments.put("city", option("city", "Berlin"));
+        arguments.put("countryCode", option("country", "DE"));
+        arguments.put("checkInDate", checkIn.toString());
+        arguments.put("checkOutDate", checkIn.plusDays(2).toString());
+        return arguments;
+    }
+
+    private JsonNode surgeArguments(JsonNode analysis, Random random) {
+        ObjectNode arguments = mapper.createObjectNode();
+        arguments.set("analysisParameters", analysis);
+        arguments.putObject("currentMarketData").put("average_price", 90 + random.nextInt(150));
+        arguments.put("baselinePrice", 100.0);
+        return arguments;
+    }
+
+    private ObjectNode report(double rate, long durationSeconds, long sent, Path gcLog, double gcFrom, double gcTo)
+            throws IOException {
+        ObjectNode report = mapper.createObjectNode();
+        report.put("timestamp", Instant.now().toString());
+        report.put("jar", option("jar", "target/tracker-0.0.1-SNAPSHOT.jar"));
+        report.put("transport", "stdio");
+        report.put("target_rate_per_sec", rate);
+        report.put("duration_sec", durationSeconds);
+        report.put("requests_sent", sent);
+        report.put("errors", errors.get());
+
+        LatencyHistogram all = new LatencyHistogram();
+        ObjectNode tools = report.putObject("tools");
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            all.add(entry.getValue());
+            tools.set(entry.getKey(), latency(entry.getValue()));
+        }
+        report.put("throughput_per_sec", all.count() / (double) durationSeconds);
+        report.set("latency_ms", latency(all));
+        report.set("gc", gcStats(gcLog, gcFrom, gcTo));
+        return report;
+    }
+
+    private ObjectNode latency(LatencyHistogram histogram) {
+        ObjectNode node = mapper.createObjectNode();
+        node.put("count", histogram.count());
+        node.put("mean", histogram.mean() / 1000.0);
+        for (double p : PERCENTILES) {
+            node.put("p" + (p == Math.floor(p) ? String.valueOf((int) p) : String.valueOf(p)),
+                    histogram.percentile(p) / 1000.0);
+        }
+        node.put("max", histogram.max() / 1000.0);
+        return node;
+    }
+
+    // Pauses and allocation (heap growth between collections) within the measured window
+    private ObjectNode gcStats(Path gcLog, double from, double to) throws IOException {
+        int pauses = 0;
+        double totalPauseMs = 0;
+        double maxPauseMs = 0;
+        long allocatedMb = 0;
+        long previousAfterMb = -1;
+        for (String line : Files.readAllLines(gcLog)) {
+            Matcher m = GC_PAUSE.matcher(line);
+            if (!m.find()) {
+                continue;
+            }
+            double uptime = Double.parseDouble(m.group(1));
+            long beforeMb = Long.parseLong(m.group(2));
+            long afterMb = Long.parseLong(m.group(3));
+            double pauseMs = Double.parseDouble(m.group(5));
+            if (uptime >= from && uptime <= to) {
+                pauses++;
+                totalPauseMs += pauseMs;
+                maxPauseMs = Math.max(maxPauseMs, pauseMs);
+                if (previousAfterMb >= 0) {
+                    allocatedMb += Math.max(0, beforeMb - previousAfterMb);
+                }
+            }
+            previousAfterMb = afterMb;
+        }
+        ObjectNode gc = mapper.createObjectNode();
+        gc.put("pauses", pauses);
+        gc.put("total_pause_ms", totalPauseMs);
+        gc.put("max_pause_ms", maxPauseMs);
+        gc.put("allocation_rate_mb_per_sec", to > from ? allocatedMb / (to - from) : 0);
+        return gc;
+    }
+
+    // Child JVM uptime, matching the timestamps in its GC log
+    private double uptimeSeconds(Process server) {
+        return server.info().startInstant()
+                .map(started -> (System.currentTimeMillis() - started.toEpochMilli()) / 1000.0)
+                .orElse(0.0);
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            weights.put(parts[0].trim(), parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1);
+        }
+        return weights;
+    }
+
+    private static String pick(Map<String, Integer> mix, Random random) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int roll = random.nextInt(total);
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("empty mix");
+    }
+}
@@ -0,0 +1,122 @@
+package com.event.tracker.service;
+
+import com.event.tracker.model.SurgeBatch;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Throughput of SurgeBatchScorer at increasing worker counts over a synthetic nightly batch.
+// Not a unit test; run with: java -cp <test+main classpath> com.event.tracker.service.SurgeBatchScorerBenchmark [rows]
+public class SurgeBatchScorerBenchmark {
+
+    private static final int ANALYSES = 500;
+    private static final int EVENTS_PER_ANALYSIS = 40;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        SurgeBatch batch = syntheticBatch(rows, new Random(42));
+
+        SurgeModelRegistry registry = new SurgeModelRegistry(new CityReferenceService("", false), "", false);
+        registry.reload();
+        SurgeCalculationEngine engine = new SurgeCalculationEngine(registry, ANALYSES * 2);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        double singleThreaded = 0;
+        for (int workers = 1; workers <= cores; workers = workers < cores ? Math.min(cores, workers * 2) : cores + 1) {
+            SurgeBatchScorer scorer = new SurgeBatchScorer(engine, workers, 1024);
+            scorer.score(batch, "standard"); // warm-up
+
+            long best = Long.MAX_VALUE;
+            double checksum = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                SurgeBatchScorer.Result result = scorer.score(batch, "standard");
+                best = Math.min(best, System.nanoTime() - start);
+                checksum += result.modelSurge[round];
+            }
+            scorer.shutdown();
+
+            double rowsPerSecond = rows / (best / 1e9);
+            if (workers == 1) {
+                singleThreaded = rowsPerSecond;
+            }
+            System.out.printf("workers=%-3d best=%8.1f ms  %,12.0f rows/s  speedup=%.2fx  (checksum %.3f)%n",
+                    workers, best / 1e6, rowsPerSecond, rowsPerSecond / singleThreaded, checksum);
+        }
+    }
+
+    private static SurgeBatch syntheticBatch(int rows, Random random) {
+        ObjectMapper mapper = new ObjectMapper();
+        String[] levels = {"low", "medium", "high", "critical"};
+        List<JsonNode> analyses = new ArrayList<>();
+        for (int a = 0; a < ANALYSES; a++) {
+            LocalDate checkIn = LocalDate.of(2026, 1, 1).plusDays(a % 365);
+            int nights = 1 + random.nextInt(7);
+            ObjectNode analysis = mapper.createObjectNode();
+            analysis.put("city", "Berlin");
+            ObjectNode stay = analysis.putObject("stay_period");
+            stay.put("check_in", checkIn.toString());
+            stay.put("check_out", checkIn.plusDays(nights).toString());
+
+            ArrayNode events = analysis.putArray("events");
+            for (int e = 0; e < EVENTS_PER_ANALYSIS; e++) {
+                ObjectNode event = events.addObject();
+                event.put("name", "Event " + e);
+                event.put("date", checkIn.plusDays(random.nextInt(nights + 1)).toString());
+                event.put("expected_visitors", 500 + random.nextInt(40000));
+                event.put("distance_km", random.nextDouble() * 30);
+                event.put("latitude", 52.52 + random.nextGaussian() * 0.05);
+                event.put("longitude", 13.40 + random.nextGaussian() * 0.08);
+                event.put("impact_level", levels[random.nextInt(levels.length)]);
+            }
+
+            ObjectNode seasonality = analysis.putObject("seasonality");
+            seasonality.put("is_peak_season", random.nextBoolean());
+            seasonality.put("tourism_level", "medium");
+            ObjectNode calendar = analysis.putObject("calendar_factors");
+            calendar.put("is_weekend", random.nextBoolean());
+            calendar.put("is_holiday", false);
+            calendar.put("is_long_weekend", false);
+            analysis.putObject("demand_indicators").put("overall_demand_level", "high");
+
+            ArrayNode nightsArray = analysis.putArray("nights");
+            for (int n = 0; n < nights; n++) {
+                ObjectNode night = nightsArray.addObject();
+                night.put("is_weekend", checkIn.plusDays(n).getDayOfWeek().getValue() >= 6);
+                night.put("is_holiday", false);
+                night.put("is_long_weekend", false);
+                night.put("is_peak_season", seasonality.get("is_peak_season").asBoolean());
+                night.put("tourism_level", "medium");
+            }
+            analyses.add(analysis);
+        }
+
+        int[] analysisIndex = new int[rows];
+        double[] latitude = new double[rows];
+        double[] longitude = new double[rows];
+        double[] price = new double[rows];
+        double[] baseline = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            analysisIndex[i] = random.nextInt(ANALYSES);
+            latitude[i] = 52.52 + random.nextGaussian() * 0.05;
+            longitude[i] = 13.40 + random.nextGaussian() * 0.08;
+            baseline[i] = 80 + random.nextInt(120);
+            price[i] = baseline[i] * (0.8 + random.nextDouble());
+        }
+        return SurgeBatch.builder()
+                .analyses(analyses)
+                .analysisIndex(analysisIndex)
+                .hotelLatitude(latitude)
+                .hotelLongitude(longitude)
+                .price(price)
+                .baseline(baseline)
+                .build();
+    }
+}
@@ -0,0 +1,148 @@
+package com.event.tracker.service;
+
+import com.event.tracker.model.SurgeHistoryPoint;
+import com.event.tracker.model.SurgeRollup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SurgeHistoryStoreTest {
+
+    private static final LocalDate STAY = LocalDate.of(2025, 6, 3);
+
+    @TempDir
+    Path dir;
+
+    private SurgeHistoryStore open(int blockPoints) {
+        CityReferenceService cities = new CityReferenceService("", false);
+        cities.init();
+        SurgeHistoryStore store = new SurgeHistoryStore(cities, true, dir.toString(), 1, blockPoints, 3600, 30);
+        store.open();
+        return store;
+    }
+
+    @Test
+    void pointsSurviveRestart() throws Exception {
+        long start = Instant.now().minus(2, ChronoUnit.DAYS).toEpochMilli();
+        SurgeHistoryStore store = open(16);
+        for (int i = 0; i < 100; i++) {
+            store.record("Berlin", STAY, start + i * 60_000L, 40 + i % 7, 38.5, "MODERATE", "driver-" + i % 3);
+        }
+        Map<String, List<SurgeHistoryPoint>> before = store.queryPoints("Berlin", STAY,
+                Instant.ofEpochMilli(start), Instant.now());
+        store.close();
+
+        SurgeHistoryStore reopened = open(16);
+        Map<String, List<SurgeHistoryPoint>> after = reopened.queryPoints("Berlin", STAY,
+                Instant.ofEpochMilli(start), Instant.now());
+        reopened.close();
+
+        assertEquals(100, after.get("berlin|" + STAY).size());
+        assertEquals(before, after);
+        SurgeHistoryPoint first = after.get("berlin|" + STAY).get(0);
+        assertEquals(Instant.ofEpochMilli(start), first.getTimestamp());
+        assertEquals("driver-0", first.getPrimaryDriver());
+        assertEquals("MODERATE", first.getSurgeCategory());
+    }
+
+    @Test
+    void rollupsAreRebuiltOnStartup() throws Exception {
+        Instant from = Instant.now().minus(3, ChronoUnit.DAYS);
+        SurgeHistoryStore store = open(50);
+        for (int i = 0; i < 1_000; i++) {
+            store.record("Berlin", STAY, from.toEpochMilli() + i * 200_000L, i % 90, i % 90 + 0.5, "HIGH", "event");
+        }
+        Map<String, List<SurgeRollup>> hourly = store.queryRollups("Berlin", STAY, from, Instant.now(), false);
+        Map<String, List<SurgeRollup>> daily = store.queryRollups("Berlin", STAY, from, Instant.now(), true);
+        store.close();
+
+        SurgeHistoryStore reopened = open(50);
+        assertEquals(hourly, reopened.queryRollups("Berlin", STAY, from, Instant.now(), false));
+        assertEquals(daily, reopened.queryRollups("Berlin", STAY, from, Instant.now(), true));
+        assertEquals(1_000, daily.get("berlin|" + STAY).stream().mapToLong(SurgeRollup::getCount).sum());
+        reopened.close();
+    }
+
+    @Test
+    void rollupsOutsideRetentionAreComputedFromPoints() throws Exception {
+        Instant old = Instant.now().minus(90, ChronoUnit.DAYS).truncatedTo(ChronoUnit.DAYS).plus(12, ChronoUnit.HOURS);
+        SurgeHistoryStore store = open(120);
+        store.record("Berlin", STAY, old.toEpochMilli(), 10, 10, "LOW", "event");
+        store.record("Berlin", STAY, old.toEpochMilli() + 1_000, 30, 30, "LOW", "event");
+        store.close();
+
+        SurgeHistoryStore reopened = open(120);
+        List<SurgeRollup> daily = reopened.queryRollups("Berlin", STAY, old.minus(1, ChronoUnit.DAYS),
+                Instant.now(), true).get("berlin|" + STAY);
+        reopened.close();
+
+        assertEquals(1, daily.size());
+        assertEquals(2, daily.get(0).getCount());
+        assertEquals(10.0, daily.get(0).getMinSurgePercentage());
+        assertEquals(30.0, daily.get(0).getMaxSurgePercentage());
+    }
+
+    @Test
+    void aliasesShareTheCanonicalSeries() throws Exception {
+        SurgeHistoryStore store = open(120);
+        long now = System.currentTimeMillis();
+        store.record("New York", STAY, now - 2_000, 20, 20, "LOW", "event");
+        store.record("nyc", STAY, now - 1_000, 25, 25, "LOW", "event");
+        Map<String, List<SurgeHistoryPoint>> points = store.queryPoints("NYC", null,
+                Instant.ofEpochMilli(now - 10_000), Instant.ofEpochMilli(now));
+        store.close();
+
+        assertEquals(1, points.size());
+        assertEquals(2, points.values().iterator().next().size());
+    }
+
+    @Test
+    void storesSharingADirectoryStayConsistentAcrossRollover() throws Exception {
+        long start = Instant.now().minus(1, ChronoUnit.DAYS).toEpochMilli();
+        SurgeHistoryStore a = open(16);
+        SurgeHistoryStore b = open(16);
+        // The stores take turns adding new series, so ids are assigned on both sides of each rollover
+        for (int round = 0; round < 8; round++) {
+            SurgeHistoryStore writer = round % 2 == 0 ? a : b;
+            for (int day = 0; day < 10; day++) {
+                int series = round * 10 + day;
+                for (int i = 0; i < 2_000; i++) {
+                    writer.record("Berlin", STAY.plusDays(series), start + i * 1_000L,
+                            series + Math.sqrt(i) % 1, Math.sqrt(i * 7.0), "HIGH", "driver-" + round);
+                }
+            }
+            writer.flush();
+        }
+        a.flush();
+        b.flush();
+        assertTrue(Files.exists(dir.resolve("segment-000001.dat")));
+
+        SurgeHistoryStore reopened = open(16);
+        for (SurgeHistoryStore store : List.of(a, b, reopened)) {
+            Map<String, List<SurgeHistoryPoint>> points = store.queryPoints("Berlin", null,
+                    Instant.ofEpochMilli(start), Instant.now());
+            assertEquals(80, points.size());
+            for (int series = 0; series < 80; series++) {
+                List<SurgeHistoryPoint> stay = points.get("berlin|" + STAY.plusDays(series));
+                assertEquals(2_000, stay.size());
+                for (SurgeHistoryPoint point : stay) {
+                    assertEquals(series, (int) point.getSurgePercentage());
+                    assertEquals("driver-" + series / 10, point.getPrimaryDriver());
+                }
+            }
+        }
+        a.close();
+        b.close();
+        reopened.close();
+    }
+}
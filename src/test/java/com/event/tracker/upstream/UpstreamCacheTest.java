@@ -0,0 +1,105 @@
+package com.event.tracker.upstream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class UpstreamCacheTest {
+
+    private static final String TM = UpstreamRecordings.TICKETMASTER;
+
+    @TempDir
+    Path dir;
+
+    private UpstreamCache open(long ticketmasterTtlMinutes) {
+        UpstreamCache cache = new UpstreamCache(true, dir.toString(), 16, ticketmasterTtlMinutes, 720, 7, "live");
+        cache.sweep();
+        return cache;
+    }
+
+    @Test
+    void secondReadComesFromMemory() {
+        UpstreamCache cache = open(60);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("body", cache.get(TM, "berlin", () -> {
+            loads.incrementAndGet();
+            return "body";
+        }));
+        assertEquals("body", cache.get(TM, "berlin", () -> "reloaded" + loads.incrementAndGet()));
+        assertEquals(1, loads.get());
+        assertEquals(0L, cache.stats().get("disk_hits"));
+    }
+
+    @Test
+    void newProcessReadsWhatAnEarlierOneStored() {
+        open(60).get(TM, "berlin", () -> "body");
+
+        UpstreamCache restarted = open(60);
+        assertEquals("body", restarted.get(TM, "berlin", () -> "reloaded"));
+        assertEquals("body", restarted.get(TM, "berlin", () -> "reloaded"));
+        assertEquals(1L, restarted.stats().get("disk_hits"));
+        assertEquals(0L, restarted.stats().get("upstream_loads"));
+    }
+
+    @Test
+    void expiredEntriesReloadButStayAvailableAsStale() throws InterruptedException {
+        UpstreamCache cache = open(0);
+        cache.get(TM, "berlin", () -> "first");
+        Thread.sleep(5); // a zero TTL still serves an entry within its own millisecond
+
+        assertEquals("second", cache.get(TM, "berlin", () -> "second"));
+        assertEquals("second", cache.getStale(TM, "berlin"));
+        assertEquals("second", open(0).getStale(TM, "berlin"));
+    }
+
+    @Test
+    void failedLoadsAreNotCached() {
+        UpstreamCache cache = open(60);
+        assertNull(cache.get(TM, "berlin", () -> null));
+        assertEquals("body", cache.get(TM, "berlin", () -> "body"));
+        assertNull(cache.getStale(TM, "munich"));
+    }
+
+    @Test
+    void sweepKeepsExpiredEntriesForStaleRetention() throws IOException {
+        UpstreamCache first = open(60);
+        first.get(TM, "old", () -> "old body");
+        age(Duration.ofDays(10));
+        first.get(TM, "recent", () -> "recent body");
+        age(Duration.ofDays(2));
+
+        UpstreamCache restarted = open(60);
+        assertEquals("recent body", restarted.getStale(TM, "recent"));
+        assertNull(restarted.getStale(TM, "old"));
+        assertEquals(1, files().size());
+    }
+
+    // Backdates files not already older than the given age
+    private void age(Duration age) throws IOException {
+        Instant at = Instant.now().minus(age);
+        for (Path file : files()) {
+            if (Files.getLastModifiedTime(file).toInstant().isAfter(at)) {
+                Files.setLastModifiedTime(file, FileTime.from(at));
+            }
+        }
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(dir.resolve(TM))) {
+            return files.toList();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.event.tracker.utils;
+
+import com.event.tracker.model.CityInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CityIndexTest {
+
+    private static CityInfo city(String name, String... aliases) {
+        return CityInfo.builder()
+                .name(name)
+                .country("XX")
+                .aliases(List.of(aliases))
+                .peakMonths(Set.of())
+                .tourismCurve(List.of())
+                .build();
+    }
+
+    @Test
+    void namesAndAliasesMatchIgnoringCaseAndSurroundingSpace() {
+        CityInfo newYork = city("New York", "NYC", "New York City");
+        CityIndex index = new CityIndex(List.of(newYork, city("Berlin")));
+
+        assertSame(newYork, index.get("new york"));
+        assertSame(newYork, index.get("  NYC "));
+        assertSame(newYork, index.get("NEW YORK CITY"));
+        assertNull(index.get("York"));
+        assertNull(index.get("   "));
+        assertNull(index.get(null));
+    }
+
+    @Test
+    void dottedAndDotlessIFoldLikeEveryOtherLetter() {
+        // String.toLowerCase turns the dotted capital I into two chars; the index must not
+        CityInfo istanbul = city("\u0130stanbul", "Istanbul");
+        CityInfo diyarbakir = city("Diyarbak\u0131r");
+        CityIndex index = new CityIndex(List.of(istanbul, diyarbakir));
+
+        assertSame(istanbul, index.get("\u0130STANBUL"));
+        assertSame(istanbul, index.get("istanbul"));
+        assertSame(diyarbakir, index.get("DIYARBAKIR"));
+        assertSame(diyarbakir, index.get("diyarbak\u0131r"));
+    }
+}
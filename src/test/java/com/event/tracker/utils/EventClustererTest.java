@@ -0,0 +1,132 @@
+package com.event.tracker.utils;
+
+import com.event.tracker.model.Event;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class EventClustererTest {
+
+    private static final LocalDate JUNE_1 = LocalDate.of(2025, 6, 1);
+
+    private static Event listing(String name, String venue, LocalDate date, LocalTime time, int visitors) {
+        return Event.builder()
+                .id(name + date + time)
+                .name(name)
+                .venue(venue)
+                .date(date)
+                .time(time)
+                .expectedVisitors(visitors)
+                .impactLevel("medium")
+                .build();
+    }
+
+    private static Event listing(String name, LocalDate date, int visitors) {
+        return listing(name, "Olympiastadion", date, null, visitors);
+    }
+
+    @Test
+    void normalizeStripsTierWordsButKeepsTheName() {
+        assertEquals("metallica", EventClusterer.normalize("VIP Metallica Package"));
+        assertEquals("metallica", EventClusterer.normalize("Metallica - VIP Experience"));
+        assertEquals("metallica", EventClusterer.normalize("Metallica Premium Tickets"));
+        assertEquals("coldplay", EventClusterer.normalize("Hospitality Coldplay"));
+    }
+
+    @Test
+    void normalizeStripsDatesDaysAndBrackets() {
+        assertEquals("rock am ring", EventClusterer.normalize("Rock am Ring 2025 (Day 2)"));
+        assertEquals("rock am ring", EventClusterer.normalize("Rock am Ring - Tag 1"));
+        assertEquals("rock am ring", EventClusterer.normalize("Rock am Ring Weekend Pass"));
+        assertEquals("lollapalooza", EventClusterer.normalize("Lollapalooza Saturday [Early Entry]"));
+        assertEquals("cafe tacvba", EventClusterer.normalize("Caf\u00e9 Tacvba"));
+    }
+
+    @Test
+    void normalizeKeepsNamesMadeOnlyOfNoise() {
+        assertEquals("vip", EventClusterer.normalize("VIP"));
+        assertEquals("", EventClusterer.normalize(null));
+    }
+
+    @Test
+    void adjacentDaysFormOneCluster() {
+        List<Event> clustered = EventClusterer.cluster(List.of(
+                listing("Festival Day 1", JUNE_1, 20_000),
+                listing("Festival Day 2", JUNE_1.plusDays(1), 30_000)));
+
+        assertEquals(1, clustered.size());
+        Event festival = clustered.get(0);
+        assertEquals(JUNE_1, festival.getDate());
+        assertEquals(JUNE_1.plusDays(1), festival.getEndDate());
+        assertEquals(30_000, festival.getExpectedVisitors());
+        assertEquals(50_000, festival.getTotalVisitors());
+        assertEquals(2, festival.getListingCount());
+    }
+
+    @Test
+    void gapSplitsRuns() {
+        List<Event> clustered = EventClusterer.cluster(List.of(
+                listing("Festival", JUNE_1, 20_000),
+                listing("Festival", JUNE_1.plusDays(2), 30_000)));
+
+        assertEquals(2, clustered.size());
+        assertNull(clustered.get(0).getEndDate());
+        assertEquals(JUNE_1.plusDays(2), clustered.get(1).getDate());
+    }
+
+    @Test
+    void listingsInsideAnEarlierSpanJoinIt() {
+        Event span = listing("Trade Fair", JUNE_1, 10_000).toBuilder().endDate(JUNE_1.plusDays(4)).build();
+        List<Event> clustered = EventClusterer.cluster(List.of(
+                span,
+                listing("Trade Fair Tickets", JUNE_1.plusDays(2), 15_000),
+                listing("Trade Fair", JUNE_1.plusDays(5), 8_000)));
+
+        assertEquals(1, clustered.size());
+        Event fair = clustered.get(0);
+        assertEquals(JUNE_1.plusDays(5), fair.getEndDate());
+        assertEquals(15_000, fair.getExpectedVisitors());
+        // five days of the span (one raised by the single-day listing) plus the adjacent day
+        assertEquals(10_000 * 4 + 15_000 + 8_000, fair.getTotalVisitors());
+    }
+
+    @Test
+    void tiersOfOneShowCountOnce() {
+        LocalTime evening = LocalTime.of(20, 0);
+        List<Event> clustered = EventClusterer.cluster(List.of(
+                listing("Hamilton", "Theater", JUNE_1, evening, 1_500),
+                listing("Hamilton VIP Package", "Theater", JUNE_1, evening, 200),
+                listing("Hamilton Premium Seating", "Theater", JUNE_1, null, 300)));
+
+        assertEquals(1, clustered.size());
+        assertEquals(1_500, clustered.get(0).getExpectedVisitors());
+        assertEquals(3, clustered.get(0).getListingCount());
+    }
+
+    @Test
+    void sameDayShowsAtDifferentTimesAddUp() {
+        List<Event> clustered = EventClusterer.cluster(List.of(
+                listing("Hamilton", "Theater", JUNE_1, LocalTime.of(14, 0), 1_200),
+                listing("Hamilton", "Theater", JUNE_1, LocalTime.of(20, 0), 1_500),
+                listing("Hamilton", "Theater", JUNE_1.plusDays(1), LocalTime.of(20, 0), 1_400)));
+
+        assertEquals(1, clustered.size());
+        Event run = clustered.get(0);
+        assertEquals(2_700, run.getExpectedVisitors());
+        assertEquals(4_100, run.getTotalVisitors());
+    }
+
+    @Test
+    void differentVenuesStaySeparate() {
+        List<Event> clustered = EventClusterer.cluster(List.of(
+                listing("Metallica", "Olympiastadion", JUNE_1, null, 60_000),
+                listing("Metallica", "Waldbuehne", JUNE_1, null, 20_000)));
+
+        assertEquals(2, clustered.size());
+    }
+}
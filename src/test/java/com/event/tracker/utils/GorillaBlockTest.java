@@ -0,0 +1,72 @@
+package com.event.tracker.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GorillaBlockTest {
+
+    private record Point(long timestamp, double surge, double model, int category, int driver) {
+    }
+
+    private static List<Point> roundTrip(List<Point> points) {
+        GorillaBlock block = new GorillaBlock();
+        for (Point p : points) {
+            block.add(p.timestamp(), p.surge(), p.model(), p.category(), p.driver());
+        }
+        List<Point> decoded = new ArrayList<>();
+        GorillaBlock.decode(block.toBytes(), block.count(),
+                (ts, surge, model, category, driver) -> decoded.add(new Point(ts, surge, model, category, driver)));
+        return decoded;
+    }
+
+    @Test
+    void singlePointKeepsFullTimestampAndValues() {
+        List<Point> points = List.of(new Point(1_700_000_000_123L, 42.5, -3.25, 4, 65_534));
+        assertEquals(points, roundTrip(points));
+
+        GorillaBlock block = new GorillaBlock();
+        block.add(1_700_000_000_123L, 42.5, -3.25, 4, 65_534);
+        assertEquals(1_700_000_000_123L, block.minTimestamp());
+        assertEquals(1_700_000_000_123L, block.maxTimestamp());
+    }
+
+    @Test
+    void equalValuesAndRegularIntervals() {
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            points.add(new Point(1_700_000_000_000L + i * 60_000L, 25.0, 25.0, 2, 7));
+        }
+        assertEquals(points, roundTrip(points));
+    }
+
+    @Test
+    void largeDeltasAndValueChanges() {
+        List<Point> points = List.of(
+                new Point(0L, 0.0, 0.0, 0, 0),
+                new Point(1L, Double.MAX_VALUE, -0.0, 7, 0xFFFF),
+                new Point(1_700_000_000_000L, Double.MIN_VALUE, 1e-300, 1, 3),
+                new Point(1_700_000_000_001L, -1e300, Double.NaN, 3, 12),
+                new Point(Long.MAX_VALUE / 2, 123.456, Double.POSITIVE_INFINITY, 5, 1),
+                new Point(Long.MAX_VALUE / 2 + 100, 123.457, Double.NEGATIVE_INFINITY, 6, 2));
+        assertEquals(points, roundTrip(points));
+    }
+
+    @Test
+    void deltaOfDeltaBucketBoundaries() {
+        // Steps that land just inside and just outside each of the 7/9/12-bit buckets, both signs
+        long[] steps = {0, 63, -64, 64, 255, -256, 256, 2047, -2048, 2048, 1L << 40, -(1L << 40)};
+        List<Point> points = new ArrayList<>();
+        long timestamp = 1_000_000_000_000L;
+        long delta = 1_000;
+        for (int i = 0; i < steps.length; i++) {
+            delta += steps[i];
+            timestamp += delta;
+            points.add(new Point(timestamp, i, i * 0.5, i % 5, i));
+        }
+        assertEquals(points, roundTrip(points));
+    }
+}
@@ -0,0 +1,121 @@
+package com.event.tracker.utils;
+
+import com.event.tracker.utils.TokenBucketLimiter.Priority;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketLimiterTest {
+
+    @Test
+    void freshLimiterGrantsBurstWithoutWaiting() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 3, Duration.ofMillis(10), 10, 100);
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(Priority.INTERACTIVE);
+        }
+        assertTrue(System.nanoTime() - start < Duration.ofMillis(100).toNanos());
+        assertEquals(97L, limiter.stats().get("daily_remaining"));
+    }
+
+    @Test
+    void interactiveCallsOvertakeQueuedBackgroundCalls() throws Exception {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(50, 1, Duration.ofSeconds(5), 10, 100);
+        limiter.pause(Duration.ofMillis(300));
+        List<Priority> grants = Collections.synchronizedList(new ArrayList<>());
+
+        Thread background = start(limiter, Priority.BACKGROUND, grants);
+        awaitTrue(() -> queued(limiter, "queued_background") == 1);
+        Thread interactive = start(limiter, Priority.INTERACTIVE, grants);
+        awaitTrue(() -> queued(limiter, "queued_interactive") == 1);
+
+        background.join(5_000);
+        interactive.join(5_000);
+        assertEquals(List.of(Priority.INTERACTIVE, Priority.BACKGROUND), grants);
+    }
+
+    @Test
+    void waitLongerThanMaxWaitIsRejected() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1, Duration.ofMillis(100), 10, 100);
+        limiter.acquire(Priority.INTERACTIVE);
+
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire(Priority.INTERACTIVE));
+        assertTrue(e.getRetryAfter().toMillis() > 100);
+        assertEquals(1L, limiter.stats().get("rejected"));
+    }
+
+    @Test
+    void fullQueueIsRejected() throws Exception {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(50, 1, Duration.ofSeconds(2), 1, 100);
+        limiter.pause(Duration.ofMillis(300));
+        Thread waiting = start(limiter, Priority.BACKGROUND, new ArrayList<>());
+        awaitTrue(() -> queued(limiter, "queued_background") == 1);
+
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire(Priority.INTERACTIVE));
+        waiting.join(5_000);
+        assertEquals(1L, limiter.stats().get("granted"));
+    }
+
+    @Test
+    void pauseHoldsPermitsForTheRetryAfterPeriod() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(100, 5, Duration.ofSeconds(2), 10, 100);
+        limiter.pause(Duration.ofMillis(200));
+        long start = System.nanoTime();
+        limiter.acquire(Priority.INTERACTIVE);
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(190).toNanos());
+
+        limiter.pause(Duration.ofSeconds(10));
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire(Priority.INTERACTIVE));
+        assertTrue(e.getRetryAfter().toSeconds() >= 9);
+    }
+
+    @Test
+    void exhaustedQuotaWaitsForTheDailyReset() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(100, 5, Duration.ofSeconds(2), 10, 100);
+        limiter.updateQuota(0, System.currentTimeMillis() + 200);
+        long start = System.nanoTime();
+        limiter.acquire(Priority.INTERACTIVE);
+
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(150).toNanos());
+        assertEquals(99L, limiter.stats().get("daily_remaining"));
+        assertTrue((long) limiter.stats().get("daily_reset_epoch_ms") > System.currentTimeMillis());
+    }
+
+    @Test
+    void exhaustedQuotaBeyondMaxWaitIsRejected() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(100, 5, Duration.ofMillis(100), 10, 100);
+        limiter.updateQuota(0, System.currentTimeMillis() + 60_000);
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire(Priority.BACKGROUND));
+    }
+
+    private static Thread start(TokenBucketLimiter limiter, Priority priority, List<Priority> grants) {
+        Thread thread = new Thread(() -> {
+            limiter.acquire(priority);
+            grants.add(priority);
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static long queued(TokenBucketLimiter limiter, String stat) {
+        return (long) limiter.stats().get(stat);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(5);
+        }
+    }
+}